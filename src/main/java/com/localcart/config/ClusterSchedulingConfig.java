@@ -0,0 +1,34 @@
+package com.localcart.config;
+
+import com.localcart.service.scheduling.ClusterSingleton;
+import com.localcart.service.scheduling.ClusterSingletonInterceptor;
+import com.localcart.service.scheduling.SchedulerLeaseService;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Cluster-safe scheduling
+ * - Applies the lease guard to @ClusterSingleton methods
+ *
+ * Declared as an infrastructure advisor so the auto-proxy creator that already
+ * handles @Transactional picks it up without needing AspectJ.
+ */
+@Configuration
+public class ClusterSchedulingConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor clusterSingletonAdvisor(@Lazy SchedulerLeaseService leaseService) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ClusterSingleton.class),
+                new ClusterSingletonInterceptor(leaseService));
+        advisor.setOrder(0);
+        return advisor;
+    }
+}
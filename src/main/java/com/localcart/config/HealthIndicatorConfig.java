@@ -0,0 +1,133 @@
+package com.localcart.config;
+
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.service.health.DependencyHealth;
+import com.localcart.service.health.DependencyHealthProber;
+import com.localcart.service.health.HealthSnapshot;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator health indicators backed by the DependencyHealthProber snapshot
+ *
+ * Each indicator only reads the cached snapshot, so /actuator/health is O(1) however
+ * often it is probed. The db and redis beans replace Boot's live indicators of the
+ * same name. Optional dependencies (redis, smtp, n8n) report DEGRADED rather than
+ * DOWN, so losing one does not take the node out of the load balancer.
+ */
+@Configuration
+public class HealthIndicatorConfig {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Running without an optional dependency or provider");
+
+    @Bean
+    public HealthIndicator dbHealthIndicator(DependencyHealthProber prober) {
+        return () -> toHealth(prober, DependencyHealthProber.DB);
+    }
+
+    @Bean
+    public HealthIndicator redisHealthIndicator(DependencyHealthProber prober) {
+        return () -> toHealth(prober, DependencyHealthProber.REDIS);
+    }
+
+    @Bean
+    public HealthIndicator smtpHealthIndicator(DependencyHealthProber prober) {
+        return () -> toHealth(prober, DependencyHealthProber.SMTP);
+    }
+
+    @Bean
+    public HealthIndicator n8nHealthIndicator(DependencyHealthProber prober) {
+        return () -> toHealth(prober, DependencyHealthProber.N8N);
+    }
+
+    /**
+     * UP while the default provider is up, DEGRADED while only a configured fallback
+     * (payment.gateway.fallback-providers) is, DOWN otherwise. Other registered providers,
+     * such as the always-healthy mock, cannot take payments and are not considered.
+     */
+    @Bean
+    public HealthIndicator paymentGatewaysHealthIndicator(DependencyHealthProber prober,
+                                                          PaymentGatewayFactory gatewayFactory) {
+        return () -> {
+            HealthSnapshot snapshot = prober.getSnapshot();
+            Instant now = Instant.now();
+            PaymentProvider defaultProvider = gatewayFactory.getDefaultProvider();
+            Map<String, Object> details = new LinkedHashMap<>();
+
+            boolean defaultUp = isUp(prober, snapshot, defaultProvider, now);
+            details.put(defaultProvider.getValue(), describe(snapshot, defaultProvider));
+
+            boolean fallbackUp = false;
+            for (PaymentProvider provider : gatewayFactory.getFallbackProviders()) {
+                if (provider == defaultProvider) {
+                    continue;
+                }
+                if (!gatewayFactory.isProviderAvailable(provider)) {
+                    details.put(provider.getValue(), "not registered");
+                    continue;
+                }
+                fallbackUp |= isUp(prober, snapshot, provider, now);
+                details.put(provider.getValue(), describe(snapshot, provider));
+            }
+
+            Health.Builder builder = defaultUp ? Health.up() : fallbackUp ? Health.status(DEGRADED) : Health.down();
+            return builder.withDetail("default", defaultProvider.getValue())
+                    .withDetail("fallbacks", gatewayFactory.getFallbackProviders().stream()
+                            .map(PaymentProvider::getValue).toList())
+                    .withDetails(details)
+                    .build();
+        };
+    }
+
+    private static boolean isUp(DependencyHealthProber prober, HealthSnapshot snapshot,
+                                PaymentProvider provider, Instant now) {
+        String name = DependencyHealthProber.gatewayName(provider);
+        DependencyHealth health = snapshot.get(name);
+        return health != null && health.isUp() && !health.isStale(now, prober.maxAgeMs(name));
+    }
+
+    private static Object describe(HealthSnapshot snapshot, PaymentProvider provider) {
+        DependencyHealth health = snapshot.get(DependencyHealthProber.gatewayName(provider));
+        return health != null ? describe(health) : "not probed";
+    }
+
+    private static Health toHealth(DependencyHealthProber prober, String name) {
+        DependencyHealth health = prober.getSnapshot().get(name);
+        if (health == null) {
+            return Health.unknown().withDetail("probed", false).build();
+        }
+
+        Health.Builder builder;
+        if (health.status() == DependencyHealth.Status.UNKNOWN || health.isStale(Instant.now(), prober.maxAgeMs(name))) {
+            builder = Health.unknown();
+        } else if (health.isUp()) {
+            builder = Health.up();
+        } else {
+            builder = health.critical() ? Health.down() : Health.status(DEGRADED);
+        }
+        return builder.withDetails(describe(health)).build();
+    }
+
+    private static Map<String, Object> describe(DependencyHealth health) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("status", health.status().name());
+        if (health.checkedAt() != null) {
+            details.put("checkedAt", health.checkedAt().toString());
+        }
+        details.put("latencyMs", health.latencyMs());
+        details.put("consecutiveFailures", health.consecutiveFailures());
+        if (health.error() != null) {
+            details.put("error", health.error());
+        }
+        details.put("history", health.history());
+        return details;
+    }
+}
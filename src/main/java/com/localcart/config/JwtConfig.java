@@ -14,6 +14,7 @@ public class JwtConfig {
     private String secret = "dev-secret-key-change-in-production-with-32-byte-base64";
     private long accessTokenExpiration = 900000L;  // in milliseconds
     private long refreshTokenExpiration = 604800000L; // in milliseconds
+    private long streamTokenExpiration = 60000L; // in milliseconds
     private String issuer = "LocalCart";
     
 }
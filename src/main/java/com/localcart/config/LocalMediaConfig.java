@@ -1,26 +1,24 @@
 package com.localcart.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.localcart.service.media.MediaRequestHandler;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Map;
 
+/**
+ * Maps /uploads/** to MediaRequestHandler (caching headers, conditional and Range
+ * requests, sendfile) in place of Spring's default resource handler
+ */
 @Configuration
-public class LocalMediaConfig implements WebMvcConfigurer {
+public class LocalMediaConfig {
 
-    @Value("${storage.local.directory:uploads}")
-    private String uploadDirectory;
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDirectory == null || uploadDirectory.isBlank() ? "uploads" : uploadDirectory)
-                .toAbsolutePath()
-                .normalize();
-
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPath.toUri().toString());
+    @Bean
+    public SimpleUrlHandlerMapping localMediaHandlerMapping(MediaRequestHandler mediaRequestHandler) {
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of("/uploads/**", mediaRequestHandler));
+        mapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return mapping;
     }
-}
\ No newline at end of file
+}
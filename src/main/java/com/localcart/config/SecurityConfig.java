@@ -2,6 +2,7 @@ package com.localcart.config;
 
 import com.localcart.security.JwtAuthenticationFilter;
 import com.localcart.security.JwtUtils;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -55,10 +56,14 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches of SSE streams were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/v1/auth/**",
                                 "/api/v1/public/**",
                                 "/actuator/**",
+                                "/api/v1/payments/webhook",
+                                "/api/webhooks/**",
                                 "/api/v1/products/**",
                         "/api/v1/reviews/product/**",
                         "/uploads/**",
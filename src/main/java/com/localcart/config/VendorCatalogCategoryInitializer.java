@@ -0,0 +1,29 @@
+package com.localcart.config;
+
+import com.localcart.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ensures vendor catalog categories exist once at startup,
+ * so the vendor-catalog read path never writes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VendorCatalogCategoryInitializer implements ApplicationRunner {
+
+    private final CategoryService categoryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            categoryService.syncVendorCatalogCategories();
+        } catch (Exception ex) {
+            log.error("Failed to sync vendor catalog categories", ex);
+        }
+    }
+}
@@ -17,8 +17,10 @@ import com.localcart.entity.enums.AdminActionTargetType;
 import com.localcart.entity.enums.VendorStatus;
 import com.localcart.security.CustomUserDetails;
 import com.localcart.service.AdminService;
+import com.localcart.service.CategoryService;
 import com.localcart.service.VendorService;
 import com.localcart.service.VendorDocumentService;
+import com.localcart.service.payment.encryption.PaymentKeyRotationJob;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +33,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Admin Controller
  * 
@@ -52,6 +57,8 @@ public class AdminController {
     private final VendorService vendorService;
     private final AdminService adminService;
     private final VendorDocumentService vendorDocumentService;
+    private final CategoryService categoryService;
+    private final PaymentKeyRotationJob paymentKeyRotationJob;
 
     // ===========================
     // VENDOR MANAGEMENT
@@ -471,6 +478,30 @@ public class AdminController {
         return ResponseEntity.ok("Flagged reviews - Feature coming soon");
     }
 
+    // ===========================
+    // CATEGORY MAINTENANCE
+    // ===========================
+
+    /**
+     * Re-run vendor catalog category reconciliation
+     * 
+     * POST /api/v1/admin/categories/vendor-catalog/sync
+     * 
+     * Response: 200 OK with number of changed records and the resulting catalog
+     */
+    @PostMapping("/categories/vendor-catalog/sync")
+    @PreAuthorize("hasAnyRole('ADMIN','ADMIN_L1')")
+    public ResponseEntity<Map<String, Object>> syncVendorCatalogCategories() {
+        log.info("Admin triggered vendor catalog category sync");
+        
+        int changes = categoryService.syncVendorCatalogCategories();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("changedRecords", changes);
+        response.put("categories", categoryService.getVendorCatalogCategories());
+        return ResponseEntity.ok(response);
+    }
+
     // ===========================
     // VENDOR DOCUMENT VERIFICATION
     // ===========================
@@ -595,5 +626,45 @@ public class AdminController {
         
         return ResponseEntity.ok(adminService.getVendorVerificationDashboard());
     }
-}
 
+    // ===========================
+    // PAYMENT KEY ROTATION
+    // ===========================
+
+    /**
+     * Progress of re-encrypting payment metadata under the current key
+     * 
+     * GET /api/v1/admin/payments/key-rotation
+     */
+    @GetMapping("/payments/key-rotation")
+    @PreAuthorize("hasAnyRole('ADMIN','ADMIN_L1')")
+    public ResponseEntity<PaymentKeyRotationJob.Status> getKeyRotationStatus() {
+        return ResponseEntity.ok(paymentKeyRotationJob.getStatus());
+    }
+
+    /**
+     * Pause/resume the rotation cluster-wide and adjust this node's throttle
+     * 
+     * POST /api/v1/admin/payments/key-rotation?paused=true&maxRowsPerSecond=500
+     */
+    @PostMapping("/payments/key-rotation")
+    @PreAuthorize("hasAnyRole('ADMIN','ADMIN_L1')")
+    public ResponseEntity<PaymentKeyRotationJob.Status> controlKeyRotation(
+            @RequestParam(required = false) Boolean paused,
+            @RequestParam(required = false) Integer maxRowsPerSecond) {
+
+        if (paused != null) {
+            if (paused) {
+                paymentKeyRotationJob.pause();
+            } else {
+                paymentKeyRotationJob.resume();
+            }
+        }
+        if (maxRowsPerSecond != null) {
+            paymentKeyRotationJob.setMaxRowsPerSecond(maxRowsPerSecond);
+        }
+        log.info("Admin updated payment key rotation (paused={}, maxRowsPerSecond={})", paused, maxRowsPerSecond);
+
+        return ResponseEntity.ok(paymentKeyRotationJob.getStatus());
+    }
+}
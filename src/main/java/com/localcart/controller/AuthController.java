@@ -8,12 +8,15 @@ import com.localcart.dto.auth.ForgotPasswordRequest;
 import com.localcart.dto.auth.ResetPasswordRequest;
 import com.localcart.entity.User;
 import com.localcart.exception.PaymentException;
+import com.localcart.security.CustomUserDetails;
 import com.localcart.security.JwtUtils;
 import com.localcart.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -30,6 +33,7 @@ import java.util.Map;
  * - Token refresh
  * - Logout (token revocation)
  * - Current user info
+ * - Stream token for SSE status streams
  * - Forgot password (email with reset link)
  * - Reset password (with token)
  * 
@@ -411,4 +415,28 @@ public class AuthController {
                     .body(Map.of("message", "Password reset failed"));
         }
     }
+
+    /**
+     * POST /api/v1/auth/stream-token
+     * 
+     * Short-lived token for the SSE status streams. A browser EventSource cannot send
+     * the Authorization header, so it connects with
+     * new EventSource("/api/v1/orders/{id}/events?stream_token=...").
+     * The token is only accepted there and expires quickly; when the stream errors or
+     * times out, the client requests a new token and reopens the stream.
+     * 
+     * Response:
+     * {
+     *   "streamToken": "eyJhbGc...",
+     *   "expiresIn": 60000
+     * }
+     */
+    @PostMapping("/stream-token")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> streamToken(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("streamToken", jwtUtils.generateStreamToken(userDetails));
+        response.put("expiresIn", jwtUtils.getStreamTokenExpiration());
+        return ResponseEntity.ok(response);
+    }
 }
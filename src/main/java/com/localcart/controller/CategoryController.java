@@ -21,7 +21,10 @@ import java.util.Map;
  * 
  * Endpoints:
  * - GET    /api/v1/categories           - List all categories
+ * - GET    /api/v1/categories/roots     - List top-level categories
+ * - GET    /api/v1/categories/slug/{slug} - Get category by slug
  * - GET    /api/v1/categories/{id}      - Get category details
+ * - GET    /api/v1/categories/{id}/subcategories - List direct subcategories
  * - POST   /api/v1/categories           - Create category (ADMIN only)
  * - PUT    /api/v1/categories/{id}      - Update category (ADMIN only)
  * - DELETE /api/v1/categories/{id}      - Delete category (ADMIN only)
@@ -45,10 +48,7 @@ public class CategoryController {
         try {
             log.info("Fetching all categories");
             
-                var categories = categoryService.getAllActiveCategories()
-                    .stream()
-                    .map(categoryService::convertToDto)
-                    .toList();
+            var categories = categoryService.getActiveCategoryDtos();
             Map<String, Object> response = new HashMap<>();
             response.put("categories", categories);
             response.put("totalCount", categories.size());
@@ -63,6 +63,72 @@ public class CategoryController {
         }
     }
 
+    /**
+     * GET /api/v1/categories/roots
+     * 
+     * List top-level active categories (served from the cached category tree)
+     */
+    @GetMapping("/roots")
+    public ResponseEntity<?> listRootCategories() {
+        try {
+            var categories = categoryService.getRootCategoryDtos();
+            Map<String, Object> response = new HashMap<>();
+            response.put("categories", categories);
+            response.put("totalCount", categories.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Error fetching root categories", e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("ERROR", "Failed to fetch categories"));
+        }
+    }
+    
+    /**
+     * GET /api/v1/categories/{id}/subcategories
+     * 
+     * List direct active subcategories of a category (served from the cached category tree)
+     */
+    @GetMapping("/{id}/subcategories")
+    public ResponseEntity<?> listSubcategories(@PathVariable Long id) {
+        try {
+            var categories = categoryService.getSubcategoryDtos(id);
+            Map<String, Object> response = new HashMap<>();
+            response.put("categories", categories);
+            response.put("totalCount", categories.size());
+            response.put("parentId", id);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Error fetching subcategories of {}", id, e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("ERROR", "Failed to fetch subcategories"));
+        }
+    }
+    
+    /**
+     * GET /api/v1/categories/slug/{slug}
+     * 
+     * Get category details by slug
+     */
+    @GetMapping("/slug/{slug}")
+    public ResponseEntity<?> getCategoryBySlug(@PathVariable String slug) {
+        try {
+            CategoryDto category = categoryService.getCategoryDtoBySlug(slug);
+            return ResponseEntity.ok(category);
+            
+        } catch (Exception e) {
+            log.error("Error fetching category by slug {}", slug, e);
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("NOT_FOUND", "Category not found"));
+        }
+    }
+
     /**
      * GET /api/v1/categories/vendor-catalog
      *
@@ -73,10 +139,7 @@ public class CategoryController {
         try {
             log.info("Fetching vendor catalog categories");
 
-            var categories = categoryService.getVendorCatalogCategories()
-                    .stream()
-                    .map(categoryService::convertToDto)
-                    .toList();
+            var categories = categoryService.getVendorCatalogCategories();
 
             Map<String, Object> response = new HashMap<>();
             response.put("categories", categories);
@@ -101,7 +164,7 @@ public class CategoryController {
         try {
             log.info("Fetching category: {}", id);
             
-            CategoryDto category = categoryService.convertToDto(categoryService.getCategoryById(id));
+            CategoryDto category = categoryService.getCategoryDtoById(id);
             return ResponseEntity.ok(category);
             
         } catch (Exception e) {
@@ -5,6 +5,8 @@ import com.localcart.entity.enums.OrderStatus;
 import com.localcart.exception.PaymentException;
 import com.localcart.security.CustomUserDetails;
 import com.localcart.service.OrderService;
+import com.localcart.service.stream.StatusChange;
+import com.localcart.service.stream.StatusStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -12,11 +14,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +32,7 @@ import java.util.Map;
  * - GET    /api/v1/orders              - List user's orders
  * - GET    /api/v1/orders/{id}         - Get order details
  * - GET    /api/v1/orders/{id}/track   - Track order status
+ * - GET    /api/v1/orders/{id}/events  - Stream order and payment status (SSE)
  * - POST   /api/v1/orders/{id}/cancel  - Cancel order
  */
 @Slf4j
@@ -39,6 +44,7 @@ import java.util.Map;
 public class OrderController {
     
     private final OrderService orderService;
+    private final StatusStreamService statusStreamService;
     
     /**
      * GET /api/v1/orders
@@ -159,6 +165,36 @@ public class OrderController {
         }
     }
     
+    /**
+     * GET /api/v1/orders/{id}/events
+     * 
+     * Server-Sent Events stream replacing polling of /{id} and /{id}/track.
+     * Sends the current tracking state as an "order" event, then "order" and
+     * "payment" events as the status changes. Browsers connect with EventSource and
+     * ?stream_token= from POST /api/v1/auth/stream-token, since EventSource cannot send
+     * the Authorization header; the token is short-lived, so the client fetches a new
+     * one and reopens the stream when it errors or times out.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderStatus(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        try {
+            var order = orderService.getUserOrderById(userDetails.getUserId(), id);
+            StatusChange snapshot = StatusChange.order(id, order.getStatus().name(), null, order.getTrackingNumber());
+            
+            return ResponseEntity.ok(statusStreamService.subscribe(
+                    StatusStreamService.orderTopic(id), snapshot.eventName(), snapshot));
+            
+        } catch (PaymentException e) {
+            log.error("Order not found for status stream: {}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejecting status stream for order {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     /**
      * POST /api/v1/orders/{id}/cancel
      * 
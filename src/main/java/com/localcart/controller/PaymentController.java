@@ -5,13 +5,19 @@ import com.localcart.dto.payment.PaymentResponse;
 import com.localcart.dto.payment.RefundRequest;
 import com.localcart.dto.payment.RefundResponse;
 import com.localcart.service.payment.PaymentService;
+import com.localcart.service.webhook.InboundWebhookService;
+import com.localcart.service.stream.StatusStreamService;
+import com.localcart.security.CustomUserDetails;
 import com.localcart.exception.PaymentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -24,6 +30,7 @@ import jakarta.validation.constraints.Positive;
  * - POST   /api/v1/payments/initiate           - Initiate a new payment
  * - POST   /api/v1/payments/{id}/confirm       - Confirm/process payment
  * - GET    /api/v1/payments/{id}               - Get payment details
+ * - GET    /api/v1/payments/{id}/events        - Stream payment status (SSE)
  * - POST   /api/v1/payments/{id}/refund        - Refund a payment
  * - POST   /api/v1/payments/token              - Save payment method (tokenize card)
  * - POST   /api/v1/payments/charge-token       - Use saved payment method
@@ -45,6 +52,8 @@ import jakarta.validation.constraints.Positive;
 public class PaymentController {
     
     private final PaymentService paymentService;
+    private final InboundWebhookService inboundWebhookService;
+    private final StatusStreamService statusStreamService;
     
     /**
      * POST /api/v1/payments/initiate
@@ -308,6 +317,34 @@ public class PaymentController {
         }
     }
     
+    /**
+     * GET /api/v1/payments/{id}/events
+     * 
+     * Server-Sent Events stream of the payment's status for the checkout page,
+     * instead of polling GET /{id}. The current payment is sent first as a
+     * "payment" event, followed by one event per status change.
+     * Only the customer who placed the order can subscribe. Browsers authenticate
+     * with ?stream_token= from POST /api/v1/auth/stream-token (see OrderController).
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPaymentStatus(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        try {
+            PaymentResponse payment = paymentService.getPaymentDetailsForUser(id, userDetails.getUserId());
+            
+            return ResponseEntity.ok(statusStreamService.subscribe(
+                    StatusStreamService.paymentTopic(id), "payment", payment));
+            
+        } catch (PaymentException e) {
+            log.error("Payment not found for status stream: {}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejecting status stream for payment {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     /**
      * POST /api/v1/payments/webhook
      * 
@@ -318,35 +355,38 @@ public class PaymentController {
      * - PayPal: PAYMENT.CAPTURE.COMPLETED, PAYMENT.CAPTURE.DENIED
      * - Razorpay: payment.authorized, payment.failed, refund.created
      * 
-     * Important: Webhook signature must be verified to prevent spoofing
+     * The signature is verified and the event is queued (deduplicated by provider event
+     * id) before answering; it is applied in the background by InboundWebhookService.
      * 
-     * Request Header: X-Stripe-Signature (or equivalent)
+     * Request Header: Stripe-Signature / X-Stripe-Signature, or X-PayPal-Transmission-Sig
      * Request Body: Raw JSON payload from provider
+     * 
+     * Responses: 202 queued, 200 already received, 401 bad signature or payload,
+     * 503 queue full (the provider retries later)
      */
     @PostMapping("/webhook")
     public ResponseEntity<?> handleWebhook(
             @RequestBody String payload,
             @RequestHeader(value = "X-Stripe-Signature", required = false) String signature,
+            @RequestHeader(value = "Stripe-Signature", required = false) String stripeSignature,
             @RequestHeader(value = "X-PayPal-Transmission-Sig", required = false) String paypalSignature) {
-        try {
-            log.info("Received webhook payload");
-            
-            // Determine which provider sent the webhook
-            // In production: Verify signature, deserialize payload, process event
-            // For now: Log and return 200 OK
-            
-            log.debug("Webhook signature: {}", signature != null ? signature : paypalSignature);
-            
-            return ResponseEntity
-                    .ok(new WebhookResponse("SUCCESS", "Webhook received"));
-                    
-        } catch (Exception e) {
-            log.error("Error processing webhook", e);
-            
-            return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(new WebhookResponse("FAILED", "Webhook processing failed"));
-        }
+        InboundWebhookService.Outcome outcome = inboundWebhookService.acceptPaymentEvent(
+                payload, signature != null ? signature : stripeSignature, paypalSignature);
+        
+        return switch (outcome) {
+            case ACCEPTED -> ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(new WebhookResponse("SUCCESS", "Webhook queued"));
+            case DUPLICATE -> ResponseEntity
+                    .ok(new WebhookResponse("SUCCESS", "Webhook already received"));
+            case REJECTED -> ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(new WebhookResponse("FAILED", "Invalid webhook signature or payload"));
+            case QUEUE_FULL -> ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(new WebhookResponse("FAILED", "Webhook queue is full, retry later"));
+        };
     }
     
     /**
@@ -354,6 +394,7 @@ public class PaymentController {
      * 
      * Check payment gateway health
      * Useful for monitoring dashboard
+     * Answered from the cached background probe, so it is cheap to poll
      */
     @GetMapping("/health")
     public ResponseEntity<?> getHealth() {
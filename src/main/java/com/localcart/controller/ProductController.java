@@ -2,6 +2,7 @@ package com.localcart.controller;
 
 import com.localcart.dto.product.CreateProductRequest;
 import com.localcart.dto.product.ProductDto;
+import com.localcart.dto.product.ProductSort;
 import com.localcart.entity.Product;
 import com.localcart.exception.PaymentException;
 import com.localcart.security.CustomUserDetails;
@@ -9,6 +10,7 @@ import com.localcart.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,6 +31,7 @@ import java.util.Map;
  * - GET    /api/v1/products              - List all products (paginated)
  * - GET    /api/v1/products/{id}         - Get product details
  * - GET    /api/v1/products/slug/{slug}  - Get product by slug
+ * - GET    /api/v1/products/category/{id} - List products in a category
  * - GET    /api/v1/products/search       - Search products
  * - POST   /api/v1/products              - Create product (vendor only)
  * - PUT    /api/v1/products/{id}         - Update product (vendor only)
@@ -50,16 +54,17 @@ public class ProductController {
      * Query Parameters:
      * - page: 0 (default), pagination page number
      * - size: 20 (default), items per page
-     * - sort: "id,desc" (default), sorting criteria
+     * - sort: newest (default), price_asc, price_desc, rating, best_selling
      */
     @GetMapping
     public ResponseEntity<?> listProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
         try {
-            log.info("Fetching products: page={}, size={}", page, size);
+            log.info("Fetching products: page={}, size={}, sort={}", page, size, sort);
             
-            Pageable pageable = Pageable.ofSize(size).withPage(page);
+            Pageable pageable = PageRequest.of(page, size, ProductSort.from(sort).toSort());
             Page<ProductDto> products = productService.getAllActiveProducts(pageable)
                     .map(productService::convertToDto);
             
@@ -71,6 +76,10 @@ public class ProductController {
             
             return ResponseEntity.ok(response);
             
+        } catch (PaymentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getErrorCode(), e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching products", e);
             return ResponseEntity
@@ -131,6 +140,49 @@ public class ProductController {
         }
     }
     
+    /**
+     * GET /api/v1/products/category/{categoryId}
+     * 
+     * List active products in a category with pagination
+     * 
+     * Query Parameters:
+     * - page: 0 (default), pagination page number
+     * - size: 20 (default), items per page
+     * - sort: newest (default), price_asc, price_desc, rating, best_selling
+     */
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<?> listProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        try {
+            log.info("Fetching products for category {}: page={}, size={}, sort={}", categoryId, page, size, sort);
+            
+            Pageable pageable = PageRequest.of(page, size, ProductSort.from(sort).toSort());
+            Page<ProductDto> products = productService.getProductsByCategory(categoryId, pageable)
+                    .map(productService::convertToDto);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("products", products.getContent());
+            response.put("currentPage", products.getNumber());
+            response.put("totalItems", products.getTotalElements());
+            response.put("totalPages", products.getTotalPages());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (PaymentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getErrorCode(), e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching products for category", e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("ERROR", "Failed to fetch products"));
+        }
+    }
+    
     /**
      * GET /api/v1/products/search
      * 
@@ -140,26 +192,27 @@ public class ProductController {
      * - q: search keyword
      * - category: category ID
     * - zipCode: customer ZIP/pincode to limit nearby vendor products
-     * - minPrice: minimum price
-     * - maxPrice: maximum price
-     * - vendor: vendor ID
+     * - minPrice: minimum price (effective price, inclusive)
+     * - maxPrice: maximum price (effective price, inclusive)
+     * - sort: newest (default), price_asc, price_desc, rating, best_selling
      */
     @GetMapping("/search")
     public ResponseEntity<?> searchProducts(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Long category,
             @RequestParam(required = false) String zipCode,
-            @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         try {
-            log.info("Searching products: q={}, category={}, zipCode={}, minPrice={}, maxPrice={}",
-                q, category, zipCode, minPrice, maxPrice);
+            log.info("Searching products: q={}, category={}, zipCode={}, minPrice={}, maxPrice={}, sort={}",
+                q, category, zipCode, minPrice, maxPrice, sort);
             
-            Pageable pageable = Pageable.ofSize(size).withPage(page);
+            Pageable pageable = PageRequest.of(page, size, ProductSort.from(sort).toSort());
             Page<ProductDto> products = productService
-                .searchProductsByLocation(q, category, zipCode, pageable)
+                .searchProductsByLocation(q, category, zipCode, minPrice, maxPrice, pageable)
                 .map(productService::convertToDto);
             
             Map<String, Object> response = new HashMap<>();
@@ -170,6 +223,10 @@ public class ProductController {
             
             return ResponseEntity.ok(response);
             
+        } catch (PaymentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getErrorCode(), e.getMessage()));
         } catch (Exception e) {
             log.error("Error searching products", e);
             return ResponseEntity
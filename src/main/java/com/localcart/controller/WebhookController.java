@@ -1,7 +1,9 @@
 package com.localcart.controller;
 
+import com.localcart.service.webhook.InboundWebhookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,6 +12,11 @@ import java.util.Map;
 /**
  * Webhook Controller for n8n Callbacks
  * Receives data from n8n workflows for two-way automation
+ *
+ * Callbacks are only checked and queued here (InboundWebhookService) and handled in
+ * the background, so a burst of callbacks does not hold request threads.
+ * n8n.webhook.secret is required: n8n must send it in the X-Webhook-Secret header, and
+ * every callback is rejected while the secret is unset.
  */
 @Slf4j
 @RestController
@@ -17,76 +24,51 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class WebhookController {
 
+    private static final String SECRET_HEADER = "X-Webhook-Secret";
+
+    private final InboundWebhookService inboundWebhookService;
+
     /**
      * Generic webhook receiver for n8n callbacks
      * n8n can send data back to this endpoint after processing
+     * (eventType: email_sent, sms_sent, payment_processed)
      */
     @PostMapping("/n8n-callback")
-    public ResponseEntity<Map<String, String>> receiveN8nCallback(@RequestBody Map<String, Object> payload) {
-        log.info("Received n8n callback: {}", payload);
-        
-        try {
-            String eventType = (String) payload.get("eventType");
-            
-            switch (eventType) {
-                case "email_sent":
-                    handleEmailSent(payload);
-                    break;
-                case "sms_sent":
-                    handleSmsSent(payload);
-                    break;
-                case "payment_processed":
-                    handlePaymentProcessed(payload);
-                    break;
-                default:
-                    log.warn("Unknown event type: {}", eventType);
-            }
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", "Webhook received"
-            ));
-        } catch (Exception e) {
-            log.error("Error processing n8n callback", e);
-            return ResponseEntity.ok(Map.of(
-                "status", "error",
-                "message", e.getMessage()
-            ));
-        }
+    public ResponseEntity<Map<String, String>> receiveN8nCallback(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = SECRET_HEADER, required = false) String secret) {
+        return respond(inboundWebhookService.acceptN8nEvent("callback", payload, secret));
     }
 
     /**
      * Webhook for email delivery confirmations from n8n
      */
     @PostMapping("/email-status")
-    public ResponseEntity<Map<String, String>> emailStatus(@RequestBody Map<String, Object> payload) {
-        log.info("Email status update: {}", payload);
-        
-        // You can track email delivery, opens, clicks here
-        // Update database with email status
-        
-        return ResponseEntity.ok(Map.of("status", "received"));
+    public ResponseEntity<Map<String, String>> emailStatus(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = SECRET_HEADER, required = false) String secret) {
+        return respond(inboundWebhookService.acceptN8nEvent("email-status", payload, secret));
     }
 
     /**
      * Webhook for SMS delivery confirmations
      */
     @PostMapping("/sms-status")
-    public ResponseEntity<Map<String, String>> smsStatus(@RequestBody Map<String, Object> payload) {
-        log.info("SMS status update: {}", payload);
-        return ResponseEntity.ok(Map.of("status", "received"));
+    public ResponseEntity<Map<String, String>> smsStatus(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = SECRET_HEADER, required = false) String secret) {
+        return respond(inboundWebhookService.acceptN8nEvent("sms-status", payload, secret));
     }
 
     /**
      * Webhook for external payment notifications (Stripe webhooks via n8n)
+     * The payment is re-verified with its gateway before anything changes.
      */
     @PostMapping("/payment-notification")
-    public ResponseEntity<Map<String, String>> paymentNotification(@RequestBody Map<String, Object> payload) {
-        log.info("Payment notification: {}", payload);
-        
-        // Handle payment confirmations, refunds, etc.
-        
-        return ResponseEntity.ok(Map.of("status", "received"));
+    public ResponseEntity<Map<String, String>> paymentNotification(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = SECRET_HEADER, required = false) String secret) {
+        return respond(inboundWebhookService.acceptN8nEvent("payment-notification", payload, secret));
     }
 
     /**
@@ -101,33 +83,16 @@ public class WebhookController {
         ));
     }
 
-    // Private helper methods
-
-    private void handleEmailSent(Map<String, Object> payload) {
-        String recipient = (String) payload.get("recipient");
-        String emailType = (String) payload.get("emailType");
-        Boolean success = (Boolean) payload.get("success");
-        
-        log.info("Email {} to {}: {}", emailType, recipient, success ? "sent" : "failed");
-        
-        // Update database to track email delivery
-        // E.g., mark order notification as sent, track marketing campaign metrics
-    }
-
-    private void handleSmsSent(Map<String, Object> payload) {
-        String phoneNumber = (String) payload.get("phoneNumber");
-        Boolean success = (Boolean) payload.get("success");
-        
-        log.info("SMS to {}: {}", phoneNumber, success ? "sent" : "failed");
-    }
-
-    private void handlePaymentProcessed(Map<String, Object> payload) {
-        String orderId = (String) payload.get("orderId");
-        String paymentId = (String) payload.get("paymentId");
-        String status = (String) payload.get("status");
-        
-        log.info("Payment {} for order {}: {}", paymentId, orderId, status);
-        
-        // Update order payment status
+    private ResponseEntity<Map<String, String>> respond(InboundWebhookService.Outcome outcome) {
+        return switch (outcome) {
+            case ACCEPTED -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("status", "received"));
+            case DUPLICATE -> ResponseEntity.ok(Map.of("status", "duplicate"));
+            case REJECTED -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("status", "rejected"));
+            case QUEUE_FULL -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(Map.of("status", "busy"));
+        };
     }
 }
@@ -0,0 +1,22 @@
+package com.localcart.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Abandoned cart row aggregated in SQL (item count and total)
+ * Used by the abandoned-cart reminder job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbandonedCartSummary {
+
+    private Long cartId;
+    private String userEmail;
+    private Long itemCount;
+    private BigDecimal cartTotal;
+}
@@ -30,6 +30,7 @@ public class CartDto {
     private BigDecimal tax; // Tax amount (calculated in checkout)
     private BigDecimal shippingFee; // Shipping cost (calculated in checkout)
     private BigDecimal discount; // Discount amount
+    private List<String> appliedPromotions; // Titles of offers/campaigns included in discount
     private BigDecimal total; // Final total
     
     // Metadata
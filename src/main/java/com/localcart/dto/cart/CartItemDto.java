@@ -28,8 +28,9 @@ public class CartItemDto {
     // Pricing
     private BigDecimal price;
     private BigDecimal discountPrice;
+    private BigDecimal effectivePrice; // Price charged now, including active offers
     private Integer quantity;
-    private BigDecimal subtotal; // price * quantity (or discountPrice * quantity if discount exists)
+    private BigDecimal subtotal; // effectivePrice * quantity
     
     // Stock info
     private Integer availableStock;
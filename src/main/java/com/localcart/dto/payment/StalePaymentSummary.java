@@ -0,0 +1,23 @@
+package com.localcart.dto.payment;
+
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.entity.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payment still waiting on the gateway (PENDING/PROCESSING)
+ * Used by the reconciliation job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StalePaymentSummary {
+
+    private Long paymentId;
+    private String transactionId;
+    private PaymentProvider provider;
+    private PaymentStatus status;
+    private Long orderId;
+}
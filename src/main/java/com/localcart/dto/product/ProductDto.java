@@ -25,6 +25,7 @@ public class ProductDto {
     
     private BigDecimal price;
     private BigDecimal discountPrice;
+    private BigDecimal effectivePrice; // Price charged now, including active offers
     private Integer stock;
     private String sku;
     
@@ -45,6 +46,7 @@ public class ProductDto {
     
     // Images
     private List<String> imageUrls;
+    private List<String> cardImageUrls; // Listing-size variants, same order (original until resized)
     
     // Metadata
     private String createdAt;
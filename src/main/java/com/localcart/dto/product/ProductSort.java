@@ -0,0 +1,43 @@
+package com.localcart.dto.product;
+
+import com.localcart.exception.PaymentException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+
+/**
+ * Sort options for product listings.
+ * Each order ends with id so paging is stable, and matches a V25 partial index
+ * column-for-column so Postgres can walk the index instead of sorting.
+ */
+public enum ProductSort {
+    NEWEST(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))),
+    PRICE_ASC(Sort.by(Sort.Order.asc("effectivePrice"), Sort.Order.asc("id"))),
+    PRICE_DESC(Sort.by(Sort.Order.desc("effectivePrice"), Sort.Order.desc("id"))),
+    RATING(Sort.by(Sort.Order.desc("rating").nullsLast(), Sort.Order.desc("id"))),
+    BEST_SELLING(Sort.by(Sort.Order.desc("totalSales").nullsLast(), Sort.Order.desc("id")));
+
+    private final Sort sort;
+
+    ProductSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+
+    /**
+     * Parse a request value such as "price_asc", "price-desc" or "rating"; null or blank means NEWEST
+     */
+    public static ProductSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException("Unsupported sort: " + value, "INVALID_SORT");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.localcart.dto.promotion;
 
+import com.localcart.entity.enums.CouponType;
 import com.localcart.entity.enums.PromotionType;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -9,6 +11,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -35,4 +38,20 @@ public class CreatePromotionRequest {
 
     private LocalDateTime startsAt;
     private LocalDateTime endsAt;
+
+    // Discount terms (optional)
+    private CouponType discountType;
+
+    @DecimalMin(value = "0.00")
+    private BigDecimal discountValue;
+
+    @DecimalMin(value = "0.00")
+    private BigDecimal minPurchaseAmount;
+
+    @DecimalMin(value = "0.00")
+    private BigDecimal maxDiscountAmount;
+
+    // Scope within the vendor's catalog (optional)
+    private Long productId;
+    private Long categoryId;
 }
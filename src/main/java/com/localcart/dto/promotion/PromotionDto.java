@@ -1,11 +1,14 @@
 package com.localcart.dto.promotion;
 
+import com.localcart.entity.enums.CouponType;
 import com.localcart.entity.enums.PromotionType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,5 +24,16 @@ public class PromotionDto {
     private String startsAt;
     private String endsAt;
     private Boolean isActive;
+
+    // Discount terms (optional)
+    private CouponType discountType;
+    private BigDecimal discountValue;
+    private BigDecimal minPurchaseAmount;
+    private BigDecimal maxDiscountAmount;
+
+    // Scope within the vendor's catalog (optional)
+    private Long productId;
+    private Long categoryId;
+
     private String createdAt;
 }
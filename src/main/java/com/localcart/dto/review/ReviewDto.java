@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Review Data Transfer Object
  * Used for displaying product reviews
@@ -31,6 +33,11 @@ public class ReviewDto {
     private String title;
     private String comment;
     
+    // Product rating summary (from stored aggregates)
+    private Double productRating;
+    private Integer productTotalReviews;
+    private List<Integer> ratingHistogram; // review counts for 1..5 stars
+    
     // Helpful count
     private Integer helpfulCount;
     private Boolean isVerifiedPurchase;
@@ -4,6 +4,7 @@ import com.localcart.entity.base.AuditableEntity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,4 +26,7 @@ public class Cart extends AuditableEntity {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<CartItem> items = new ArrayList<>();
+
+    @Column(name = "reminder_sent_at")
+    private LocalDateTime reminderSentAt;
 }
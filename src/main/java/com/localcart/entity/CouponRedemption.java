@@ -0,0 +1,39 @@
+package com.localcart.entity;
+
+import com.localcart.entity.base.AuditableEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One coupon use by one user (per-user limit ledger)
+ */
+@Entity
+@Table(name = "coupon_redemptions", indexes = {
+    @Index(name = "idx_coupon_redemption_coupon_user", columnList = "coupon_id, user_id"),
+    @Index(name = "idx_coupon_redemption_order", columnList = "order_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CouponRedemption extends AuditableEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "coupon_id", nullable = false)
+    private Coupon coupon;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    @Column(name = "discount_amount", nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal discountAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,45 @@
+package com.localcart.entity;
+
+import com.localcart.entity.base.AuditableEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker for incremental background jobs
+ * (time watermark and/or last processed id, keyed by job name)
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint extends AuditableEntity {
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "job_name", nullable = false, unique = true, length = 100)
+    private String jobName;
+
+    @Column(name = "watermark")
+    private LocalDateTime watermark;
+
+    @Column(name = "last_id")
+    private Long lastId;
+
+    // Written only with SQL (see PaymentKeyRotationJob.setPaused), so saving a
+    // checkpoint never clears a pause set from another node
+    @Column(name = "paused", insertable = false, updatable = false)
+    private Boolean paused;
+}
@@ -81,6 +81,9 @@ public class Order extends AuditableEntity {
     @Column(name = "delivered_at")
     private LocalDateTime deliveredAt;
 
+    @Column(name = "review_requested_at")
+    private LocalDateTime reviewRequestedAt;
+
     @Column(name = "cancelled_at")
     private LocalDateTime cancelledAt;
 
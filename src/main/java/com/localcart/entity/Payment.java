@@ -1,6 +1,7 @@
 package com.localcart.entity;
 
 import com.localcart.entity.base.AuditableEntity;
+import com.localcart.entity.enums.PaymentProvider;
 import com.localcart.entity.enums.PaymentStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -44,6 +45,11 @@ public class Payment extends AuditableEntity {
     @Builder.Default
     private PaymentStatus status = PaymentStatus.PENDING;
 
+    // Gateway that issued transactionId; null for payments made before providers were recorded
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private PaymentProvider provider;
+
     @Column(name = "paid_at")
     private LocalDateTime paidAt;
 
@@ -55,11 +55,20 @@ public class Product extends AuditableEntity {
     @Column(name = "discount_price", precision = 10, scale = 2)
     private BigDecimal discountPrice;
 
+    // Selling price including active OFFER promotions; maintained in the database
+    // (EffectivePriceMaterializer), so JPA only writes it on insert
+    @Column(name = "effective_price", nullable = false, updatable = false, precision = 10, scale = 2)
+    private BigDecimal effectivePrice;
+
     @Min(0)
     @Column(nullable = false)
     @Builder.Default
     private Integer stock = 0;
 
+    // Overrides the vendor/global low-stock threshold when set
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     @Size(max = 50)
     @Column(length = 50)
     private String sku;
@@ -79,6 +88,31 @@ public class Product extends AuditableEntity {
     @Builder.Default
     private Integer totalReviews = 0;
 
+    @Column(name = "rating_sum", nullable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    // Star histogram, maintained alongside ratingSum/totalReviews
+    @Column(name = "rating_count_1", nullable = false)
+    @Builder.Default
+    private Integer ratingCount1 = 0;
+
+    @Column(name = "rating_count_2", nullable = false)
+    @Builder.Default
+    private Integer ratingCount2 = 0;
+
+    @Column(name = "rating_count_3", nullable = false)
+    @Builder.Default
+    private Integer ratingCount3 = 0;
+
+    @Column(name = "rating_count_4", nullable = false)
+    @Builder.Default
+    private Integer ratingCount4 = 0;
+
+    @Column(name = "rating_count_5", nullable = false)
+    @Builder.Default
+    private Integer ratingCount5 = 0;
+
     @Column(name = "total_sales")
     @Builder.Default
     private Integer totalSales = 0;
@@ -99,4 +133,18 @@ public class Product extends AuditableEntity {
     @OneToMany(mappedBy = "product")
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
+
+    /**
+     * Discount price if set, else list price (before promotions)
+     */
+    public BigDecimal getBasePrice() {
+        return discountPrice != null ? discountPrice : price;
+    }
+
+    @PrePersist
+    protected void initEffectivePrice() {
+        if (effectivePrice == null) {
+            effectivePrice = getBasePrice();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.localcart.entity;
 
 import com.localcart.entity.base.AuditableEntity;
+import com.localcart.entity.enums.ImageVariantStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -34,4 +35,26 @@ public class ProductImage extends AuditableEntity {
 
     @Column(name = "display_order")
     private Integer displayOrder;
+
+    // Resized variants of uploaded images (see ImageVariantService); null until READY
+    @Size(max = 500)
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Size(max = 500)
+    @Column(name = "card_url", length = 500)
+    private String cardUrl;
+
+    @Size(max = 500)
+    @Column(name = "detail_url", length = 500)
+    private String detailUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_status", nullable = false, length = 20)
+    @Builder.Default
+    private ImageVariantStatus variantStatus = ImageVariantStatus.NONE;
+
+    // Failed variant runs so far; maintained by ImageVariantService's SQL only
+    @Column(name = "variant_attempts", insertable = false, updatable = false)
+    private Integer variantAttempts;
 }
@@ -1,12 +1,15 @@
 package com.localcart.entity;
 
 import com.localcart.entity.base.AuditableEntity;
+import com.localcart.entity.enums.CouponType;
 import com.localcart.entity.enums.PromotionType;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -56,4 +59,30 @@ public class Promotion extends AuditableEntity {
     @Column(name = "is_active")
     @Builder.Default
     private Boolean isActive = true;
+
+    // Discount terms; promotions without them are informational only
+    @Enumerated(EnumType.STRING)
+    @Column(name = "discount_type", length = 20)
+    private CouponType discountType;
+
+    @DecimalMin(value = "0.00")
+    @Column(name = "discount_value", precision = 10, scale = 2)
+    private BigDecimal discountValue;
+
+    @DecimalMin(value = "0.00")
+    @Column(name = "min_purchase_amount", precision = 10, scale = 2)
+    private BigDecimal minPurchaseAmount;
+
+    @DecimalMin(value = "0.00")
+    @Column(name = "max_discount_amount", precision = 10, scale = 2)
+    private BigDecimal maxDiscountAmount;
+
+    // Optional scope within the vendor's catalog
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
 }
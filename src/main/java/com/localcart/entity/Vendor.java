@@ -198,6 +198,10 @@ public class Vendor extends AuditableEntity {
     @Column(name = "last_payout_at")
     private LocalDateTime lastPayoutAt;
 
+    // Default low-stock threshold for this vendor's products (global default when null)
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     @Column(name = "rating")
     private Double rating;
 
@@ -205,6 +209,31 @@ public class Vendor extends AuditableEntity {
     @Builder.Default
     private Integer totalReviews = 0;
 
+    @Column(name = "rating_sum", nullable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    // Star histogram, maintained alongside ratingSum/totalReviews
+    @Column(name = "rating_count_1", nullable = false)
+    @Builder.Default
+    private Integer ratingCount1 = 0;
+
+    @Column(name = "rating_count_2", nullable = false)
+    @Builder.Default
+    private Integer ratingCount2 = 0;
+
+    @Column(name = "rating_count_3", nullable = false)
+    @Builder.Default
+    private Integer ratingCount3 = 0;
+
+    @Column(name = "rating_count_4", nullable = false)
+    @Builder.Default
+    private Integer ratingCount4 = 0;
+
+    @Column(name = "rating_count_5", nullable = false)
+    @Builder.Default
+    private Integer ratingCount5 = 0;
+
     @OneToMany(mappedBy = "vendor", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Product> products = new ArrayList<>();
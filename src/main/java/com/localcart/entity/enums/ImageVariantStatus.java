@@ -0,0 +1,13 @@
+package com.localcart.entity.enums;
+
+/**
+ * Resized variant state of a product image
+ * NONE = external URL (nothing to resize), PENDING = queued, READY = variant URLs set,
+ * FAILED = could not be decoded (clients keep using the original)
+ */
+public enum ImageVariantStatus {
+    NONE,
+    PENDING,
+    READY,
+    FAILED
+}
@@ -4,6 +4,8 @@ public class PaymentGatewayException extends PaymentException {
     
     private String gatewayErrorCode;
     private String gatewayErrorMessage;
+    // The provider rejected the request (card declined, invalid input) rather than failing
+    private boolean declined;
 
     public PaymentGatewayException(String message, String gatewayErrorCode) {
         super(message, "GATEWAY_ERROR");
@@ -30,4 +32,12 @@ public class PaymentGatewayException extends PaymentException {
     public void setGatewayErrorMessage(String gatewayErrorMessage) {
         this.gatewayErrorMessage = gatewayErrorMessage;
     }
+
+    public boolean isDeclined() {
+        return declined;
+    }
+
+    public void setDeclined(boolean declined) {
+        this.declined = declined;
+    }
 }
@@ -1,7 +1,10 @@
 package com.localcart.repository;
 
+import com.localcart.dto.cart.AbandonedCartSummary;
 import com.localcart.entity.Cart;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,7 +21,26 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(Long userId);
     
-    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product " +
-           "WHERE c.updatedAt < :cutoffTime AND SIZE(c.items) > 0")
-    List<Cart> findAbandonedCarts(@Param("cutoffTime") LocalDateTime cutoffTime);
+    /**
+     * Next keyset chunk of stale, not-yet-reminded carts with totals computed in SQL
+     * The reminder predicate must stay as written to match the partial index idx_cart_reminder_due (V31)
+     */
+    @Query("SELECT new com.localcart.dto.cart.AbandonedCartSummary(c.id, u.email, COUNT(i), " +
+           "SUM(p.effectivePrice * i.quantity)) " +
+           "FROM Cart c JOIN c.user u JOIN c.items i JOIN i.product p " +
+           "WHERE c.id > :afterId AND c.updatedAt < :cutoffTime " +
+           "AND (c.reminderSentAt IS NULL OR c.reminderSentAt < c.updatedAt) " +
+           "GROUP BY c.id, u.email ORDER BY c.id")
+    List<AbandonedCartSummary> findAbandonedCartSummaries(@Param("afterId") Long afterId,
+                                                          @Param("cutoffTime") LocalDateTime cutoffTime,
+                                                          Pageable pageable);
+    
+    /**
+     * Record the reminder watermark. CURRENT_TIMESTAMP matches what the carts
+     * updated_at trigger writes in the same transaction, so the cart stays reminded
+     * until it is modified again.
+     */
+    @Modifying
+    @Query(value = "UPDATE carts SET reminder_sent_at = CURRENT_TIMESTAMP WHERE id IN (:cartIds)", nativeQuery = true)
+    int markReminderSent(@Param("cartIds") List<Long> cartIds);
 }
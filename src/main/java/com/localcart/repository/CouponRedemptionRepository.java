@@ -0,0 +1,17 @@
+package com.localcart.repository;
+
+import com.localcart.entity.CouponRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CouponRedemptionRepository extends JpaRepository<CouponRedemption, Long> {
+
+    long countByCouponIdAndUserId(Long couponId, Long userId);
+
+    long countByCouponId(Long couponId);
+
+    List<CouponRedemption> findByOrderId(Long orderId);
+}
@@ -2,9 +2,12 @@ package com.localcart.repository;
 
 import com.localcart.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +22,26 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     List<Coupon> findActiveByVendorId(Long vendorId);
     
     boolean existsByCode(String code);
+
+    /**
+     * Coupons that are active now or later and not used up (pricing rule index source)
+     */
+    @Query("SELECT c FROM Coupon c WHERE c.isActive = true " +
+           "AND (c.validUntil IS NULL OR c.validUntil > :now) " +
+           "AND (c.usageLimit IS NULL OR c.usageCount < c.usageLimit)")
+    List<Coupon> findPricingCandidates(@Param("now") LocalDateTime now);
+
+    /**
+     * Consume one use if the coupon is active and under its limit.
+     * Returns 0 when the limit is reached; the row lock is held until commit.
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usageCount = c.usageCount + 1 " +
+           "WHERE c.id = :couponId AND c.isActive = true " +
+           "AND (c.usageLimit IS NULL OR c.usageCount < c.usageLimit)")
+    int incrementUsageIfAvailable(@Param("couponId") Long couponId);
+
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usageCount = c.usageCount - 1 WHERE c.id = :couponId AND c.usageCount > 0")
+    int decrementUsage(@Param("couponId") Long couponId);
 }
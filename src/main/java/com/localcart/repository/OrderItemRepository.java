@@ -1,6 +1,8 @@
 package com.localcart.repository;
 
 import com.localcart.entity.OrderItem;
+import com.localcart.entity.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,4 +20,18 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId AND oi.vendor.id = :vendorId")
     List<OrderItem> findByOrderIdAndVendorId(@Param("orderId") Long orderId, 
                                              @Param("vendorId") Long vendorId);
+    
+    /**
+     * Whether the user has an order in the given status containing the product (derived EXISTS, LIMIT 1)
+     */
+    boolean existsByOrderUserIdAndProductIdAndOrderStatus(Long userId, Long productId, OrderStatus status);
+    
+    /**
+     * Distinct product IDs the user has bought in orders with the given status, most recent first
+     */
+    @Query("SELECT oi.product.id FROM OrderItem oi WHERE oi.order.user.id = :userId AND oi.order.status = :status " +
+           "GROUP BY oi.product.id ORDER BY MAX(oi.order.createdAt) DESC")
+    List<Long> findPurchasedProductIds(@Param("userId") Long userId,
+                                       @Param("status") OrderStatus status,
+                                       Pageable pageable);
 }
@@ -5,6 +5,7 @@ import com.localcart.entity.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -50,9 +51,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(AVG(o.total), 0) FROM Order o")
     java.math.BigDecimal averageOrderValue();
     
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items " +
-           "WHERE o.status = 'DELIVERED' " +
-           "AND o.deliveredAt < :cutoffTime " +
-           "AND o.id NOT IN (SELECT DISTINCT r.order.id FROM Review r WHERE r.order IS NOT NULL)")
-    List<Order> findDeliveredOrdersNeedingReview(@Param("cutoffTime") LocalDateTime cutoffTime);
+    /**
+     * Next chunk of orders delivered in [from, to) that have no review and no review request yet
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.user " +
+           "WHERE o.status = com.localcart.entity.enums.OrderStatus.DELIVERED " +
+           "AND o.deliveredAt >= :from AND o.deliveredAt < :to " +
+           "AND o.reviewRequestedAt IS NULL AND o.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM Review r WHERE r.order = o) " +
+           "ORDER BY o.id")
+    List<Order> findOrdersAwaitingReviewRequest(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.reviewRequestedAt = :requestedAt WHERE o.id IN :orderIds")
+    int markReviewRequested(@Param("orderIds") List<Long> orderIds,
+                            @Param("requestedAt") LocalDateTime requestedAt);
 }
@@ -1,13 +1,17 @@
 package com.localcart.repository;
 
+import com.localcart.dto.payment.StalePaymentSummary;
 import com.localcart.entity.Payment;
 import com.localcart.entity.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,4 +31,19 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status")
     BigDecimal sumAmountByStatus(@Param("status") PaymentStatus status);
+
+    /**
+     * Next keyset chunk of payments in the given statuses untouched since the cutoff
+     */
+    @Query("SELECT new com.localcart.dto.payment.StalePaymentSummary(p.id, p.transactionId, p.provider, p.status, p.order.id) " +
+           "FROM Payment p " +
+           "WHERE p.id > :afterId AND p.status IN :statuses " +
+           "AND p.updatedAt < :staleBefore AND p.createdAt > :notBefore " +
+           "AND p.transactionId IS NOT NULL " +
+           "ORDER BY p.id")
+    List<StalePaymentSummary> findStalePayments(@Param("afterId") Long afterId,
+                                                @Param("statuses") Collection<PaymentStatus> statuses,
+                                                @Param("staleBefore") LocalDateTime staleBefore,
+                                                @Param("notBefore") LocalDateTime notBefore,
+                                                Pageable pageable);
 }
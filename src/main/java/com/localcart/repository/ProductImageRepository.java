@@ -2,8 +2,11 @@ package com.localcart.repository;
 
 import com.localcart.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,7 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     List<ProductImage> findByProductIdOrderByDisplayOrderAsc(Long productId);
     
     Optional<ProductImage> findByProductIdAndIsPrimaryTrue(Long productId);
+    
+    @Query("SELECT i FROM ProductImage i WHERE i.product.id IN :productIds ORDER BY i.product.id, i.displayOrder")
+    List<ProductImage> findByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
@@ -4,10 +4,12 @@ import com.localcart.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByCategoryId(Long categoryId);
     
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("SELECT p.effectivePrice FROM Product p WHERE p.id = :productId")
+    Optional<BigDecimal> findEffectivePrice(@Param("productId") Long productId);
+    
+    /**
+     * Live product count per category as [categoryId, count] rows
+     */
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.isDeleted = false GROUP BY p.category.id")
+    List<Object[]> countProductsByCategory();
+    
         @Query("SELECT p FROM Product p JOIN p.vendor v WHERE p.isActive = true AND p.deletedAt IS NULL " +
             "AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED")
     Page<Product> findAllActiveProducts(Pageable pageable);
@@ -37,8 +50,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "AND p.deletedAt IS NULL AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED")
     List<Product> findFeaturedProducts(Pageable pageable);
     
-        @Query("SELECT p FROM Product p JOIN p.vendor v WHERE (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+        @Query("SELECT p FROM Product p JOIN p.vendor v WHERE (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\' " +
+           "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\') " +
             "AND p.isActive = true AND p.deletedAt IS NULL " +
             "AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED")
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
@@ -48,19 +61,89 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED " +
             "AND (:zipCode IS NULL OR LOWER(v.businessZipCode) = LOWER(:zipCode)) " +
             "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
+            "AND (:minPrice IS NULL OR p.effectivePrice >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.effectivePrice <= :maxPrice) " +
             "AND (:keyword IS NULL OR :keyword = '' OR " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\' OR " +
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\')")
         Page<Product> searchProductsByLocation(
              @Param("keyword") String keyword,
              @Param("categoryId") Long categoryId,
              @Param("zipCode") String zipCode,
+             @Param("minPrice") BigDecimal minPrice,
+             @Param("maxPrice") BigDecimal maxPrice,
              Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.stock < :threshold AND p.isActive = true AND p.deletedAt IS NULL")
-    List<Product> findByStockLessThan(@Param("threshold") int threshold);
+    /**
+     * Products of approved vendors in a shop pincode (vendor fetched in the same query)
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.vendor v " +
+           "WHERE v.shopPincode = :pincode AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED " +
+           "AND v.isDeleted = false AND p.isDeleted = false " +
+           "ORDER BY p.id")
+    List<Product> findByApprovedVendorPincode(@Param("pincode") String pincode, Pageable pageable);
 
+    /**
+     * Keyword search over products of approved vendors in a shop pincode
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.vendor v " +
+           "WHERE v.shopPincode = :pincode AND v.status = com.localcart.entity.enums.VendorStatus.APPROVED " +
+           "AND v.isDeleted = false AND p.isDeleted = false " +
+           "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\' " +
+           "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '\\') " +
+           "ORDER BY p.id")
+    List<Product> searchByApprovedVendorPincodeAndKeyword(
+            @Param("pincode") String pincode,
+            @Param("keyword") String keyword,
+            Pageable pageable);
+    
     Long countByIsActiveTrue();
 
     Long countByStockLessThanEqual(int threshold);
+
+    /**
+     * Current rating aggregates as [rating, totalReviews, count1..count5], read straight from the row
+     */
+    @Query("SELECT COALESCE(p.rating, 0.0), COALESCE(p.totalReviews, 0), p.ratingCount1, p.ratingCount2, " +
+           "p.ratingCount3, p.ratingCount4, p.ratingCount5 FROM Product p WHERE p.id = :productId")
+    List<Object[]> findRatingSummary(@Param("productId") Long productId);
+
+    /**
+     * Apply one review insert (countDelta = 1) or delete (countDelta = -1) to the stored rating aggregates
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products SET " +
+           "total_reviews = COALESCE(total_reviews, 0) + :countDelta, " +
+           "rating_sum = rating_sum + :countDelta * :stars, " +
+           "rating_count_1 = rating_count_1 + CASE WHEN :stars = 1 THEN :countDelta ELSE 0 END, " +
+           "rating_count_2 = rating_count_2 + CASE WHEN :stars = 2 THEN :countDelta ELSE 0 END, " +
+           "rating_count_3 = rating_count_3 + CASE WHEN :stars = 3 THEN :countDelta ELSE 0 END, " +
+           "rating_count_4 = rating_count_4 + CASE WHEN :stars = 4 THEN :countDelta ELSE 0 END, " +
+           "rating_count_5 = rating_count_5 + CASE WHEN :stars = 5 THEN :countDelta ELSE 0 END, " +
+           "rating = CASE WHEN COALESCE(total_reviews, 0) + :countDelta > 0 " +
+           "THEN CAST(rating_sum + :countDelta * :stars AS DOUBLE PRECISION) / (COALESCE(total_reviews, 0) + :countDelta) " +
+           "ELSE 0 END " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyRatingDelta(@Param("productId") Long productId, @Param("stars") int stars, @Param("countDelta") int countDelta);
+
+    /**
+     * Recompute rating aggregates from reviews for rows that drifted; returns the number of rows fixed
+     */
+    @Modifying
+    @Query(value = "WITH agg AS (" +
+           "SELECT t.id AS target_id, COUNT(r.id) AS review_count, COALESCE(SUM(r.rating), 0) AS rating_sum, " +
+           "COUNT(*) FILTER (WHERE r.rating = 1) AS c1, COUNT(*) FILTER (WHERE r.rating = 2) AS c2, " +
+           "COUNT(*) FILTER (WHERE r.rating = 3) AS c3, COUNT(*) FILTER (WHERE r.rating = 4) AS c4, " +
+           "COUNT(*) FILTER (WHERE r.rating = 5) AS c5 " +
+           "FROM products t LEFT JOIN reviews r ON r.product_id = t.id AND r.is_deleted IS NOT TRUE " +
+           "GROUP BY t.id) " +
+           "UPDATE products t SET total_reviews = agg.review_count, rating_sum = agg.rating_sum, " +
+           "rating_count_1 = agg.c1, rating_count_2 = agg.c2, rating_count_3 = agg.c3, " +
+           "rating_count_4 = agg.c4, rating_count_5 = agg.c5, " +
+           "rating = CASE WHEN agg.review_count > 0 THEN CAST(agg.rating_sum AS DOUBLE PRECISION) / agg.review_count ELSE 0 END " +
+           "FROM agg WHERE t.id = agg.target_id AND (" +
+           "t.total_reviews IS DISTINCT FROM agg.review_count OR t.rating_sum <> agg.rating_sum " +
+           "OR t.rating_count_1 <> agg.c1 OR t.rating_count_2 <> agg.c2 OR t.rating_count_3 <> agg.c3 " +
+           "OR t.rating_count_4 <> agg.c4 OR t.rating_count_5 <> agg.c5)", nativeQuery = true)
+    int reconcileRatingAggregates();
 }
@@ -2,12 +2,31 @@ package com.localcart.repository;
 
 import com.localcart.entity.Promotion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     List<Promotion> findByVendorIdOrderByCreatedAtDesc(Long vendorId);
     List<Promotion> findByVendorIdAndIsActiveTrueOrderByCreatedAtDesc(Long vendorId);
+
+    /**
+     * Promotions with discount terms that are active now or later (pricing rule index source)
+     */
+    @Query("SELECT p FROM Promotion p WHERE p.isActive = true " +
+           "AND p.discountType IS NOT NULL AND p.discountValue IS NOT NULL " +
+           "AND (p.endsAt IS NULL OR p.endsAt > :now)")
+    List<Promotion> findPricingCandidates(@Param("now") LocalDateTime now);
+
+    /**
+     * OFFER promotions starting or ending within (from, until] (effective price scheduler)
+     */
+    @Query("SELECT p FROM Promotion p WHERE p.isActive = true AND p.promotionType = 'OFFER' " +
+           "AND p.discountType IS NOT NULL AND p.discountValue IS NOT NULL " +
+           "AND ((p.startsAt > :from AND p.startsAt <= :until) OR (p.endsAt > :from AND p.endsAt <= :until))")
+    List<Promotion> findOfferBoundariesBetween(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
 }
@@ -5,6 +5,7 @@ import com.localcart.entity.enums.VendorStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -61,4 +62,43 @@ public interface VendorRepository extends JpaRepository<Vendor, Long> {
      */
     @Query("SELECT DISTINCT v FROM Vendor v JOIN v.documents d WHERE d.verificationStatus = 'PENDING' OR (v.status = 'PENDING' AND v.documents IS EMPTY) ORDER BY v.createdAt ASC")
     Page<Vendor> findVendorsAwaitingDocumentVerification(Pageable pageable);
+
+    /**
+     * Apply one review insert (countDelta = 1) or delete (countDelta = -1) to the stored rating aggregates
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE vendors SET " +
+           "total_reviews = COALESCE(total_reviews, 0) + :countDelta, " +
+           "rating_sum = rating_sum + :countDelta * :stars, " +
+           "rating_count_1 = rating_count_1 + CASE WHEN :stars = 1 THEN :countDelta ELSE 0 END, " +
+           "rating_count_2 = rating_count_2 + CASE WHEN :stars = 2 THEN :countDelta ELSE 0 END, " +
+           "rating_count_3 = rating_count_3 + CASE WHEN :stars = 3 THEN :countDelta ELSE 0 END, " +
+           "rating_count_4 = rating_count_4 + CASE WHEN :stars = 4 THEN :countDelta ELSE 0 END, " +
+           "rating_count_5 = rating_count_5 + CASE WHEN :stars = 5 THEN :countDelta ELSE 0 END, " +
+           "rating = CASE WHEN COALESCE(total_reviews, 0) + :countDelta > 0 " +
+           "THEN CAST(rating_sum + :countDelta * :stars AS DOUBLE PRECISION) / (COALESCE(total_reviews, 0) + :countDelta) " +
+           "ELSE 0 END " +
+           "WHERE id = :vendorId", nativeQuery = true)
+    int applyRatingDelta(@Param("vendorId") Long vendorId, @Param("stars") int stars, @Param("countDelta") int countDelta);
+
+    /**
+     * Recompute rating aggregates from reviews for rows that drifted; returns the number of rows fixed
+     */
+    @Modifying
+    @Query(value = "WITH agg AS (" +
+           "SELECT t.id AS target_id, COUNT(r.id) AS review_count, COALESCE(SUM(r.rating), 0) AS rating_sum, " +
+           "COUNT(*) FILTER (WHERE r.rating = 1) AS c1, COUNT(*) FILTER (WHERE r.rating = 2) AS c2, " +
+           "COUNT(*) FILTER (WHERE r.rating = 3) AS c3, COUNT(*) FILTER (WHERE r.rating = 4) AS c4, " +
+           "COUNT(*) FILTER (WHERE r.rating = 5) AS c5 " +
+           "FROM vendors t LEFT JOIN reviews r ON r.vendor_id = t.id AND r.is_deleted IS NOT TRUE " +
+           "GROUP BY t.id) " +
+           "UPDATE vendors t SET total_reviews = agg.review_count, rating_sum = agg.rating_sum, " +
+           "rating_count_1 = agg.c1, rating_count_2 = agg.c2, rating_count_3 = agg.c3, " +
+           "rating_count_4 = agg.c4, rating_count_5 = agg.c5, " +
+           "rating = CASE WHEN agg.review_count > 0 THEN CAST(agg.rating_sum AS DOUBLE PRECISION) / agg.review_count ELSE 0 END " +
+           "FROM agg WHERE t.id = agg.target_id AND (" +
+           "t.total_reviews IS DISTINCT FROM agg.review_count OR t.rating_sum <> agg.rating_sum " +
+           "OR t.rating_count_1 <> agg.c1 OR t.rating_count_2 <> agg.c2 OR t.rating_count_3 <> agg.c3 " +
+           "OR t.rating_count_4 <> agg.c4 OR t.rating_count_5 <> agg.c5)", nativeQuery = true)
+    int reconcileRatingAggregates();
 }
@@ -16,12 +16,15 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 /**
  * JWT Authentication Filter
  * 
  * This filter runs once per request and:
- * 1. Extracts JWT token from Authorization header
+ * 1. Extracts JWT token from Authorization header (or, on SSE endpoints only, a
+ *    short-lived stream token from the stream_token query parameter, since a browser
+ *    EventSource cannot send headers)
  * 2. Validates the token signature and expiration
  * 3. Loads user details from token
  * 4. Sets authentication in SecurityContext
@@ -34,6 +37,9 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_TOKEN_PARAM = "stream_token";
+    private static final Pattern STREAM_PATH = Pattern.compile("/api/v1/(orders|payments)/\\d+/events");
+
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
 
@@ -45,10 +51,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         
         try {
-            // 1. Extract JWT from Authorization header
+            // 1. Extract JWT from Authorization header, else a stream token on SSE endpoints
             String jwt = extractJwtFromRequest(request);
+            boolean fromStreamParam = false;
+            if (jwt == null) {
+                jwt = extractStreamToken(request);
+                fromStreamParam = jwt != null;
+            }
             
-            if (jwt != null && jwtUtils.isTokenValid(jwt)) {
+            // Stream tokens are only accepted from the query parameter, and only they are
+            if (jwt != null && jwtUtils.isTokenValid(jwt)
+                    && fromStreamParam == JwtUtils.STREAM_TOKEN_TYPE.equals(jwtUtils.getTokenType(jwt))) {
                 // 2. Extract username from token
                 String username = jwtUtils.extractUsername(jwt);
                 
@@ -120,4 +133,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         return null;
     }
+
+    /**
+     * Extract the stream token of a GET on /api/v1/orders/{id}/events or /api/v1/payments/{id}/events
+     */
+    private String extractStreamToken(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!STREAM_PATH.matcher(path).matches()) {
+            return null;
+        }
+        String streamToken = request.getParameter(STREAM_TOKEN_PARAM);
+        return StringUtils.hasText(streamToken) ? streamToken : null;
+    }
 }
@@ -22,6 +22,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtUtils {
 
+    public static final String STREAM_TOKEN_TYPE = "stream";
+
     private final JwtConfig jwtConfig;
 
     /**
@@ -52,6 +54,19 @@ public class JwtUtils {
         return createToken(claims, userDetails.getUsername(), expiration);
     }
 
+    /**
+     * Generate stream token (short-lived, only accepted as ?stream_token= on SSE endpoints)
+     */
+    public String generateStreamToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", STREAM_TOKEN_TYPE);
+        return createToken(claims, userDetails.getUsername(), jwtConfig.getStreamTokenExpiration());
+    }
+
+    public long getStreamTokenExpiration() {
+        return jwtConfig.getStreamTokenExpiration();
+    }
+
     /**
      * Get token type (if present)
      */
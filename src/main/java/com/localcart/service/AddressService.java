@@ -8,11 +8,14 @@ import com.localcart.entity.enums.AddressType;
 import com.localcart.repository.AddressRepository;
 import com.localcart.repository.UserRepository;
 import com.localcart.exception.PaymentException;
+import com.localcart.service.location.PincodeDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +31,7 @@ public class AddressService {
     
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
+    private final PincodeDirectory pincodeDirectory;
     
     /**
      * Get all addresses for user
@@ -98,6 +102,7 @@ public class AddressService {
                 .type(AddressType.valueOf(request.getAddressType()))
                 .isDefault(request.getIsDefault())
                 .build();
+        applyPincodeCoordinates(address);
         
         // If this is set as default, unset other defaults
         if (request.getIsDefault()) {
@@ -127,6 +132,7 @@ public class AddressService {
         address.setState(request.getState());
         address.setCountry(request.getCountry());
         address.setZipCode(request.getZipCode());
+        applyPincodeCoordinates(address);
         address.setType(AddressType.valueOf(request.getAddressType()));
         
         // If this is set as default, unset other defaults
@@ -191,6 +197,20 @@ public class AddressService {
         }
     }
     
+    /**
+     * Fill latitude/longitude from the pincode directory (cleared if the pincode is unknown)
+     */
+    private void applyPincodeCoordinates(Address address) {
+        int index = pincodeDirectory.indexOf(address.getZipCode());
+        if (index == PincodeDirectory.NOT_FOUND) {
+            address.setLatitude(null);
+            address.setLongitude(null);
+            return;
+        }
+        address.setLatitude(BigDecimal.valueOf(pincodeDirectory.latitude(index)).setScale(6, RoundingMode.HALF_UP));
+        address.setLongitude(BigDecimal.valueOf(pincodeDirectory.longitude(index)).setScale(6, RoundingMode.HALF_UP));
+    }
+    
     /**
      * Convert Address entity to AddressDto
      */
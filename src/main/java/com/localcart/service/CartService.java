@@ -12,6 +12,8 @@ import com.localcart.repository.CartItemRepository;
 import com.localcart.repository.ProductRepository;
 import com.localcart.repository.UserRepository;
 import com.localcart.exception.PaymentException;
+import com.localcart.service.pricing.CartPricing;
+import com.localcart.service.pricing.PricingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -37,6 +39,7 @@ public class CartService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ProductImageService productImageService;
+    private final PricingService pricingService;
     
     /**
      * Get or create cart for user
@@ -196,12 +199,7 @@ public class CartService {
         Cart cart = getCartForRead(userId);
         
         return cart.getItems().stream()
-                .map(item -> {
-                    BigDecimal price = item.getProduct().getDiscountPrice() != null 
-                            ? item.getProduct().getDiscountPrice() 
-                            : item.getProduct().getPrice();
-                    return price.multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
+                .map(item -> item.getProduct().getEffectivePrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
     
@@ -217,18 +215,22 @@ public class CartService {
                 .map(this::convertToCartItemDto)
                 .collect(Collectors.toList());
         
-        BigDecimal subtotal = getCartTotal(userId);
+        // Automatic offers and campaigns; coupon codes are applied at checkout
+        CartPricing pricing = pricingService.priceCart(cart.getItems(), null);
         
         return CartDto.builder()
                 .cartId(cart.getId())
                 .userId(userId)
                 .items(itemDtos)
                 .itemCount(cart.getItems().size())
-                .subtotal(subtotal)
+                .subtotal(pricing.subtotal())
                 .tax(BigDecimal.ZERO) // Calculated at checkout
                 .shippingFee(BigDecimal.ZERO) // Calculated at checkout
-                .discount(BigDecimal.ZERO)
-                .total(subtotal)
+                .discount(pricing.discount())
+                .appliedPromotions(pricing.discounts().stream()
+                        .map(CartPricing.AppliedDiscount::title)
+                        .toList())
+                .total(pricing.total())
                 .isEmptyCart(cart.getItems().isEmpty())
                 .build();
     }
@@ -238,10 +240,10 @@ public class CartService {
      */
     private CartItemDto convertToCartItemDto(CartItem item) {
         Product product = item.getProduct();
-        BigDecimal price = product.getDiscountPrice() != null ? product.getDiscountPrice() : product.getPrice();
+        BigDecimal price = product.getEffectivePrice();
         
-        // Get primary image URL
-        String imageUrl = productImageService.getPrimaryImageUrl(product.getId());
+        // Get primary image thumbnail URL
+        String imageUrl = productImageService.getPrimaryThumbnailUrl(product.getId());
         
         return CartItemDto.builder()
                 .id(item.getId())
@@ -251,6 +253,7 @@ public class CartService {
                 .imageUrl(imageUrl)
                 .price(product.getPrice())
                 .discountPrice(product.getDiscountPrice())
+                .effectivePrice(price)
                 .quantity(item.getQuantity())
                 .subtotal(price.multiply(BigDecimal.valueOf(item.getQuantity())))
                 .availableStock(product.getStock())
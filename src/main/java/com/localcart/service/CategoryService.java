@@ -5,9 +5,13 @@ import com.localcart.dto.category.CreateCategoryRequest;
 import com.localcart.entity.Category;
 import com.localcart.exception.PaymentException;
 import com.localcart.repository.CategoryRepository;
+import com.localcart.repository.ProductRepository;
+import com.localcart.service.category.CategoryTreeCache;
+import com.localcart.service.category.CategoryTreeSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.LinkedHashMap;
@@ -26,15 +30,19 @@ import java.util.Optional;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
 
-    private static final LinkedHashMap<String, String> VENDOR_CATEGORY_DEFINITIONS = new LinkedHashMap<>();
+    private static final Map<String, String> VENDOR_CATEGORY_DEFINITIONS;
 
     static {
-        VENDOR_CATEGORY_DEFINITIONS.put("electronics", "Electronics");
-        VENDOR_CATEGORY_DEFINITIONS.put("toys", "Toys");
-        VENDOR_CATEGORY_DEFINITIONS.put("hardware", "Hardware");
-        VENDOR_CATEGORY_DEFINITIONS.put("clothes", "Clothes");
-        VENDOR_CATEGORY_DEFINITIONS.put("kirana-items", "Kirana Items");
+        LinkedHashMap<String, String> definitions = new LinkedHashMap<>();
+        definitions.put("electronics", "Electronics");
+        definitions.put("toys", "Toys");
+        definitions.put("hardware", "Hardware");
+        definitions.put("clothes", "Clothes");
+        definitions.put("kirana-items", "Kirana Items");
+        VENDOR_CATEGORY_DEFINITIONS = java.util.Collections.unmodifiableMap(definitions);
     }
     
     /**
@@ -47,16 +55,73 @@ public class CategoryService {
     }
 
     /**
-     * Vendor-facing catalog categories.
-     * Ensures required category records exist and returns them in configured order.
+     * Get all active categories from the cached category tree
      */
-    public List<Category> getVendorCatalogCategories() {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryDto> getActiveCategoryDtos() {
+        return categoryTreeCache.get().categories();
+    }
+    
+    /**
+     * Get root categories from the cached category tree
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryDto> getRootCategoryDtos() {
+        return categoryTreeCache.get().roots();
+    }
+    
+    /**
+     * Get subcategories from the cached category tree
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryDto> getSubcategoryDtos(Long parentId) {
+        return categoryTreeCache.get().childrenOf(parentId);
+    }
+    
+    /**
+     * Get category DTO by ID, served from the cached tree when the category is active
+     */
+    @Transactional(readOnly = true)
+    public CategoryDto getCategoryDtoById(Long id) {
+        CategoryDto cached = categoryTreeCache.get().byId().get(id);
+        return cached != null ? cached : convertToDto(getCategoryById(id));
+    }
+    
+    /**
+     * Get category DTO by slug, served from the cached tree when the category is active
+     */
+    @Transactional(readOnly = true)
+    public CategoryDto getCategoryDtoBySlug(String slug) {
+        CategoryDto cached = categoryTreeCache.get().bySlug().get(slug);
+        return cached != null ? cached : convertToDto(getCategoryBySlug(slug));
+    }
+
+    /**
+     * Vendor-facing catalog categories in configured order.
+     * Served from the cached category tree; records are ensured by {@link #syncVendorCatalogCategories()}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryDto> getVendorCatalogCategories() {
+        CategoryTreeSnapshot tree = categoryTreeCache.get();
+        return VENDOR_CATEGORY_DEFINITIONS.keySet().stream()
+                .map(tree.bySlug()::get)
+                .filter(java.util.Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Reconcile vendor catalog category records with VENDOR_CATEGORY_DEFINITIONS.
+     * Runs at startup and on admin request; creates, renames, reorders or restores as needed.
+     */
+    public int syncVendorCatalogCategories() {
+        log.info("Syncing vendor catalog categories");
         List<String> allowedSlugs = List.copyOf(VENDOR_CATEGORY_DEFINITIONS.keySet());
         Map<String, Category> existingBySlug = categoryRepository.findBySlugIn(allowedSlugs)
                 .stream()
                 .collect(java.util.stream.Collectors.toMap(Category::getSlug, category -> category));
 
         int order = 1;
+        int changes = 0;
         for (Map.Entry<String, String> definition : VENDOR_CATEGORY_DEFINITIONS.entrySet()) {
             String slug = definition.getKey();
             String name = definition.getValue();
@@ -71,8 +136,8 @@ public class CategoryService {
                         .build();
                 created.setIsDeleted(false);
                 created.setDeletedAt(null);
-                created = categoryRepository.save(created);
-                existingBySlug.put(slug, created);
+                categoryRepository.save(created);
+                changes++;
             } else {
                 boolean changed = false;
                 if (!name.equals(category.getName())) {
@@ -90,15 +155,17 @@ public class CategoryService {
                 }
                 if (changed) {
                     categoryRepository.save(category);
+                    changes++;
                 }
             }
             order++;
         }
 
-        return allowedSlugs.stream()
-                .map(existingBySlug::get)
-                .filter(java.util.Objects::nonNull)
-                .toList();
+        if (changes > 0) {
+            categoryTreeCache.refreshAfterCommit();
+        }
+        log.info("Vendor catalog categories synced: {} records changed", changes);
+        return changes;
     }
     
     /**
@@ -168,7 +235,9 @@ public class CategoryService {
             category.setParent(parent);
         }
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryTreeCache.refreshAfterCommit();
+        return saved;
     }
     
     /**
@@ -210,7 +279,9 @@ public class CategoryService {
             category.setParent(null);
         }
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryTreeCache.refreshAfterCommit();
+        return saved;
     }
     
     /**
@@ -223,7 +294,7 @@ public class CategoryService {
                 .orElseThrow(() -> new PaymentException("Category not found", "CATEGORY_NOT_FOUND"));
         
         // Check if category has products
-        if (!category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryId(id)) {
             throw new PaymentException("Cannot delete category with products. Move products first.", "CATEGORY_HAS_PRODUCTS");
         }
         
@@ -233,12 +304,15 @@ public class CategoryService {
         }
         
         categoryRepository.delete(category);
+        categoryTreeCache.refreshAfterCommit();
     }
 
     /**
      * Convert Category entity to CategoryDto
+     * Product count comes from the cached tree rather than loading the products collection
      */
     public CategoryDto convertToDto(Category category) {
+        CategoryTreeSnapshot tree = categoryTreeCache.get();
         return CategoryDto.builder()
                 .id(category.getId())
                 .name(category.getName())
@@ -247,7 +321,7 @@ public class CategoryService {
                 .imageUrl(null)
                 .parentCategoryId(category.getParent() != null ? category.getParent().getId() : null)
                 .parentCategoryName(category.getParent() != null ? category.getParent().getName() : null)
-                .productCount(category.getProducts() != null ? category.getProducts().size() : 0)
+                .productCount(tree.productCount(category.getId()))
                 .isActive(!category.isDeleted())
                 .createdAt(category.getCreatedAt() != null ? category.getCreatedAt().toString() : null)
                 .updatedAt(category.getUpdatedAt() != null ? category.getUpdatedAt().toString() : null)
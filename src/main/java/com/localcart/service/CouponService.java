@@ -3,16 +3,25 @@ package com.localcart.service;
 import com.localcart.dto.coupon.CouponDto;
 import com.localcart.dto.coupon.CreateCouponRequest;
 import com.localcart.entity.Coupon;
+import com.localcart.entity.CouponRedemption;
+import com.localcart.entity.Order;
 import com.localcart.entity.Product;
 import com.localcart.entity.Vendor;
+import com.localcart.entity.enums.CouponType;
 import com.localcart.entity.enums.VendorStatus;
 import com.localcart.exception.PaymentException;
+import com.localcart.repository.CouponRedemptionRepository;
 import com.localcart.repository.CouponRepository;
 import com.localcart.repository.ProductRepository;
+import com.localcart.repository.UserRepository;
+import com.localcart.service.pricing.PricingRule;
+import com.localcart.service.pricing.PricingRuleCache;
+import com.localcart.service.pricing.PricingService;
 import com.localcart.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -27,6 +36,10 @@ public class CouponService {
     private final CouponRepository couponRepository;
     private final VendorRepository vendorRepository;
     private final ProductRepository productRepository;
+    private final CouponRedemptionRepository couponRedemptionRepository;
+    private final UserRepository userRepository;
+    private final PricingService pricingService;
+    private final PricingRuleCache pricingRuleCache;
     
     /**
      * Create a new coupon (Vendor only)
@@ -41,6 +54,10 @@ public class CouponService {
         if (couponRepository.existsByCode(request.getCode())) {
             throw new PaymentException("Coupon code already exists", "COUPON_EXISTS");
         }
+        if (request.getCouponType() == CouponType.PERCENTAGE
+                && request.getDiscountValue().compareTo(new BigDecimal("100")) > 0) {
+            throw new PaymentException("Percentage discount cannot exceed 100", "INVALID_COUPON");
+        }
 
         Product product = null;
         if (request.getProductId() != null) {
@@ -66,34 +83,73 @@ public class CouponService {
         
         coupon.setVendor(vendor);
         
-        return couponRepository.save(coupon);
+        Coupon saved = couponRepository.save(coupon);
+        pricingRuleCache.refreshAfterCommit();
+        return saved;
     }
     
     /**
-     * Validate and apply coupon code
+     * Validate coupon code and quote its discount from the in-memory rule index.
+     * Does not consume a use; see {@link #redeemCoupon}.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal applyCoupon(String code, BigDecimal orderAmount) {
         log.info("Applying coupon: {} to order amount: {}", code, orderAmount);
         
+        PricingRule rule = pricingService.resolveCode(code);
+        BigDecimal discount = rule.discountOn(orderAmount);
+        
+        if (discount.compareTo(BigDecimal.ZERO) == 0) {
+            throw new PaymentException("Minimum purchase amount not met", "COUPON_MIN_NOT_MET");
+        }
+        
+        log.info("Coupon applied. Discount: {}", discount);
+        return discount;
+    }
+    
+    /**
+     * Consume one use of a coupon for a user and record it in the ledger.
+     * The usage counter is incremented by a guarded UPDATE, so the limit holds under
+     * concurrent checkouts. Call this as late as possible in the order transaction:
+     * the coupon row stays locked until commit, which also serializes the per-user check.
+     */
+    public CouponRedemption redeemCoupon(String code, Long userId, Order order, BigDecimal discount) {
         Coupon coupon = couponRepository.findByCode(code)
                 .orElseThrow(() -> new PaymentException("Invalid coupon code", "COUPON_INVALID"));
         
-        if (!coupon.isValid()) {
-            throw new PaymentException("Coupon is not valid or has expired", "COUPON_EXPIRED");
+        if (couponRepository.incrementUsageIfAvailable(coupon.getId()) == 0) {
+            throw new PaymentException("Coupon usage limit reached", "COUPON_LIMIT_REACHED");
         }
         
-        BigDecimal discount = coupon.calculateDiscount(orderAmount);
-        
-        if (discount.compareTo(BigDecimal.ZERO) == 0) {
-            throw new PaymentException("Minimum purchase amount not met", "COUPON_MIN_NOT_MET");
+        if (coupon.getPerUserLimit() != null
+                && couponRedemptionRepository.countByCouponIdAndUserId(coupon.getId(), userId) >= coupon.getPerUserLimit()) {
+            // Rolling back the transaction also undoes the increment above
+            throw new PaymentException("Coupon already used the maximum number of times", "COUPON_USER_LIMIT_REACHED");
         }
         
-        // Increment usage count
-        coupon.setUsageCount(coupon.getUsageCount() + 1);
-        couponRepository.save(coupon);
+        CouponRedemption redemption = CouponRedemption.builder()
+                .coupon(coupon)
+                .user(userRepository.getReferenceById(userId))
+                .order(order)
+                .discountAmount(discount)
+                .build();
         
-        log.info("Coupon applied. Discount: {}", discount);
-        return discount;
+        log.info("Coupon {} redeemed by user {}", coupon.getCode(), userId);
+        return couponRedemptionRepository.save(redemption);
+    }
+    
+    /**
+     * Give back coupon uses taken by an order (e.g. on cancellation)
+     */
+    public void releaseRedemptions(Long orderId) {
+        List<CouponRedemption> redemptions = couponRedemptionRepository.findByOrderId(orderId);
+        for (CouponRedemption redemption : redemptions) {
+            couponRepository.decrementUsage(redemption.getCoupon().getId());
+            couponRedemptionRepository.delete(redemption);
+        }
+        if (!redemptions.isEmpty()) {
+            log.info("Released {} coupon redemption(s) for order {}", redemptions.size(), orderId);
+        }
     }
     
     /**
@@ -117,6 +173,7 @@ public class CouponService {
         
         coupon.setIsActive(false);
         couponRepository.save(coupon);
+        pricingRuleCache.refreshAfterCommit();
     }
 
     public CouponDto toDto(Coupon coupon) {
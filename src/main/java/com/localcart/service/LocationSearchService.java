@@ -8,12 +8,16 @@ import com.localcart.entity.Vendor;
 import com.localcart.entity.enums.VendorStatus;
 import com.localcart.repository.ProductRepository;
 import com.localcart.repository.VendorRepository;
+import com.localcart.service.location.PincodeDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Location-Based Search Service
@@ -28,9 +32,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class LocationSearchService {
 
+    // Larger than any distance on Earth, so directory hits always sort ahead of fallbacks
+    private static final double UNKNOWN_DISTANCE_OFFSET = 100_000d;
+
     private final VendorRepository vendorRepository;
     private final ProductRepository productRepository;
     private final VendorService vendorService;
+    private final PincodeDirectory pincodeDirectory;
+    private final ProductImageService productImageService;
 
     /**
      * Search vendors by pincode
@@ -53,34 +62,21 @@ public class LocationSearchService {
 
     /**
      * Search vendors by pincode with proximity sorting
-     * Sorts by pincode distance (nearest first)
+     * Exact pincode matches first, then by great-circle distance from the pincode directory.
+     * Vendors whose pincode is not in the directory follow, ordered by numeric pincode distance.
      */
     @Transactional(readOnly = true)
     public List<VendorDto> searchVendorsByPincodeWithProximity(String userPincode) {
         log.info("Searching vendors by pincode with proximity: {}", userPincode);
 
-        // Get exact match
-        List<Vendor> exactMatches = vendorRepository.findApprovedVendorsByPincode(userPincode);
-        
-        // Get all approved vendors and sort by pincode proximity
         List<Vendor> allApprovedVendors = vendorRepository.findAllApprovedVendors();
 
+        // Resolve the user's pincode once and compute each vendor's sort key once
+        int userIndex = pincodeDirectory.indexOf(userPincode);
         return allApprovedVendors.stream()
-            .sorted((v1, v2) -> {
-                // Exact pincode match comes first
-                if (v1.getShopPincode().equals(userPincode) && !v2.getShopPincode().equals(userPincode)) {
-                    return -1;
-                }
-                if (!v1.getShopPincode().equals(userPincode) && v2.getShopPincode().equals(userPincode)) {
-                    return 1;
-                }
-                
-                // If both are exact match or both are not, sort by pincode numeric distance
-                int distance1 = calculatePincodeDistance(userPincode, v1.getShopPincode());
-                int distance2 = calculatePincodeDistance(userPincode, v2.getShopPincode());
-                return Integer.compare(distance1, distance2);
-            })
-            .map(vendor -> vendorService.getVendorById(vendor.getId()))
+            .map(vendor -> new RankedVendor(vendor, proximityRank(userPincode, userIndex, vendor.getShopPincode())))
+            .sorted(Comparator.comparingDouble(RankedVendor::rank))
+            .map(ranked -> vendorService.getVendorById(ranked.vendor().getId()))
             .toList();
     }
 
@@ -97,10 +93,29 @@ public class LocationSearchService {
             .toList();
     }
 
+    /**
+     * Sort key for a vendor pincode relative to the user's pincode
+     * Exact match sorts first, known distances in km next, unknown pincodes last
+     */
+    private double proximityRank(String userPincode, int userIndex, String vendorPincode) {
+        if (vendorPincode == null) {
+            return Double.MAX_VALUE;
+        }
+        if (vendorPincode.equals(userPincode)) {
+            return -1;
+        }
+        if (userIndex != PincodeDirectory.NOT_FOUND) {
+            int vendorIndex = pincodeDirectory.indexOf(vendorPincode);
+            if (vendorIndex != PincodeDirectory.NOT_FOUND) {
+                return pincodeDirectory.distanceKm(userIndex, vendorIndex);
+            }
+        }
+        return UNKNOWN_DISTANCE_OFFSET + calculatePincodeDistance(userPincode, vendorPincode);
+    }
+
     /**
      * Calculate numeric distance between two pincodes
-     * This is a simple implementation based on numeric difference
-     * In production, you might want to use actual geographic coordinates
+     * Fallback for pincodes missing from the pincode directory
      */
     private int calculatePincodeDistance(String pincode1, String pincode2) {
         try {
@@ -113,6 +128,9 @@ public class LocationSearchService {
         }
     }
 
+    private record RankedVendor(Vendor vendor, double rank) {
+    }
+
     /**
      * Get nearby shops (all approved vendors in a specific pincode)
      */
@@ -126,14 +144,8 @@ public class LocationSearchService {
      */
     @Transactional(readOnly = true)
     public List<ProductDto> getProductsByPincode(String pincode, int limit) {
-        List<Vendor> vendors = vendorRepository.findApprovedVendorsByPincode(pincode);
-        
-        return vendors.stream()
-            .flatMap(vendor -> vendor.getProducts().stream())
-            .filter(product -> !product.getIsDeleted())
-            .limit(limit)
-            .map(this::convertProductToDto)
-            .toList();
+        List<Product> products = productRepository.findByApprovedVendorPincode(pincode, PageRequest.of(0, Math.max(limit, 1)));
+        return convertProductsToDto(products);
     }
 
     /**
@@ -141,26 +153,27 @@ public class LocationSearchService {
      */
     @Transactional(readOnly = true)
     public List<ProductDto> searchProductsByPincodeAndKeyword(String pincode, String keyword, int limit) {
-        List<Vendor> vendors = vendorRepository.findApprovedVendorsByPincode(pincode);
-        
-        return vendors.stream()
-            .flatMap(vendor -> vendor.getProducts().stream())
-            .filter(product -> !product.getIsDeleted() && 
-                    (product.getName().toLowerCase().contains(keyword.toLowerCase()) ||
-                     product.getDescription().toLowerCase().contains(keyword.toLowerCase())))
-            .limit(limit)
-            .map(this::convertProductToDto)
-            .toList();
+        List<Product> products = productRepository.searchByApprovedVendorPincodeAndKeyword(
+            pincode, ProductService.escapeLike(keyword), PageRequest.of(0, Math.max(limit, 1)));
+        return convertProductsToDto(products);
     }
 
     /**
-     * Convert Product entity to DTO (basic conversion)
+     * Convert products to DTOs, loading all their images in one query
      */
-    private ProductDto convertProductToDto(Product product) {
-        List<String> imageUrls = product.getImages().stream()
-            .map(ProductImage::getImageUrl)
+    private List<ProductDto> convertProductsToDto(List<Product> products) {
+        Map<Long, List<ProductImage>> images = productImageService.getProductImages(
+            products.stream().map(Product::getId).toList());
+
+        return products.stream()
+            .map(product -> convertProductToDto(product, images.getOrDefault(product.getId(), List.of())))
             .toList();
+    }
 
+    /**
+     * Convert Product entity to DTO (basic conversion)
+     */
+    private ProductDto convertProductToDto(Product product, List<ProductImage> images) {
         return ProductDto.builder()
             .id(product.getId())
             .name(product.getName())
@@ -169,7 +182,8 @@ public class LocationSearchService {
             .price(product.getPrice())
             .vendorId(product.getVendor().getId())
             .vendorName(product.getVendor().getBusinessName())
-            .imageUrls(imageUrls)
+            .imageUrls(images.stream().map(ProductImage::getImageUrl).toList())
+            .cardImageUrls(images.stream().map(ProductImageService::cardUrlOf).toList())
             .createdAt(product.getCreatedAt() != null ? product.getCreatedAt().toString() : null)
             .updatedAt(product.getUpdatedAt() != null ? product.getUpdatedAt().toString() : null)
             .build();
@@ -0,0 +1,137 @@
+package com.localcart.service;
+
+import com.localcart.entity.Product;
+import com.localcart.entity.Vendor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Low Stock Alert Service
+ *
+ * Edge-triggered stock alerts: an alert is raised only when a stock change
+ * crosses the low-stock threshold (or reaches zero), never for products that
+ * simply stay low. Alerts are queued after the stock change commits and sent
+ * as one digest per vendor on a fixed interval.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LowStockAlertService {
+
+    private final WebhookService webhookService;
+
+    @Value("${automation.low-stock.threshold:10}")
+    private int defaultThreshold;
+
+    @Value("${automation.enabled:true}")
+    private boolean automationEnabled;
+
+    // vendorId -> (productId -> latest alert), so repeated crossings coalesce per product
+    private final Map<Long, VendorDigest> pendingDigests = new ConcurrentHashMap<>();
+
+    public enum AlertType { LOW_STOCK, OUT_OF_STOCK }
+
+    public record StockAlert(Long productId, String productName, String sku, int stock, int threshold,
+                             AlertType type, LocalDateTime detectedAt) {
+    }
+
+    private record VendorDigest(Long vendorId, String vendorEmail, String vendorName, Map<Long, StockAlert> alerts) {
+    }
+
+    /**
+     * Call after changing a product's stock; raises an alert if the change crossed a threshold
+     */
+    public void onStockChanged(Product product, int previousStock) {
+        if (!automationEnabled || product.getVendor() == null) {
+            return;
+        }
+
+        int newStock = product.getStock() != null ? product.getStock() : 0;
+        int threshold = resolveThreshold(product);
+
+        AlertType type = null;
+        if (previousStock > 0 && newStock <= 0) {
+            type = AlertType.OUT_OF_STOCK;
+        } else if (previousStock >= threshold && newStock < threshold) {
+            type = AlertType.LOW_STOCK;
+        }
+        if (type == null) {
+            return;
+        }
+
+        Vendor vendor = product.getVendor();
+        StockAlert alert = new StockAlert(product.getId(), product.getName(), product.getSku(),
+                newStock, threshold, type, LocalDateTime.now());
+        Long vendorId = vendor.getId();
+        String vendorEmail = vendor.getBusinessEmail();
+        String vendorName = vendor.getBusinessName();
+
+        // Only queue once the stock change is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(vendorId, vendorEmail, vendorName, alert);
+                }
+            });
+        } else {
+            enqueue(vendorId, vendorEmail, vendorName, alert);
+        }
+    }
+
+    /**
+     * Send one digest per vendor with the alerts collected since the last flush
+     */
+    @Scheduled(fixedDelayString = "${automation.low-stock.digest-interval-ms:900000}")
+    public void flushDigests() {
+        if (pendingDigests.isEmpty()) {
+            return;
+        }
+
+        int vendors = 0;
+        for (Long vendorId : new ArrayList<>(pendingDigests.keySet())) {
+            VendorDigest digest = pendingDigests.remove(vendorId);
+            if (digest == null) {
+                continue;
+            }
+            List<StockAlert> alerts = List.copyOf(digest.alerts().values());
+            webhookService.triggerLowStockDigest(digest.vendorId(), digest.vendorEmail(), digest.vendorName(), alerts);
+            vendors++;
+        }
+        log.info("Low stock digests sent to {} vendors", vendors);
+    }
+
+    private void enqueue(Long vendorId, String vendorEmail, String vendorName, StockAlert alert) {
+        // compute() and remove() are atomic per key, so a flush never misses a half-added alert
+        pendingDigests.compute(vendorId, (id, digest) -> {
+            VendorDigest target = digest != null
+                    ? digest
+                    : new VendorDigest(id, vendorEmail, vendorName, new LinkedHashMap<>());
+            target.alerts().put(alert.productId(), alert);
+            return target;
+        });
+        log.debug("Queued {} alert for product {} (stock {})", alert.type(), alert.productId(), alert.stock());
+    }
+
+    private int resolveThreshold(Product product) {
+        if (product.getLowStockThreshold() != null) {
+            return product.getLowStockThreshold();
+        }
+        if (product.getVendor().getLowStockThreshold() != null) {
+            return product.getVendor().getLowStockThreshold();
+        }
+        return defaultThreshold;
+    }
+}
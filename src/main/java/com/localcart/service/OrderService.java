@@ -7,14 +7,21 @@ import com.localcart.entity.*;
 import com.localcart.entity.enums.OrderStatus;
 import com.localcart.repository.*;
 import com.localcart.exception.PaymentException;
+import com.localcart.service.location.PincodeDirectory;
+import com.localcart.service.pricing.CartPricing;
+import com.localcart.service.pricing.PricingService;
+import com.localcart.service.stream.StatusChange;
+import com.localcart.service.stream.StatusStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -37,8 +44,18 @@ public class OrderService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final CouponService couponService;
+    private final PricingService pricingService;
     private final ProductImageService productImageService;
     private final WebhookService webhookService;
+    private final PincodeDirectory pincodeDirectory;
+    private final LowStockAlertService lowStockAlertService;
+    private final StatusStreamService statusStreamService;
+    
+    @Value("${shipping.distance.fee-per-km:0}")
+    private BigDecimal distanceFeePerKm;
+    
+    @Value("${shipping.distance.free-radius-km:10}")
+    private double freeRadiusKm;
     
     /**
      * Get user's orders (paginated)
@@ -108,14 +125,13 @@ public class OrderService {
             throw new PaymentException("Cart is empty", "EMPTY_CART");
         }
         
-        // Calculate totals
-        BigDecimal subtotal = calculateSubtotal(cart);
+        // Calculate totals (offers, campaigns and the coupon code from the in-memory rule index)
+        CartPricing pricing = pricingService.priceCart(cart.getItems(), request.getCouponCode());
+        BigDecimal subtotal = pricing.subtotal();
         BigDecimal tax = calculateTax(subtotal);
-        BigDecimal shippingFee = calculateShippingFee(subtotal);
-        BigDecimal discount = BigDecimal.ZERO;
-        if (request.getCouponCode() != null && !request.getCouponCode().isBlank()) {
-            discount = couponService.applyCoupon(request.getCouponCode(), subtotal);
-        }
+        BigDecimal shippingFee = calculateShippingFee(subtotal)
+                .add(calculateDistanceSurcharge(cart, shippingAddress));
+        BigDecimal discount = pricing.discount();
         BigDecimal total = subtotal.add(tax).add(shippingFee).subtract(discount);
         
         // Create order
@@ -142,7 +158,7 @@ public class OrderService {
                 throw new PaymentException("Insufficient stock for product: " + product.getName(), "INSUFFICIENT_STOCK");
             }
             
-            BigDecimal unitPrice = product.getDiscountPrice() != null ? product.getDiscountPrice() : product.getPrice();
+            BigDecimal unitPrice = product.getEffectivePrice();
             BigDecimal itemSubtotal = unitPrice.multiply(BigDecimal.valueOf(cartItem.getQuantity()));
             
             OrderItem orderItem = OrderItem.builder()
@@ -158,11 +174,17 @@ public class OrderService {
             order.getItems().add(orderItem);
             
             // Reduce stock
-            product.setStock(product.getStock() - cartItem.getQuantity());
+            int previousStock = product.getStock();
+            product.setStock(previousStock - cartItem.getQuantity());
+            lowStockAlertService.onStockChanged(product, previousStock);
         }
         
         Order savedOrder = orderRepository.save(order);
         
+        // Consume the coupon last so its row lock is held only briefly
+        pricing.coupon().ifPresent(coupon ->
+                couponService.redeemCoupon(coupon.code(), userId, savedOrder, coupon.amount()));
+        
         // Clear cart
         cartItemRepository.deleteByCartId(cart.getId());
         cart.getItems().clear();
@@ -216,6 +238,10 @@ public class OrderService {
         // Trigger webhook for status change
         webhookService.triggerOrderStatusChanged(savedOrder, previousStatus.name());
         
+        // Push to open status streams once committed
+        statusStreamService.publish(StatusChange.order(savedOrder.getId(), newStatus.name(),
+                previousStatus.name(), savedOrder.getTrackingNumber()));
+        
         return savedOrder;
     }
     
@@ -238,6 +264,7 @@ public class OrderService {
             throw new PaymentException("Order cannot be cancelled in current status", "INVALID_STATUS");
         }
         
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
         order.setCancellationReason(reason);
@@ -248,6 +275,11 @@ public class OrderService {
             product.setStock(product.getStock() + item.getQuantity());
         }
         
+        couponService.releaseRedemptions(order.getId());
+        
+        statusStreamService.publish(StatusChange.order(order.getId(), OrderStatus.CANCELLED.name(),
+                previousStatus.name(), order.getTrackingNumber()));
+        
         return orderRepository.save(order);
     }
     
@@ -289,7 +321,7 @@ public class OrderService {
     }
     
     private OrderItemDto convertToOrderItemDto(OrderItem item) {
-        String imageUrl = productImageService.getPrimaryImageUrl(item.getProduct().getId());
+        String imageUrl = productImageService.getPrimaryThumbnailUrl(item.getProduct().getId());
         return OrderItemDto.builder()
                 .id(item.getId())
                 .productId(item.getProduct().getId())
@@ -304,20 +336,6 @@ public class OrderService {
                 .build();
     }
     
-    /**
-     * Calculate subtotal from cart
-     */
-    private BigDecimal calculateSubtotal(Cart cart) {
-        return cart.getItems().stream()
-                .map(item -> {
-                    BigDecimal price = item.getProduct().getDiscountPrice() != null 
-                            ? item.getProduct().getDiscountPrice() 
-                            : item.getProduct().getPrice();
-                    return price.multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
     /**
      * Calculate tax (10% for demo)
      */
@@ -335,6 +353,34 @@ public class OrderService {
         return new BigDecimal("10.00");
     }
     
+    /**
+     * Distance surcharge based on the farthest vendor in the cart
+     * Disabled unless shipping.distance.fee-per-km is set; unknown pincodes are not charged
+     */
+    private BigDecimal calculateDistanceSurcharge(Cart cart, Address shippingAddress) {
+        if (distanceFeePerKm.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        int destination = pincodeDirectory.indexOf(shippingAddress.getZipCode());
+        if (destination == PincodeDirectory.NOT_FOUND) {
+            return BigDecimal.ZERO;
+        }
+        
+        double farthestKm = 0;
+        for (CartItem item : cart.getItems()) {
+            int origin = pincodeDirectory.indexOf(item.getProduct().getVendor().getShopPincode());
+            if (origin != PincodeDirectory.NOT_FOUND) {
+                farthestKm = Math.max(farthestKm, pincodeDirectory.distanceKm(origin, destination));
+            }
+        }
+        
+        double chargeableKm = farthestKm - freeRadiusKm;
+        if (chargeableKm <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return distanceFeePerKm.multiply(BigDecimal.valueOf(chargeableKm)).setScale(2, RoundingMode.HALF_UP);
+    }
+    
     /**
      * Generate unique order number
      */
@@ -2,14 +2,19 @@ package com.localcart.service;
 
 import com.localcart.entity.Product;
 import com.localcart.entity.ProductImage;
+import com.localcart.entity.enums.ImageVariantStatus;
 import com.localcart.repository.ProductImageRepository;
+import com.localcart.service.media.ImageVariantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +28,7 @@ import java.util.Optional;
 public class ProductImageService {
     
     private final ProductImageRepository productImageRepository;
+    private final ImageVariantService imageVariantService;
     
     /**
      * Add images to a product from list of URLs
@@ -44,6 +50,7 @@ public class ProductImageService {
                     .isPrimary(i == 0) // First image is primary
                     .displayOrder(i + 1)
                     .build();
+            applyVariants(image);
             
             images.add(productImageRepository.save(image));
         }
@@ -93,6 +100,23 @@ public class ProductImageService {
                 .orElse(null);
     }
     
+    /**
+     * Get primary image's thumbnail URL (original until resized) or null
+     */
+    @Transactional(readOnly = true)
+    public String getPrimaryThumbnailUrl(Long productId) {
+        return getPrimaryImage(productId)
+                .map(image -> image.getThumbnailUrl() != null ? image.getThumbnailUrl() : image.getImageUrl())
+                .orElse(null);
+    }
+    
+    /**
+     * Listing-size (card) URL of an image, falling back to the original until it is resized
+     */
+    public static String cardUrlOf(ProductImage image) {
+        return image.getCardUrl() != null ? image.getCardUrl() : image.getImageUrl();
+    }
+    
     /**
      * Get all image URLs for a product
      */
@@ -103,6 +127,33 @@ public class ProductImageService {
                 .toList();
     }
     
+    /**
+     * Get image URLs for many products in one query, keyed by product ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<String>> getProductImageUrls(Collection<Long> productIds) {
+        Map<Long, List<String>> urlsByProduct = new HashMap<>();
+        getProductImages(productIds).forEach((productId, images) ->
+                urlsByProduct.put(productId, images.stream().map(ProductImage::getImageUrl).toList()));
+        return urlsByProduct;
+    }
+    
+    /**
+     * Get images for many products in one query, keyed by product ID (display order)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ProductImage>> getProductImages(Collection<Long> productIds) {
+        Map<Long, List<ProductImage>> imagesByProduct = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return imagesByProduct;
+        }
+        for (ProductImage image : productImageRepository.findByProductIdIn(productIds)) {
+            imagesByProduct.computeIfAbsent(image.getProduct().getId(), id -> new ArrayList<>())
+                    .add(image);
+        }
+        return imagesByProduct;
+    }
+    
     /**
      * Set a specific image as primary
      */
@@ -131,4 +182,21 @@ public class ProductImageService {
         log.info("Deleting image {}", imageId);
         productImageRepository.deleteById(imageId);
     }
+    
+    /**
+     * Uploaded images start PENDING (or READY if the pipeline already finished);
+     * external URLs have no variants
+     */
+    private void applyVariants(ProductImage image) {
+        if (!imageVariantService.isLocalUpload(image.getImageUrl())) {
+            image.setVariantStatus(ImageVariantStatus.NONE);
+            return;
+        }
+        imageVariantService.findVariants(image.getImageUrl()).ifPresentOrElse(variants -> {
+            image.setThumbnailUrl(variants.thumbnailUrl());
+            image.setCardUrl(variants.cardUrl());
+            image.setDetailUrl(variants.detailUrl());
+            image.setVariantStatus(ImageVariantStatus.READY);
+        }, () -> image.setVariantStatus(ImageVariantStatus.PENDING));
+    }
 }
@@ -1,6 +1,7 @@
 package com.localcart.service;
 
 import com.localcart.exception.PaymentException;
+import com.localcart.service.media.ImageVariantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +22,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductImageStorageService {
 
+    private final ImageVariantService imageVariantService;
+
     @Value("${storage.local.directory:uploads}")
     private String uploadDirectory;
 
@@ -64,6 +67,8 @@ public class ProductImageStorageService {
             }
 
             Files.copy(file.getInputStream(), targetFile, StandardCopyOption.REPLACE_EXISTING);
+            // Thumb/card/detail variants are produced in the background
+            imageVariantService.enqueue(targetFile);
 
             String relativePath = "/uploads/vendors/" + vendorId + "/" + fileName;
             return normalizeBaseUrl(publicBaseUrl) + relativePath;
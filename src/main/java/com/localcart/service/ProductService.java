@@ -3,6 +3,7 @@ package com.localcart.service;
 import com.localcart.dto.product.ProductDto;
 import com.localcart.dto.product.CreateProductRequest;
 import com.localcart.entity.Product;
+import com.localcart.entity.ProductImage;
 import com.localcart.entity.Category;
 import com.localcart.entity.Vendor;
 import com.localcart.entity.enums.VendorStatus;
@@ -10,6 +11,7 @@ import com.localcart.exception.PaymentException;
 import com.localcart.repository.ProductRepository;
 import com.localcart.repository.CategoryRepository;
 import com.localcart.repository.VendorRepository;
+import com.localcart.service.pricing.EffectivePriceMaterializer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,6 +19,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -33,6 +37,8 @@ public class ProductService {
     private final CategoryRepository categoryRepository;
     private final VendorRepository vendorRepository;
     private final ProductImageService productImageService;
+    private final LowStockAlertService lowStockAlertService;
+    private final EffectivePriceMaterializer effectivePriceMaterializer;
     
     /**
      * Get all active products (paginated)
@@ -69,14 +75,16 @@ public class ProductService {
     @Transactional(readOnly = true)
     public Page<Product> searchProducts(String query, Pageable pageable) {
         log.info("Searching products: {}", query);
-        return productRepository.searchProducts(query, pageable);
+        return productRepository.searchProducts(escapeLike(query), pageable);
     }
 
     /**
-     * Search products by keyword/category and optional vendor pincode.
+     * Search products by keyword/category, optional vendor pincode and effective price range.
+     * Sorting comes from the pageable (see ProductSort).
      */
     @Transactional(readOnly = true)
-    public Page<Product> searchProductsByLocation(String query, Long categoryId, String zipCode, Pageable pageable) {
+    public Page<Product> searchProductsByLocation(String query, Long categoryId, String zipCode,
+                                                  BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
         String normalizedQuery = query != null ? query.trim() : null;
         String normalizedZip = zipCode != null ? zipCode.trim() : null;
 
@@ -88,11 +96,27 @@ public class ProductService {
             normalizedZip = null;
         }
 
-        return productRepository.searchProductsByLocation(normalizedQuery, categoryId, normalizedZip, pageable);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new PaymentException("minPrice must not exceed maxPrice", "INVALID_PRICE_RANGE");
+        }
+
+        return productRepository.searchProductsByLocation(
+                escapeLike(normalizedQuery), categoryId, normalizedZip, minPrice, maxPrice, pageable);
     }
     
     /**
-     * Get products by category
+     * Escape LIKE wildcards so a keyword matches literally (queries declare ESCAPE '\')
+     */
+    static String escapeLike(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    /**
+     * Get products by category. Sorting comes from the pageable (see ProductSort),
+     * served by the V25 category sort indexes.
      */
     @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
@@ -144,6 +168,7 @@ public class ProductService {
                 .build();
         
         product = productRepository.save(product);
+        applyEffectivePrice(product);
         
         // Add product images if provided
         if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
@@ -185,12 +210,15 @@ public class ProductService {
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         product.setDiscountPrice(request.getDiscountPrice());
+        int previousStock = product.getStock() != null ? product.getStock() : 0;
         product.setStock(request.getStock());
         product.setSku(request.getSku());
         product.setIsActive(request.getIsActive());
         product.setIsFeatured(request.getIsFeatured());
         
         product = productRepository.save(product);
+        applyEffectivePrice(product);
+        lowStockAlertService.onStockChanged(product, previousStock);
         
         // Update product images if provided
         if (request.getImageUrls() != null) {
@@ -235,6 +263,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public ProductDto convertToDto(Product product) {
+        List<ProductImage> images = productImageService.getProductImages(product.getId());
         return ProductDto.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -242,6 +271,7 @@ public class ProductService {
                 .description(product.getDescription())
                 .price(product.getPrice())
                 .discountPrice(product.getDiscountPrice())
+                .effectivePrice(product.getEffectivePrice())
                 .stock(product.getStock())
                 .sku(product.getSku())
                 .isActive(product.getIsActive())
@@ -253,12 +283,22 @@ public class ProductService {
                 .vendorName(product.getVendor().getBusinessName())
                 .categoryId(product.getCategory().getId())
                 .categoryName(product.getCategory().getName())
-                .imageUrls(productImageService.getProductImageUrls(product.getId()))
+                .imageUrls(images.stream().map(ProductImage::getImageUrl).toList())
+                .cardImageUrls(images.stream().map(ProductImageService::cardUrlOf).toList())
                 .createdAt(product.getCreatedAt() != null ? product.getCreatedAt().toString() : null)
                 .updatedAt(product.getUpdatedAt() != null ? product.getUpdatedAt().toString() : null)
                 .build();
     }
 
+    /**
+     * Re-derive effective_price after a price or category change (active offers included)
+     */
+    private void applyEffectivePrice(Product product) {
+        productRepository.flush();
+        effectivePriceMaterializer.recomputeProduct(product.getId(), LocalDateTime.now());
+        productRepository.findEffectivePrice(product.getId()).ifPresent(product::setEffectivePrice);
+    }
+
     private void ensureVendorReadyForCatalog(Vendor vendor) {
         if (vendor.getStatus() != VendorStatus.APPROVED) {
             throw new PaymentException("Vendor account is not approved yet", "VENDOR_NOT_APPROVED");
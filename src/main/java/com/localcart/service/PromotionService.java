@@ -2,17 +2,25 @@ package com.localcart.service;
 
 import com.localcart.dto.promotion.CreatePromotionRequest;
 import com.localcart.dto.promotion.PromotionDto;
+import com.localcart.entity.Category;
+import com.localcart.entity.Product;
 import com.localcart.entity.Promotion;
 import com.localcart.entity.Vendor;
+import com.localcart.entity.enums.CouponType;
 import com.localcart.entity.enums.VendorStatus;
 import com.localcart.exception.PaymentException;
+import com.localcart.repository.CategoryRepository;
+import com.localcart.repository.ProductRepository;
 import com.localcart.repository.PromotionRepository;
 import com.localcart.repository.VendorRepository;
+import com.localcart.service.pricing.PricingRuleCache;
+import com.localcart.service.pricing.PromotionActivationScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Slf4j
@@ -23,6 +31,10 @@ public class PromotionService {
 
     private final PromotionRepository promotionRepository;
     private final VendorRepository vendorRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final PricingRuleCache pricingRuleCache;
+    private final PromotionActivationScheduler promotionActivationScheduler;
 
     public PromotionDto createPromotion(Long vendorId, CreatePromotionRequest request) {
         Vendor vendor = vendorRepository.findById(vendorId)
@@ -40,8 +52,11 @@ public class PromotionService {
                 .endsAt(request.getEndsAt())
                 .isActive(true)
                 .build();
+        applyDiscountTerms(promotion, vendor, request);
 
-        return toDto(promotionRepository.save(promotion));
+        Promotion saved = promotionRepository.save(promotion);
+        onPromotionChanged(saved);
+        return toDto(saved);
     }
 
     @Transactional(readOnly = true)
@@ -68,8 +83,11 @@ public class PromotionService {
         promotion.setValueText(request.getValueText());
         promotion.setStartsAt(request.getStartsAt());
         promotion.setEndsAt(request.getEndsAt());
+        applyDiscountTerms(promotion, promotion.getVendor(), request);
 
-        return toDto(promotionRepository.save(promotion));
+        Promotion saved = promotionRepository.save(promotion);
+        onPromotionChanged(saved);
+        return toDto(saved);
     }
 
     public void deletePromotion(Long promotionId, Long vendorId) {
@@ -82,6 +100,49 @@ public class PromotionService {
         ensureVendorApproved(promotion.getVendor());
 
         promotionRepository.delete(promotion);
+        pricingRuleCache.refreshAfterCommit();
+        promotionActivationScheduler.onPromotionChanged(promotion.getId(), vendorId, null, null);
+    }
+
+    private void onPromotionChanged(Promotion promotion) {
+        pricingRuleCache.refreshAfterCommit();
+        promotionActivationScheduler.onPromotionChanged(promotion.getId(), promotion.getVendor().getId(),
+                promotion.getStartsAt(), promotion.getEndsAt());
+    }
+
+    private void applyDiscountTerms(Promotion promotion, Vendor vendor, CreatePromotionRequest request) {
+        if ((request.getDiscountType() == null) != (request.getDiscountValue() == null)) {
+            throw new PaymentException("Discount type and value must be given together", "INVALID_PROMOTION");
+        }
+        if (request.getDiscountType() == CouponType.PERCENTAGE
+                && request.getDiscountValue().compareTo(new BigDecimal("100")) > 0) {
+            throw new PaymentException("Percentage discount cannot exceed 100", "INVALID_PROMOTION");
+        }
+        if (request.getStartsAt() != null && request.getEndsAt() != null
+                && !request.getEndsAt().isAfter(request.getStartsAt())) {
+            throw new PaymentException("Promotion must end after it starts", "INVALID_PROMOTION");
+        }
+
+        Product product = null;
+        if (request.getProductId() != null) {
+            product = productRepository.findById(request.getProductId())
+                    .orElseThrow(() -> new PaymentException("Product not found", "PRODUCT_NOT_FOUND"));
+            if (!product.getVendor().getId().equals(vendor.getId())) {
+                throw new PaymentException("Product does not belong to this vendor", "UNAUTHORIZED");
+            }
+        }
+        Category category = null;
+        if (request.getCategoryId() != null) {
+            category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new PaymentException("Category not found", "CATEGORY_NOT_FOUND"));
+        }
+
+        promotion.setDiscountType(request.getDiscountType());
+        promotion.setDiscountValue(request.getDiscountValue());
+        promotion.setMinPurchaseAmount(request.getMinPurchaseAmount());
+        promotion.setMaxDiscountAmount(request.getMaxDiscountAmount());
+        promotion.setProduct(product);
+        promotion.setCategory(category);
     }
 
     private void ensureVendorApproved(Vendor vendor) {
@@ -102,6 +163,12 @@ public class PromotionService {
                 .startsAt(promotion.getStartsAt() != null ? promotion.getStartsAt().toString() : null)
                 .endsAt(promotion.getEndsAt() != null ? promotion.getEndsAt().toString() : null)
                 .isActive(promotion.getIsActive())
+                .discountType(promotion.getDiscountType())
+                .discountValue(promotion.getDiscountValue())
+                .minPurchaseAmount(promotion.getMinPurchaseAmount())
+                .maxDiscountAmount(promotion.getMaxDiscountAmount())
+                .productId(promotion.getProduct() != null ? promotion.getProduct().getId() : null)
+                .categoryId(promotion.getCategory() != null ? promotion.getCategory().getId() : null)
                 .createdAt(promotion.getCreatedAt() != null ? promotion.getCreatedAt().toString() : null)
                 .build();
     }
@@ -0,0 +1,40 @@
+package com.localcart.service;
+
+import com.localcart.entity.enums.OrderStatus;
+import com.localcart.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Purchase History Service
+ * Answers "has this user bought X" style questions with indexed queries
+ * (verified-purchase reviews, buy again, recommendations)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PurchaseHistoryService {
+
+    private final OrderItemRepository orderItemRepository;
+
+    /**
+     * Whether the user has a delivered order containing the product
+     */
+    public boolean hasDeliveredPurchase(Long userId, Long productId) {
+        return orderItemRepository.existsByOrderUserIdAndProductIdAndOrderStatus(userId, productId, OrderStatus.DELIVERED);
+    }
+
+    /**
+     * Products from the user's delivered orders, most recently bought first
+     */
+    public List<Long> getDeliveredProductIds(Long userId, int limit) {
+        return orderItemRepository.findPurchasedProductIds(
+                userId, OrderStatus.DELIVERED, PageRequest.of(0, Math.max(limit, 1)));
+    }
+}
@@ -2,17 +2,14 @@ package com.localcart.service;
 
 import com.localcart.dto.review.CreateReviewRequest;
 import com.localcart.dto.review.ReviewDto;
-import com.localcart.entity.Order;
-import com.localcart.entity.OrderItem;
 import com.localcart.entity.Product;
 import com.localcart.entity.Review;
 import com.localcart.entity.User;
-import com.localcart.entity.enums.OrderStatus;
 import com.localcart.exception.PaymentException;
-import com.localcart.repository.OrderRepository;
 import com.localcart.repository.ProductRepository;
 import com.localcart.repository.ReviewRepository;
 import com.localcart.repository.UserRepository;
+import com.localcart.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -31,7 +28,8 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final PurchaseHistoryService purchaseHistoryService;
+    private final VendorRepository vendorRepository;
 
     public ReviewDto createReview(Long userId, CreateReviewRequest request) {
         Product product = productRepository.findById(request.getProductId())
@@ -44,7 +42,7 @@ public class ReviewService {
             throw new PaymentException("You have already reviewed this product", "REVIEW_EXISTS");
         }
 
-        boolean verifiedPurchase = hasDeliveredPurchaseForProduct(userId, product.getId());
+        boolean verifiedPurchase = purchaseHistoryService.hasDeliveredPurchase(userId, product.getId());
         if (!verifiedPurchase) {
             throw new PaymentException("Only verified purchasers can review this product", "NOT_VERIFIED_PURCHASER");
         }
@@ -60,9 +58,14 @@ public class ReviewService {
                 .build();
 
         Review saved = reviewRepository.save(review);
-        refreshProductRating(product);
-
-        return toDto(saved);
+        applyRatingDelta(saved, 1);
+
+        ReviewDto dto = toDto(saved);
+        // The in-memory product predates the SQL increment, so re-read its aggregates for the response
+        productRepository.findRatingSummary(product.getId()).stream()
+                .findFirst()
+                .ifPresent(summary -> applyRatingSummary(dto, summary));
+        return dto;
     }
 
     @Transactional(readOnly = true)
@@ -85,9 +88,8 @@ public class ReviewService {
             throw new PaymentException("Not authorized to delete this review", "UNAUTHORIZED");
         }
 
-        Product product = review.getProduct();
         reviewRepository.delete(review);
-        refreshProductRating(product);
+        applyRatingDelta(review, -1);
     }
 
     public ReviewDto toDto(Review review) {
@@ -107,27 +109,45 @@ public class ReviewService {
                 .helpfulCount(0)
                 .isVerifiedPurchase(review.getIsVerifiedPurchase())
                 .isApproved(true)
+                .productRating(review.getProduct().getRating())
+                .productTotalReviews(review.getProduct().getTotalReviews())
+                .ratingHistogram(ratingHistogram(review.getProduct()))
                 .createdAt(review.getCreatedAt() != null ? review.getCreatedAt().toString() : null)
                 .updatedAt(review.getUpdatedAt() != null ? review.getUpdatedAt().toString() : null)
                 .build();
     }
 
-    private boolean hasDeliveredPurchaseForProduct(Long userId, Long productId) {
-        List<Order> userOrders = orderRepository.findByUserId(userId);
+    /**
+     * Add (+1) or remove (-1) one review from the stored product and vendor rating aggregates
+     */
+    private void applyRatingDelta(Review review, int countDelta) {
+        productRepository.applyRatingDelta(review.getProduct().getId(), review.getRating(), countDelta);
+        if (review.getVendor() != null) {
+            vendorRepository.applyRatingDelta(review.getVendor().getId(), review.getRating(), countDelta);
+        }
+    }
 
-        return userOrders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.DELIVERED)
-                .flatMap(order -> order.getItems().stream())
-                .map(OrderItem::getProduct)
-                .anyMatch(product -> product.getId().equals(productId));
+    private List<Integer> ratingHistogram(Product product) {
+        return List.of(
+                zeroIfNull(product.getRatingCount1()),
+                zeroIfNull(product.getRatingCount2()),
+                zeroIfNull(product.getRatingCount3()),
+                zeroIfNull(product.getRatingCount4()),
+                zeroIfNull(product.getRatingCount5()));
     }
 
-    private void refreshProductRating(Product product) {
-        Double average = reviewRepository.getAverageRatingForProduct(product.getId());
-        Long total = reviewRepository.countByProductId(product.getId());
+    private void applyRatingSummary(ReviewDto dto, Object[] summary) {
+        dto.setProductRating(((Number) summary[0]).doubleValue());
+        dto.setProductTotalReviews(((Number) summary[1]).intValue());
+        dto.setRatingHistogram(List.of(
+                ((Number) summary[2]).intValue(),
+                ((Number) summary[3]).intValue(),
+                ((Number) summary[4]).intValue(),
+                ((Number) summary[5]).intValue(),
+                ((Number) summary[6]).intValue()));
+    }
 
-        product.setRating(average != null ? average : 0.0);
-        product.setTotalReviews(total != null ? total.intValue() : 0);
-        productRepository.save(product);
+    private static int zeroIfNull(Integer value) {
+        return value != null ? value : 0;
     }
 }
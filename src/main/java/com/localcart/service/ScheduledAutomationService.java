@@ -1,88 +1,71 @@
 package com.localcart.service;
 
-import com.localcart.entity.Cart;
+import com.localcart.dto.cart.AbandonedCartSummary;
+import com.localcart.entity.JobCheckpoint;
 import com.localcart.entity.Order;
-import com.localcart.entity.Product;
-import com.localcart.entity.enums.OrderStatus;
 import com.localcart.repository.CartRepository;
+import com.localcart.repository.JobCheckpointRepository;
 import com.localcart.repository.OrderRepository;
 import com.localcart.repository.ProductRepository;
+import com.localcart.repository.VendorRepository;
+import com.localcart.service.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Scheduled Automation Service
- * Runs periodic tasks for business automation
+ * Runs periodic tasks for business automation.
+ * Jobs are @ClusterSingleton, so each run happens on one node only.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ScheduledAutomationService {
 
+    private static final String REVIEW_REQUEST_JOB = "review-request";
+
     private final ProductRepository productRepository;
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
     private final WebhookService webhookService;
-
-    @Value("${automation.low-stock.threshold:10}")
-    private int lowStockThreshold;
+    private final VendorRepository vendorRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Value("${automation.abandoned-cart.hours:24}")
     private long abandonedCartHours;
 
+    @Value("${automation.abandoned-cart.chunk-size:500}")
+    private int abandonedCartChunkSize;
+
     @Value("${automation.review-request.days:7}")
     private long reviewRequestDays;
 
+    @Value("${automation.review-request.chunk-size:500}")
+    private int reviewRequestChunkSize;
+
     @Value("${automation.enabled:true}")
     private boolean automationEnabled;
 
-    /**
-     * Check for low stock products
-     * Runs daily at 9 AM
-     */
-    @Scheduled(cron = "${automation.low-stock.cron:0 0 9 * * ?}")
-    @Transactional(readOnly = true)
-    public void checkLowStockProducts() {
-        if (!automationEnabled) {
-            log.debug("Automation disabled, skipping low stock check");
-            return;
-        }
-
-        log.info("Running low stock check (threshold: {})", lowStockThreshold);
-
-        try {
-            List<Product> lowStockProducts = productRepository.findByStockLessThan(lowStockThreshold);
-            
-            log.info("Found {} products with low stock", lowStockProducts.size());
-
-            for (Product product : lowStockProducts) {
-                if (product.getVendor() != null) {
-                    webhookService.triggerLowStockAlert(product);
-                }
-            }
-
-            if (!lowStockProducts.isEmpty()) {
-                log.info("Low stock alerts triggered for {} products", lowStockProducts.size());
-            }
-        } catch (Exception e) {
-            log.error("Error checking low stock products", e);
-        }
-    }
-
     /**
      * Check for abandoned carts
-     * Runs every 2 hours
+     * Runs every 2 hours. Walks stale carts in keyset chunks, each chunk in its own
+     * short transaction, and records reminder_sent_at so carts are reminded once per change.
      */
+    @ClusterSingleton
     @Scheduled(cron = "${automation.abandoned-cart.cron:0 0 */2 * * ?}")
-    @Transactional(readOnly = true)
     public void checkAbandonedCarts() {
         if (!automationEnabled) {
             log.debug("Automation disabled, skipping abandoned cart check");
@@ -91,53 +74,54 @@ public class ScheduledAutomationService {
 
         log.info("Running abandoned cart check (inactive for {} hours)", abandonedCartHours);
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(abandonedCartHours);
+        long afterId = 0L;
+        int reminded = 0;
+
         try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusHours(abandonedCartHours);
-            
-            // Find carts that haven't been updated in X hours and have items
-            List<Cart> abandonedCarts = cartRepository.findAbandonedCarts(cutoffTime);
-            
-            log.info("Found {} abandoned carts", abandonedCarts.size());
-
-            for (Cart cart : abandonedCarts) {
-                if (!cart.getItems().isEmpty()) {
-                    // Calculate cart total
-                    BigDecimal total = cart.getItems().stream()
-                        .map(item -> {
-                            BigDecimal price = item.getProduct().getDiscountPrice() != null 
-                                ? item.getProduct().getDiscountPrice() 
-                                : item.getProduct().getPrice();
-                            return price.multiply(BigDecimal.valueOf(item.getQuantity()));
-                        })
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    webhookService.triggerAbandonedCart(
-                        cart.getId(),
-                        cart.getUser().getEmail(),
-                        total,
-                        cart.getItems().size()
-                    );
-                    
-                    // Mark cart as reminded (if you have this field)
-                    // cart.setReminderSentAt(LocalDateTime.now());
-                    // cartRepository.save(cart);
+            while (true) {
+                final long chunkStart = afterId;
+                List<AbandonedCartSummary> chunk = transactionTemplate.execute(status -> {
+                    List<AbandonedCartSummary> carts = cartRepository.findAbandonedCartSummaries(
+                        chunkStart, cutoffTime, PageRequest.of(0, abandonedCartChunkSize));
+                    if (!carts.isEmpty()) {
+                        cartRepository.markReminderSent(carts.stream().map(AbandonedCartSummary::getCartId).toList());
+                    }
+                    return carts;
+                });
+
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
                 }
-            }
 
-            if (!abandonedCarts.isEmpty()) {
-                log.info("Abandoned cart reminders triggered for {} carts", abandonedCarts.size());
+                webhookService.triggerAbandonedCarts(chunk);
+                reminded += chunk.size();
+                afterId = chunk.get(chunk.size() - 1).getCartId();
+                meterRegistry.counter("automation.abandoned_carts.reminded").increment(chunk.size());
+                meterRegistry.counter("automation.abandoned_carts.chunks").increment();
+
+                if (chunk.size() < abandonedCartChunkSize) {
+                    break;
+                }
             }
+
+            log.info("Abandoned cart reminders triggered for {} carts", reminded);
         } catch (Exception e) {
-            log.error("Error checking abandoned carts", e);
+            log.error("Error checking abandoned carts after cart {}", afterId, e);
+        } finally {
+            sample.stop(meterRegistry.timer("automation.abandoned_carts.run"));
         }
     }
 
     /**
      * Send review requests for delivered orders
-     * Runs daily at 10 AM
+     * Runs daily at 10 AM. Only orders whose delivery became old enough since the
+     * last run are scanned (checkpointed watermark), in bounded chunks; each order
+     * is stamped with review_requested_at so a retried window never re-sends.
      */
+    @ClusterSingleton
     @Scheduled(cron = "${automation.review-request.cron:0 0 10 * * ?}")
-    @Transactional(readOnly = true)
     public void sendReviewRequests() {
         if (!automationEnabled) {
             log.debug("Automation disabled, skipping review request check");
@@ -147,24 +131,49 @@ public class ScheduledAutomationService {
         log.info("Running review request check (delivered {} days ago)", reviewRequestDays);
 
         try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(reviewRequestDays);
-            
-            // Find delivered orders from X days ago that don't have reviews
-            List<Order> ordersNeedingReview = orderRepository.findDeliveredOrdersNeedingReview(cutoffTime);
-            
-            log.info("Found {} orders needing review requests", ordersNeedingReview.size());
-
-            for (Order order : ordersNeedingReview) {
-                webhookService.triggerReviewRequest(order);
-                
-                // Mark as review requested (if you have this field)
-                // order.setReviewRequestedAt(LocalDateTime.now());
-                // orderRepository.save(order);
+            LocalDateTime to = LocalDateTime.now().minusDays(reviewRequestDays);
+            JobCheckpoint checkpoint = jobCheckpointRepository.findByJobName(REVIEW_REQUEST_JOB)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(REVIEW_REQUEST_JOB).build());
+            // First run only looks back one day instead of the whole order history
+            LocalDateTime from = checkpoint.getWatermark() != null ? checkpoint.getWatermark() : to.minusDays(1);
+
+            if (!from.isBefore(to)) {
+                log.debug("Review request window is empty, nothing to do");
+                return;
             }
 
-            if (!ordersNeedingReview.isEmpty()) {
-                log.info("Review requests triggered for {} orders", ordersNeedingReview.size());
+            long afterId = 0L;
+            int requested = 0;
+            while (true) {
+                final long chunkStart = afterId;
+                List<Order> chunk = transactionTemplate.execute(status -> {
+                    List<Order> orders = orderRepository.findOrdersAwaitingReviewRequest(
+                        from, to, chunkStart, PageRequest.of(0, reviewRequestChunkSize));
+                    if (!orders.isEmpty()) {
+                        orderRepository.markReviewRequested(
+                            orders.stream().map(Order::getId).toList(), LocalDateTime.now());
+                    }
+                    return orders;
+                });
+
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+
+                webhookService.triggerReviewRequests(chunk);
+                requested += chunk.size();
+                afterId = chunk.get(chunk.size() - 1).getId();
+
+                if (chunk.size() < reviewRequestChunkSize) {
+                    break;
+                }
             }
+
+            checkpoint.setWatermark(to);
+            checkpoint.setLastId(afterId);
+            transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(checkpoint));
+
+            log.info("Review requests triggered for {} orders delivered between {} and {}", requested, from, to);
         } catch (Exception e) {
             log.error("Error sending review requests", e);
         }
@@ -174,6 +183,7 @@ public class ScheduledAutomationService {
      * Daily analytics summary
      * Runs daily at 8 AM
      */
+    @ClusterSingleton
     @Scheduled(cron = "${automation.daily-report.cron:0 0 8 * * ?}")
     @Transactional(readOnly = true)
     public void generateDailyReport() {
@@ -200,4 +210,30 @@ public class ScheduledAutomationService {
             log.error("Error generating daily report", e);
         }
     }
+
+    /**
+     * Reconcile stored rating aggregates against the reviews table
+     * Runs daily at 3:30 AM; only rows that drifted are rewritten
+     */
+    @ClusterSingleton
+    @Scheduled(cron = "${automation.rating-reconcile.cron:0 30 3 * * ?}")
+    @Transactional
+    public void reconcileRatingAggregates() {
+        if (!automationEnabled) {
+            log.debug("Automation disabled, skipping rating reconciliation");
+            return;
+        }
+
+        try {
+            int products = productRepository.reconcileRatingAggregates();
+            int vendors = vendorRepository.reconcileRatingAggregates();
+            if (products > 0 || vendors > 0) {
+                log.warn("Rating aggregates drifted and were corrected: {} products, {} vendors", products, vendors);
+            } else {
+                log.info("Rating aggregates reconciled, no drift found");
+            }
+        } catch (Exception e) {
+            log.error("Error reconciling rating aggregates", e);
+        }
+    }
 }
@@ -1,7 +1,7 @@
 package com.localcart.service;
 
+import com.localcart.dto.cart.AbandonedCartSummary;
 import com.localcart.entity.Order;
-import com.localcart.entity.Product;
 import com.localcart.entity.Vendor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +15,9 @@ import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -150,32 +152,40 @@ public class WebhookService {
     }
 
     /**
-     * Trigger for low stock alerts
-     * Used for: inventory notifications to vendors
+     * Trigger a per-vendor digest of stock threshold crossings
+     * Used for: coalesced low-stock / out-of-stock notifications to vendors
      */
     @Async
-    public void triggerLowStockAlert(Product product) {
+    public void triggerLowStockDigest(Long vendorId, String vendorEmail, String vendorName,
+                                      List<LowStockAlertService.StockAlert> alerts) {
         if (!webhookEnabled) return;
 
         try {
+            List<Map<String, Object>> products = new ArrayList<>();
+            for (LowStockAlertService.StockAlert alert : alerts) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("productId", alert.productId());
+                item.put("productName", alert.productName());
+                item.put("sku", alert.sku());
+                item.put("currentStock", alert.stock());
+                item.put("threshold", alert.threshold());
+                item.put("alertType", alert.type().name());
+                item.put("detectedAt", alert.detectedAt());
+                products.add(item);
+            }
+
             Map<String, Object> payload = new HashMap<>();
-            payload.put("event", "product.low_stock");
+            payload.put("event", "product.low_stock_digest");
             payload.put("timestamp", LocalDateTime.now());
-            payload.put("productId", product.getId());
-            payload.put("productName", product.getName());
-            payload.put("currentStock", product.getStock());
-            payload.put("sku", product.getSku());
-            
-            if (product.getVendor() != null) {
-                payload.put("vendorId", product.getVendor().getId());
-                payload.put("vendorEmail", product.getVendor().getBusinessEmail());
-                payload.put("vendorName", product.getVendor().getBusinessName());
-            }
+            payload.put("vendorId", vendorId);
+            payload.put("vendorEmail", vendorEmail);
+            payload.put("vendorName", vendorName);
+            payload.put("products", products);
 
             sendWebhook("/low-stock-alert", payload);
-            log.info("Triggered product.low_stock webhook for product: {}", product.getName());
+            log.info("Triggered product.low_stock_digest webhook for vendor {} ({} products)", vendorId, alerts.size());
         } catch (Exception e) {
-            log.error("Failed to trigger product.low_stock webhook", e);
+            log.error("Failed to trigger product.low_stock_digest webhook", e);
         }
     }
 
@@ -187,6 +197,23 @@ public class WebhookService {
     public void triggerAbandonedCart(Long cartId, String userEmail, BigDecimal cartTotal, int itemCount) {
         if (!webhookEnabled) return;
 
+        sendAbandonedCart(cartId, userEmail, cartTotal, itemCount);
+    }
+
+    /**
+     * Trigger abandoned cart recovery for a whole chunk of carts from one async task
+     */
+    @Async
+    public void triggerAbandonedCarts(List<AbandonedCartSummary> carts) {
+        if (!webhookEnabled) return;
+
+        for (AbandonedCartSummary cart : carts) {
+            sendAbandonedCart(cart.getCartId(), cart.getUserEmail(), cart.getCartTotal(), cart.getItemCount().intValue());
+        }
+        log.info("Triggered cart.abandoned webhooks for {} carts", carts.size());
+    }
+
+    private void sendAbandonedCart(Long cartId, String userEmail, BigDecimal cartTotal, int itemCount) {
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("event", "cart.abandoned");
@@ -197,7 +224,7 @@ public class WebhookService {
             payload.put("itemCount", itemCount);
 
             sendWebhook("/abandoned-cart", payload);
-            log.info("Triggered cart.abandoned webhook for user: {}", userEmail);
+            log.debug("Triggered cart.abandoned webhook for cart: {}", cartId);
         } catch (Exception e) {
             log.error("Failed to trigger cart.abandoned webhook", e);
         }
@@ -211,6 +238,24 @@ public class WebhookService {
     public void triggerReviewRequest(Order order) {
         if (!webhookEnabled) return;
 
+        sendReviewRequest(order);
+    }
+
+    /**
+     * Trigger review requests for a whole chunk of orders from one async task
+     * Orders must have their user loaded
+     */
+    @Async
+    public void triggerReviewRequests(List<Order> orders) {
+        if (!webhookEnabled) return;
+
+        for (Order order : orders) {
+            sendReviewRequest(order);
+        }
+        log.info("Triggered review.request webhooks for {} orders", orders.size());
+    }
+
+    private void sendReviewRequest(Order order) {
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("event", "review.request");
@@ -221,7 +266,7 @@ public class WebhookService {
             payload.put("customerName", order.getUser().getFirstName() + " " + order.getUser().getLastName());
 
             sendWebhook("/review-request", payload);
-            log.info("Triggered review.request webhook for order: {}", order.getOrderNumber());
+            log.debug("Triggered review.request webhook for order: {}", order.getOrderNumber());
         } catch (Exception e) {
             log.error("Failed to trigger review.request webhook", e);
         }
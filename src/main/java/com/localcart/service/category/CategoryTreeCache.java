@@ -0,0 +1,155 @@
+package com.localcart.service.category;
+
+import com.localcart.dto.category.CategoryDto;
+import com.localcart.entity.Category;
+import com.localcart.repository.CategoryRepository;
+import com.localcart.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category Tree Cache
+ *
+ * Serves category navigation from an immutable {@link CategoryTreeSnapshot}.
+ * The snapshot is rebuilt from two queries (active categories + one GROUP BY
+ * for product counts) and published with a single volatile write, so readers
+ * never see a half-built tree and never touch the database.
+ *
+ * Rebuilt after category writes commit, and periodically to pick up product count changes.
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readTransaction;
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository,
+                             ProductRepository productRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Current snapshot, built on first use
+     */
+    public CategoryTreeSnapshot get() {
+        CategoryTreeSnapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Periodic rebuild so product counts follow product changes
+     */
+    @Scheduled(fixedDelayString = "${category.cache.refresh-interval-ms:300000}",
+               initialDelayString = "${category.cache.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Category tree refresh failed, keeping previous snapshot", e);
+        }
+    }
+
+    /**
+     * Rebuild once the surrounding transaction commits (immediately if there is none)
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Build a new snapshot and swap it in
+     */
+    public synchronized CategoryTreeSnapshot refresh() {
+        CategoryTreeSnapshot built = readTransaction.execute(status -> build());
+        snapshot = built;
+        log.debug("Category tree snapshot rebuilt: {} categories", built.categories().size());
+        return built;
+    }
+
+    private CategoryTreeSnapshot build() {
+        List<Category> categories = categoryRepository.findAllActiveOrdered();
+
+        Map<Long, Integer> productCounts = new HashMap<>();
+        for (Object[] row : productRepository.countProductsByCategory()) {
+            productCounts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<Long, String> namesById = new HashMap<>();
+        for (Category category : categories) {
+            namesById.put(category.getId(), category.getName());
+        }
+
+        List<CategoryDto> all = new ArrayList<>(categories.size());
+        List<CategoryDto> roots = new ArrayList<>();
+        Map<Long, CategoryDto> byId = new HashMap<>();
+        Map<String, CategoryDto> bySlug = new HashMap<>();
+        Map<Long, List<CategoryDto>> children = new HashMap<>();
+
+        for (Category category : categories) {
+            // getId() on the lazy parent proxy does not initialize it
+            Long parentId = category.getParent() != null ? category.getParent().getId() : null;
+            CategoryDto dto = CategoryDto.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .slug(category.getSlug())
+                    .description(category.getDescription())
+                    .imageUrl(null)
+                    .parentCategoryId(parentId)
+                    .parentCategoryName(parentId != null ? namesById.get(parentId) : null)
+                    .productCount(productCounts.getOrDefault(category.getId(), 0))
+                    .isActive(!category.isDeleted())
+                    .createdAt(category.getCreatedAt() != null ? category.getCreatedAt().toString() : null)
+                    .updatedAt(category.getUpdatedAt() != null ? category.getUpdatedAt().toString() : null)
+                    .build();
+
+            all.add(dto);
+            byId.put(dto.getId(), dto);
+            bySlug.put(dto.getSlug(), dto);
+            if (parentId == null) {
+                roots.add(dto);
+            } else {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(dto);
+            }
+        }
+
+        Map<Long, List<CategoryDto>> frozenChildren = new HashMap<>();
+        children.forEach((parentId, list) -> frozenChildren.put(parentId, List.copyOf(list)));
+
+        return new CategoryTreeSnapshot(
+                List.copyOf(all),
+                List.copyOf(roots),
+                Map.copyOf(byId),
+                Map.copyOf(bySlug),
+                Map.copyOf(frozenChildren),
+                Map.copyOf(productCounts));
+    }
+}
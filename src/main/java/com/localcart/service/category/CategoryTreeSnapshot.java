@@ -0,0 +1,27 @@
+package com.localcart.service.category;
+
+import com.localcart.dto.category.CategoryDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the active category tree at a point in time.
+ * Built by {@link CategoryTreeCache} and replaced as a whole, never mutated.
+ */
+public record CategoryTreeSnapshot(
+        List<CategoryDto> categories,
+        List<CategoryDto> roots,
+        Map<Long, CategoryDto> byId,
+        Map<String, CategoryDto> bySlug,
+        Map<Long, List<CategoryDto>> children,
+        Map<Long, Integer> productCounts) {
+
+    public List<CategoryDto> childrenOf(Long parentId) {
+        return children.getOrDefault(parentId, List.of());
+    }
+
+    public int productCount(Long categoryId) {
+        return productCounts.getOrDefault(categoryId, 0);
+    }
+}
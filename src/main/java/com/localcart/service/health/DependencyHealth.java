@@ -0,0 +1,50 @@
+package com.localcart.service.health;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of the latest probe of one dependency, with its recent latency history
+ */
+public record DependencyHealth(
+        String name,
+        Status status,
+        boolean critical,
+        Instant checkedAt,
+        long latencyMs,
+        String error,
+        int consecutiveFailures,
+        LatencyStats history) {
+
+    public enum Status {
+        UP, DOWN, UNKNOWN
+    }
+
+    public static DependencyHealth unknown(String name, boolean critical) {
+        return new DependencyHealth(name, Status.UNKNOWN, critical, null, 0, null, 0, LatencyStats.EMPTY);
+    }
+
+    public boolean isUp() {
+        return status == Status.UP;
+    }
+
+    /**
+     * True when the probe has not reported for longer than maxAgeMs (stuck or not yet run)
+     */
+    public boolean isStale(Instant now, long maxAgeMs) {
+        return checkedAt == null || checkedAt.plusMillis(maxAgeMs).isBefore(now);
+    }
+
+    /**
+     * Summary of the last N probes (latencies in ms, oldest sample first)
+     */
+    public record LatencyStats(int samples, double successRate, long avgMs, long p50Ms, long p95Ms, long maxMs,
+                               List<Long> recentMs) {
+
+        public static final LatencyStats EMPTY = new LatencyStats(0, 0, 0, 0, 0, 0, List.of());
+
+        public LatencyStats {
+            recentMs = List.copyOf(recentMs);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.localcart.service.health;
+
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dependency Health Prober
+ *
+ * Checks payment gateways, the database, Redis, SMTP and n8n in the background, each on
+ * its own schedule (health.probe.<name>.interval-ms) and with its own deadline
+ * (health.probe.<name>.timeout-ms), and publishes the results as one immutable
+ * HealthSnapshot. Health endpoints and actuator indicators read that snapshot, so a
+ * load balancer probing every few seconds never reaches the dependencies itself.
+ *
+ * Checks run on their own threads and are abandoned at their deadline; a check still
+ * running when its next turn comes is reported DOWN instead of being started again,
+ * so a hung dependency cannot pile up probe threads. The last
+ * health.probe.history-size latencies are kept per dependency.
+ */
+@Slf4j
+@Component
+public class DependencyHealthProber {
+
+    public static final String DB = "db";
+    public static final String REDIS = "redis";
+    public static final String SMTP = "smtp";
+    public static final String N8N = "n8n";
+    private static final String GATEWAY_PREFIX = "gateway:";
+
+    private final PaymentGatewayFactory gatewayFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<RedisConnectionFactory> redisConnectionFactory;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService checks;
+    private final List<Probe> probes = new ArrayList<>();
+    private final Object publishLock = new Object();
+    private volatile HealthSnapshot snapshot = HealthSnapshot.EMPTY;
+
+    public DependencyHealthProber(PaymentGatewayFactory gatewayFactory,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                  ObjectProvider<JavaMailSender> mailSender,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment) {
+        this.gatewayFactory = gatewayFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Unbounded only in theory: each probe runs at most one check at a time
+        this.checks = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!environment.getProperty("health.probe.enabled", Boolean.class, true)) {
+            return;
+        }
+
+        register(DB, true, () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class) != null);
+
+        RedisConnectionFactory redis = redisConnectionFactory.getIfAvailable();
+        if (redis != null && enabled(REDIS, true)) {
+            register(REDIS, false, () -> {
+                try (RedisConnection connection = redis.getConnection()) {
+                    return "PONG".equalsIgnoreCase(connection.ping());
+                }
+            });
+        }
+
+        if (mailSender.getIfAvailable() instanceof JavaMailSenderImpl smtp && enabled(SMTP, false)) {
+            register(SMTP, false, () -> {
+                smtp.testConnection();
+                return true;
+            });
+        }
+
+        if (enabled(N8N, environment.getProperty("n8n.webhook.enabled", Boolean.class, false))) {
+            URI url = URI.create(environment.getProperty("health.probe.n8n.url", "http://n8n:5678/healthz"));
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeoutMs(N8N))).build();
+            register(N8N, false, () -> {
+                HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofMillis(timeoutMs(N8N))).GET().build();
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                return status >= 200 && status < 300;
+            });
+        }
+
+        for (PaymentProvider provider : gatewayFactory.getAvailableProviders()) {
+            register(gatewayName(provider), true, () -> gatewayFactory.getGateway(provider).isHealthy());
+        }
+
+        log.info("Health probes started for {}", probes.stream().map(Probe::name).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        checks.shutdownNow();
+    }
+
+    /**
+     * Latest results; O(1), never touches a dependency
+     */
+    public HealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public static String gatewayName(PaymentProvider provider) {
+        return GATEWAY_PREFIX + provider.getValue();
+    }
+
+    public static boolean isGateway(String name) {
+        return name.startsWith(GATEWAY_PREFIX);
+    }
+
+    /**
+     * Cached gateway health; checks live only until the first probe has reported
+     */
+    public boolean isGatewayHealthy(PaymentProvider provider) {
+        DependencyHealth health = snapshot.get(gatewayName(provider));
+        if (health == null || health.status() == DependencyHealth.Status.UNKNOWN) {
+            return gatewayFactory.getGateway(provider).isHealthy();
+        }
+        return health.isUp();
+    }
+
+    /**
+     * Age after which a dependency's result no longer counts (three missed probes)
+     */
+    public long maxAgeMs(String name) {
+        return intervalMs(name) * 3 + timeoutMs(name);
+    }
+
+    private void register(String name, boolean critical, Callable<Boolean> check) {
+        Probe probe = new Probe(name, critical, check, new LatencyHistory(
+                environment.getProperty("health.probe.history-size", Integer.class, 60)));
+        probes.add(probe);
+        publish(DependencyHealth.unknown(name, critical));
+
+        Gauge.builder("health.dependency.status", this, prober -> {
+                    DependencyHealth health = prober.snapshot.get(name);
+                    return health == null || health.status() == DependencyHealth.Status.UNKNOWN ? -1
+                            : health.isUp() ? 1 : 0;
+                })
+                .description("1 = up, 0 = down, -1 = unknown")
+                .tag("dependency", name)
+                .register(meterRegistry);
+
+        long intervalMs = intervalMs(name);
+        scheduler.scheduleWithFixedDelay(() -> run(probe), 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts one check without waiting for it; the deadline is enforced on the future,
+     * so a slow dependency never delays the other probes
+     */
+    private void run(Probe probe) {
+        long timeoutMs = timeoutMs(probe.name());
+        if (!probe.inFlight().compareAndSet(false, true)) {
+            record(probe, false, timeoutMs, "Previous probe still running");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return probe.check().call();
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        } finally {
+                            probe.inFlight().set(false);
+                        }
+                    }, checks)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .whenComplete((up, error) -> {
+                        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        if (cause == null) {
+                            boolean healthy = Boolean.TRUE.equals(up);
+                            record(probe, healthy, latencyMs, healthy ? null : "Reported unhealthy");
+                        } else if (cause instanceof TimeoutException) {
+                            record(probe, false, latencyMs, "No answer within " + timeoutMs + " ms");
+                        } else {
+                            record(probe, false, latencyMs, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            probe.inFlight().set(false);
+        }
+    }
+
+    private void record(Probe probe, boolean up, long latencyMs, String error) {
+        DependencyHealth previous = snapshot.get(probe.name());
+        int failures = up ? 0 : (previous != null ? previous.consecutiveFailures() : 0) + 1;
+        DependencyHealth health = new DependencyHealth(probe.name(), up ? DependencyHealth.Status.UP : DependencyHealth.Status.DOWN,
+                probe.critical(), Instant.now(), latencyMs, error, failures, probe.history().add(latencyMs, up));
+        publish(health);
+
+        meterRegistry.timer("health.probe", "dependency", probe.name(), "outcome", up ? "up" : "down")
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+        if (previous != null && previous.status() != health.status() && previous.status() != DependencyHealth.Status.UNKNOWN) {
+            log.warn("Dependency {} is now {}{}", probe.name(), health.status(), error != null ? " (" + error + ")" : "");
+        }
+    }
+
+    private void publish(DependencyHealth health) {
+        synchronized (publishLock) {
+            snapshot = snapshot.with(health);
+        }
+    }
+
+    private boolean enabled(String name, boolean defaultValue) {
+        return environment.getProperty("health.probe." + name + ".enabled", Boolean.class, defaultValue);
+    }
+
+    private long intervalMs(String name) {
+        return property(name, "interval-ms", 10_000L);
+    }
+
+    private long timeoutMs(String name) {
+        return property(name, "timeout-ms", 2_000L);
+    }
+
+    // health.probe.<name>.<key>, then health.probe.gateway.<key> for gateways, then health.probe.<key>
+    private long property(String name, String key, long defaultValue) {
+        long shared = environment.getProperty("health.probe." + key, Long.class, defaultValue);
+        if (isGateway(name)) {
+            shared = environment.getProperty("health.probe.gateway." + key, Long.class, shared);
+        }
+        return environment.getProperty("health.probe." + name.replace(':', '.') + "." + key, Long.class, shared);
+    }
+
+    private record Probe(String name, boolean critical, Callable<Boolean> check, LatencyHistory history,
+                         AtomicBoolean inFlight) {
+
+        Probe(String name, boolean critical, Callable<Boolean> check, LatencyHistory history) {
+            this(name, critical, check, history, new AtomicBoolean());
+        }
+    }
+
+    /**
+     * Ring buffer of the last N probe latencies and outcomes
+     */
+    static final class LatencyHistory {
+
+        private final long[] latencies;
+        private final boolean[] successes;
+        private int next;
+        private int size;
+
+        LatencyHistory(int capacity) {
+            this.latencies = new long[Math.max(1, capacity)];
+            this.successes = new boolean[latencies.length];
+        }
+
+        synchronized DependencyHealth.LatencyStats add(long latencyMs, boolean success) {
+            latencies[next] = latencyMs;
+            successes[next] = success;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+
+            List<Long> recent = new ArrayList<>(size);
+            long[] sorted = new long[size];
+            long total = 0;
+            int ok = 0;
+            for (int i = 0; i < size; i++) {
+                int index = (next - size + i + latencies.length) % latencies.length;
+                recent.add(latencies[index]);
+                sorted[i] = latencies[index];
+                total += latencies[index];
+                if (successes[index]) {
+                    ok++;
+                }
+            }
+            Arrays.sort(sorted);
+            return new DependencyHealth.LatencyStats(size, (double) ok / size, total / size,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), sorted[size - 1], recent);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.localcart.service.health;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of every probed dependency, replaced as a whole after each probe
+ */
+public record HealthSnapshot(Instant generatedAt, Map<String, DependencyHealth> dependencies) {
+
+    public static final HealthSnapshot EMPTY = new HealthSnapshot(Instant.EPOCH, Map.of());
+
+    public HealthSnapshot {
+        dependencies = Map.copyOf(dependencies);
+    }
+
+    public DependencyHealth get(String name) {
+        return dependencies.get(name);
+    }
+
+    /**
+     * Copy with one dependency's result replaced
+     */
+    HealthSnapshot with(DependencyHealth health) {
+        Map<String, DependencyHealth> updated = new LinkedHashMap<>(dependencies);
+        updated.put(health.name(), health);
+        return new HealthSnapshot(health.checkedAt() != null ? health.checkedAt() : Instant.now(), updated);
+    }
+}
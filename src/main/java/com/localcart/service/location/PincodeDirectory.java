@@ -0,0 +1,324 @@
+package com.localcart.service.location;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Pincode Directory
+ *
+ * Read-only pincode -> (latitude, longitude, district, state) lookup used for
+ * proximity sorting, address geocoding and distance-based shipping fees.
+ *
+ * The source CSV is compiled at startup into a sorted file of fixed-width
+ * 16 byte records which is then memory-mapped, so the data lives in the page
+ * cache rather than on the heap and lookups are a binary search over the
+ * mapped buffer. District and state names are interned into small tables and
+ * referenced by index from each record.
+ *
+ * Record layout (little endian):
+ * int pincode | float latitude | float longitude | short district | short state
+ */
+@Slf4j
+@Component
+public class PincodeDirectory {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int RECORD_SIZE = 16;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${location.pincode.source:classpath:pincodes/pincode-directory.csv}")
+    private String source;
+
+    @Value("${location.pincode.directory-file:${java.io.tmpdir}/localcart/pincode-directory.bin}")
+    private String directoryFile;
+
+    private volatile MappedByteBuffer records;
+    private volatile int size;
+    private volatile String[] districts = new String[0];
+    private volatile String[] states = new String[0];
+
+    public PincodeDirectory(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            Resource resource = resourceLoader.getResource(source);
+            if (!resource.exists()) {
+                log.warn("Pincode source {} not found, distance lookups disabled", source);
+                return;
+            }
+
+            List<String> districtTable = new ArrayList<>();
+            List<String> stateTable = new ArrayList<>();
+            long[][] rows = parse(resource, districtTable, stateTable);
+
+            Path target = Paths.get(directoryFile);
+            writeDirectory(target, rows);
+
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                this.districts = districtTable.toArray(String[]::new);
+                this.states = stateTable.toArray(String[]::new);
+                this.records = mapped;
+                this.size = rows.length;
+            }
+            log.info("Pincode directory loaded: {} pincodes mapped from {}", size, target);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load pincode directory from {}: {}", source, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        this.size = 0;
+        this.records = null;
+    }
+
+    /**
+     * Number of pincodes in the directory
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Record index for a pincode, or {@link #NOT_FOUND}
+     */
+    public int indexOf(int pincode) {
+        MappedByteBuffer buffer = records;
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = buffer.getInt(mid * RECORD_SIZE);
+            if (value < pincode) {
+                low = mid + 1;
+            } else if (value > pincode) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Record index for a pincode string (spaces and separators ignored), or {@link #NOT_FOUND}
+     */
+    public int indexOf(CharSequence pincode) {
+        int parsed = parsePincode(pincode);
+        return parsed < 0 ? NOT_FOUND : indexOf(parsed);
+    }
+
+    public boolean contains(CharSequence pincode) {
+        return indexOf(pincode) != NOT_FOUND;
+    }
+
+    public double latitude(int index) {
+        return records.getFloat(index * RECORD_SIZE + 4);
+    }
+
+    public double longitude(int index) {
+        return records.getFloat(index * RECORD_SIZE + 8);
+    }
+
+    public String district(int index) {
+        return districts[records.getShort(index * RECORD_SIZE + 12)];
+    }
+
+    public String state(int index) {
+        return states[records.getShort(index * RECORD_SIZE + 14)];
+    }
+
+    /**
+     * Great-circle distance in km between two pincodes, or NaN if either is unknown
+     */
+    public double distanceKm(CharSequence fromPincode, CharSequence toPincode) {
+        int from = indexOf(fromPincode);
+        if (from == NOT_FOUND) {
+            return Double.NaN;
+        }
+        int to = indexOf(toPincode);
+        if (to == NOT_FOUND) {
+            return Double.NaN;
+        }
+        return distanceKm(from, to);
+    }
+
+    /**
+     * Great-circle distance in km between two record indexes
+     */
+    public double distanceKm(int fromIndex, int toIndex) {
+        return haversineKm(latitude(fromIndex), longitude(fromIndex), latitude(toIndex), longitude(toIndex));
+    }
+
+    /**
+     * Full lookup for callers that need all fields at once
+     */
+    public Optional<PincodeLocation> lookup(String pincode) {
+        if (pincode == null) {
+            return Optional.empty();
+        }
+        int index = indexOf(pincode);
+        if (index == NOT_FOUND) {
+            return Optional.empty();
+        }
+        return Optional.of(new PincodeLocation(
+                records.getInt(index * RECORD_SIZE),
+                latitude(index),
+                longitude(index),
+                district(index),
+                state(index)));
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Parse a pincode without allocating; returns -1 when it has no digits or is too long
+     */
+    static int parsePincode(CharSequence pincode) {
+        if (pincode == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < pincode.length(); i++) {
+            char c = pincode.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 9) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private long[][] parse(Resource resource, List<String> districtTable, List<String> stateTable) throws IOException {
+        Map<String, Integer> districtIds = new HashMap<>();
+        Map<String, Integer> stateIds = new HashMap<>();
+        List<long[]> rows = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("pincode")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                if (columns.length < 5) {
+                    log.warn("Skipping malformed pincode row {}: {}", lineNumber, line);
+                    continue;
+                }
+                try {
+                    int pincode = parsePincode(columns[0]);
+                    float latitude = Float.parseFloat(columns[3].trim());
+                    float longitude = Float.parseFloat(columns[4].trim());
+                    if (pincode < 0) {
+                        throw new NumberFormatException(columns[0]);
+                    }
+                    int district = intern(columns[1].trim(), districtIds, districtTable);
+                    int state = intern(columns[2].trim(), stateIds, stateTable);
+                    rows.add(new long[] {pincode, Float.floatToRawIntBits(latitude),
+                            Float.floatToRawIntBits(longitude), district, state});
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping invalid pincode row {}: {}", lineNumber, line);
+                }
+            }
+        }
+
+        long[][] sorted = rows.toArray(long[][]::new);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+
+        // Keep the first occurrence of duplicate pincodes (post offices sharing a pincode)
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || sorted[unique - 1][0] != sorted[i][0]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> table) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            if (table.size() >= Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct names in pincode directory");
+            }
+            id = table.size();
+            ids.put(value, id);
+            table.add(value);
+        }
+        return id;
+    }
+
+    private static void writeDirectory(Path target, long[][] rows) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, "pincodes", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp));
+             DataOutputStream data = new DataOutputStream(out)) {
+            for (long[] row : rows) {
+                data.writeInt(Integer.reverseBytes((int) row[0]));
+                data.writeInt(Integer.reverseBytes((int) row[1]));
+                data.writeInt(Integer.reverseBytes((int) row[2]));
+                data.writeShort(Short.reverseBytes((short) row[3]));
+                data.writeShort(Short.reverseBytes((short) row[4]));
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Resolved pincode entry
+     */
+    public record PincodeLocation(int pincode, double latitude, double longitude, String district, String state) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.localcart.service.media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Pure-Java (ImageIO / Java2D) decoding, downscaling and encoding for image variants
+ */
+final class ImageResizer {
+
+    private static final int EXIF_SCAN_BYTES = 128 * 1024;
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Decodes an image, rejecting anything over maxPixels before allocating it. Large
+     * photos are subsampled while decoding, down to about twice the largest edge needed,
+     * so a 12 MP upload is never fully materialized just to make a 1200px variant.
+     */
+    static BufferedImage decode(Path file, long maxPixels, int largestEdgeNeeded) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                throw new IOException("Cannot open image " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image too large: " + width + "x" + height);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int period = Math.max(width, height) / (2 * Math.max(1, largestEdgeNeeded));
+                if (period >= 2) {
+                    param.setSourceSubsampling(period, period, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Size that fits within maxEdge on the longest side, keeping the aspect ratio; never upscales
+     */
+    static int[] fit(int width, int height, int maxEdge) {
+        int longest = Math.max(width, height);
+        if (longest <= maxEdge) {
+            return new int[]{width, height};
+        }
+        double scale = (double) maxEdge / longest;
+        return new int[]{
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+
+    /**
+     * Downscales in halving steps with bilinear filtering (close to area averaging at a
+     * fraction of the cost), converting to RGB, or ARGB when alpha must be kept
+     */
+    static BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        do {
+            width = width / 2 >= targetWidth ? width / 2 : targetWidth;
+            height = height / 2 >= targetHeight ? height / 2 : targetHeight;
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    /**
+     * EXIF orientation (1-8) of a JPEG file, 1 when absent or not a JPEG
+     */
+    static int readOrientation(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return readOrientation(in.readNBytes(EXIF_SCAN_BYTES));
+        }
+    }
+
+    static int readOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+
+        int pos = 2;
+        while (pos + 4 <= data.length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                // Start of scan / end of image: no metadata after this point
+                return 1;
+            }
+
+            int length = readUnsignedShort(data, pos + 2, false);
+            if (length < 2) {
+                return 1;
+            }
+            int segmentStart = pos + 4;
+            int segmentEnd = pos + 2 + length;
+            if (marker == 0xE1 && segmentEnd <= data.length && length >= 8 && isExifHeader(data, segmentStart)) {
+                return readTiffOrientation(data, segmentStart + 6, segmentEnd);
+            }
+            pos = segmentEnd;
+        }
+        return 1;
+    }
+
+    /**
+     * Applies an EXIF orientation so the variant displays upright without relying on the client
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        int targetWidth = swap ? height : width;
+        int targetHeight = swap ? width : height;
+
+        int[] source = image.getRGB(0, 0, width, height, null, 0, width);
+        int[] target = new int[source.length];
+        for (int y = 0; y < targetHeight; y++) {
+            for (int x = 0; x < targetWidth; x++) {
+                int sx;
+                int sy;
+                switch (orientation) {
+                    case 2 -> { sx = width - 1 - x; sy = y; }
+                    case 3 -> { sx = width - 1 - x; sy = height - 1 - y; }
+                    case 4 -> { sx = x; sy = height - 1 - y; }
+                    case 5 -> { sx = y; sy = x; }
+                    case 6 -> { sx = y; sy = height - 1 - x; }
+                    case 7 -> { sx = width - 1 - y; sy = height - 1 - x; }
+                    default -> { sx = width - 1 - y; sy = x; }
+                }
+                target[y * targetWidth + x] = source[sy * width + sx];
+            }
+        }
+
+        BufferedImage oriented = new BufferedImage(targetWidth, targetHeight, image.getType());
+        oriented.setRGB(0, 0, targetWidth, targetHeight, target, 0, targetWidth);
+        return oriented;
+    }
+
+    static void writeJpeg(BufferedImage image, float quality, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG encoder available");
+        }
+
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    static void writePng(BufferedImage image, Path target) throws IOException {
+        if (!ImageIO.write(image, "png", target.toFile())) {
+            throw new IOException("No PNG encoder available");
+        }
+    }
+
+    private static boolean isExifHeader(byte[] data, int pos) {
+        return data[pos] == 'E' && data[pos + 1] == 'x' && data[pos + 2] == 'i' && data[pos + 3] == 'f'
+                && data[pos + 4] == 0 && data[pos + 5] == 0;
+    }
+
+    private static int readTiffOrientation(byte[] data, int tiffStart, int end) {
+        if (tiffStart + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian;
+        if (data[tiffStart] == 'I' && data[tiffStart + 1] == 'I') {
+            littleEndian = true;
+        } else if (data[tiffStart] == 'M' && data[tiffStart + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return 1;
+        }
+
+        long ifdOffset = readUnsignedInt(data, tiffStart + 4, littleEndian);
+        if (ifdOffset < 8 || ifdOffset > end - tiffStart - 2) {
+            return 1;
+        }
+        int ifd = tiffStart + (int) ifdOffset;
+        int entries = readUnsignedShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readUnsignedShort(data, entry, littleEndian) == 0x0112) {
+                int value = readUnsignedShort(data, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readUnsignedShort(byte[] data, int pos, boolean littleEndian) {
+        int b0 = data[pos] & 0xFF;
+        int b1 = data[pos + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static long readUnsignedInt(byte[] data, int pos, boolean littleEndian) {
+        long high = readUnsignedShort(data, littleEndian ? pos + 2 : pos, littleEndian);
+        long low = readUnsignedShort(data, littleEndian ? pos : pos + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
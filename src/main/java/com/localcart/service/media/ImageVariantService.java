@@ -0,0 +1,299 @@
+package com.localcart.service.media;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Image Variant Service
+ *
+ * Background pipeline that turns each uploaded product image into resized, recompressed
+ * variants (thumb, card, detail) written next to the original as
+ * "<name>-<variant>.jpg" (".png" when the image has transparency). Uploads only enqueue
+ * the file; decoding and encoding run on a small bounded pool so a burst of phone photos
+ * cannot exhaust memory or request threads.
+ *
+ * product_images rows for local uploads start PENDING and are switched to READY with the
+ * variant URLs once the files exist. The queue is in memory, so a periodic sweep re-checks
+ * PENDING rows: it picks up rows saved after their variants were written, and re-enqueues
+ * images dropped by a full queue or a restart. Clients keep the original URL until then.
+ * FAILED rows are retried by the same sweep with exponential backoff (grace period doubled
+ * per failed attempt) until image.variants.max-attempts; after that they stay FAILED.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    public record Variants(String thumbnailUrl, String cardUrl, String detailUrl) {
+    }
+
+    private record VariantSpec(String name, int maxEdge, float quality) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final Path uploadRoot;
+    private final String publicBaseUrl;
+    // Largest first: each variant is scaled down from the previous one
+    private final List<VariantSpec> specs;
+
+    @Value("${image.variants.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.variants.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${image.variants.sweep-grace-ms:120000}")
+    private long sweepGraceMs;
+
+    @Value("${image.variants.sweep-batch-size:200}")
+    private int sweepBatchSize;
+
+    @Value("${image.variants.max-attempts:3}")
+    private int maxAttempts;
+
+    public ImageVariantService(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${storage.local.directory:uploads}") String uploadDirectory,
+                               @Value("${storage.local.public-base-url:http://127.0.0.1:8080}") String publicBaseUrl,
+                               @Value("${image.variants.threads:2}") int threads,
+                               @Value("${image.variants.queue-capacity:500}") int queueCapacity,
+                               @Value("${image.variants.thumb.max-edge:200}") int thumbEdge,
+                               @Value("${image.variants.card.max-edge:480}") int cardEdge,
+                               @Value("${image.variants.detail.max-edge:1200}") int detailEdge,
+                               @Value("${image.variants.jpeg-quality:0.82}") float quality) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.uploadRoot = Paths.get(uploadDirectory == null || uploadDirectory.isBlank() ? "uploads" : uploadDirectory.trim())
+                .toAbsolutePath()
+                .normalize();
+        this.publicBaseUrl = publicBaseUrl == null ? "" : publicBaseUrl.replaceAll("/+$", "");
+        this.specs = List.of(
+                new VariantSpec("detail", detailEdge, quality),
+                new VariantSpec("card", cardEdge, quality),
+                new VariantSpec("thumb", thumbEdge, quality));
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+
+        Gauge.builder("image.variants.queue", executor, pool -> pool.getQueue().size())
+                .description("Uploaded images waiting to be resized")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a freshly stored original for resizing; false if the pipeline is off or full
+     * (the sweep retries PENDING rows later)
+     */
+    public boolean enqueue(Path original) {
+        if (!enabled) {
+            return false;
+        }
+        Path file = original.toAbsolutePath().normalize();
+        if (!inFlight.add(file)) {
+            return true;
+        }
+
+        try {
+            executor.execute(() -> process(file));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(file);
+            meterRegistry.counter("image.variants.rejected").increment();
+            log.warn("Image variant queue full, leaving {} for the sweep", file.getFileName());
+            return false;
+        }
+    }
+
+    /**
+     * True for URLs served from this node's upload directory (the only ones that get variants)
+     */
+    public boolean isLocalUpload(String imageUrl) {
+        return enabled && resolveUpload(imageUrl).isPresent();
+    }
+
+    /**
+     * Variant URLs for an uploaded image, if all of them have been written
+     */
+    public Optional<Variants> findVariants(String imageUrl) {
+        return resolveUpload(imageUrl).flatMap(this::findVariantFiles);
+    }
+
+    /**
+     * Re-checks PENDING rows older than the grace period, and FAILED rows with attempts left
+     * once their backoff has passed: marks them READY if their files exist, otherwise
+     * re-enqueues originals found on this node. Rows are touched so the next sweep moves on
+     * to others instead of re-reading the same batch.
+     */
+    @Scheduled(fixedDelayString = "${image.variants.sweep-interval-ms:60000}",
+            initialDelayString = "${image.variants.sweep-initial-delay-ms:30000}")
+    public void sweepPending() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<String> imageUrls = new LinkedHashSet<>(jdbcTemplate.queryForList(
+                "SELECT image_url FROM product_images " +
+                "WHERE (variant_status = 'PENDING' AND updated_at < CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond')) " +
+                "OR (variant_status = 'FAILED' AND variant_attempts < ? " +
+                "AND updated_at < CURRENT_TIMESTAMP - (? * POWER(2, variant_attempts) * INTERVAL '1 millisecond')) " +
+                "ORDER BY updated_at LIMIT ?",
+                String.class, sweepGraceMs, maxAttempts, sweepGraceMs, sweepBatchSize));
+
+        for (String imageUrl : imageUrls) {
+            Optional<Path> original = resolveUpload(imageUrl);
+            if (original.isEmpty()) {
+                jdbcTemplate.update("UPDATE product_images SET variant_status = 'NONE' " +
+                        "WHERE image_url = ? AND variant_status IN ('PENDING', 'FAILED')", imageUrl);
+                continue;
+            }
+
+            Optional<Variants> variants = findVariantFiles(original.get());
+            if (variants.isPresent()) {
+                markReady(imageUrl, variants.get());
+            } else {
+                jdbcTemplate.update("UPDATE product_images SET updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE image_url = ? AND variant_status IN ('PENDING', 'FAILED')", imageUrl);
+                if (Files.isRegularFile(original.get())) {
+                    enqueue(original.get());
+                }
+            }
+        }
+    }
+
+    private void process(Path original) {
+        String imageUrl = publicUrl(original);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ready";
+        try {
+            markReady(imageUrl, writeVariants(original));
+        } catch (IOException | RuntimeException e) {
+            outcome = "failed";
+            log.warn("Could not create variants for {}: {}", original.getFileName(), e.getMessage());
+            jdbcTemplate.update("UPDATE product_images " +
+                    "SET variant_status = 'FAILED', variant_attempts = variant_attempts + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE image_url = ? AND variant_status IN ('PENDING', 'FAILED')", imageUrl);
+        } finally {
+            inFlight.remove(original);
+            sample.stop(meterRegistry.timer("image.variants.process", "outcome", outcome));
+        }
+    }
+
+    private Variants writeVariants(Path original) throws IOException {
+        BufferedImage current = ImageResizer.decode(original, maxPixels, specs.get(0).maxEdge());
+        int orientation = ImageResizer.readOrientation(original);
+        boolean alpha = current.getColorModel().hasAlpha();
+        String extension = alpha ? ".png" : ".jpg";
+
+        String[] urls = new String[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            VariantSpec spec = specs.get(i);
+            int[] size = ImageResizer.fit(current.getWidth(), current.getHeight(), spec.maxEdge());
+            current = ImageResizer.resize(current, size[0], size[1], alpha);
+            if (i == 0) {
+                // Rotate once, on the largest variant; the smaller ones are scaled from it
+                current = ImageResizer.orient(current, orientation);
+            }
+
+            Path target = variantPath(original, spec.name(), extension);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            if (alpha) {
+                ImageResizer.writePng(current, temp);
+            } else {
+                ImageResizer.writeJpeg(current, spec.quality(), temp);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            urls[i] = publicUrl(target);
+        }
+
+        return new Variants(urls[2], urls[1], urls[0]);
+    }
+
+    private void markReady(String imageUrl, Variants variants) {
+        jdbcTemplate.update("UPDATE product_images " +
+                        "SET thumbnail_url = ?, card_url = ?, detail_url = ?, variant_status = 'READY' " +
+                        "WHERE image_url = ? AND variant_status IN ('PENDING', 'FAILED')",
+                variants.thumbnailUrl(), variants.cardUrl(), variants.detailUrl(), imageUrl);
+    }
+
+    private Optional<Variants> findVariantFiles(Path original) {
+        String[] urls = new String[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            Path jpeg = variantPath(original, specs.get(i).name(), ".jpg");
+            Path png = variantPath(original, specs.get(i).name(), ".png");
+            if (Files.isRegularFile(jpeg)) {
+                urls[i] = publicUrl(jpeg);
+            } else if (Files.isRegularFile(png)) {
+                urls[i] = publicUrl(png);
+            } else {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new Variants(urls[2], urls[1], urls[0]));
+    }
+
+    private Optional<Path> resolveUpload(String imageUrl) {
+        if (imageUrl == null) {
+            return Optional.empty();
+        }
+        String path = imageUrl;
+        if (!publicBaseUrl.isEmpty() && path.startsWith(publicBaseUrl)) {
+            path = path.substring(publicBaseUrl.length());
+        }
+        if (!path.startsWith("/uploads/")) {
+            return Optional.empty();
+        }
+
+        Path file = uploadRoot.resolve(path.substring("/uploads/".length())).normalize();
+        return file.startsWith(uploadRoot) ? Optional.of(file) : Optional.empty();
+    }
+
+    private String publicUrl(Path file) {
+        String relative = uploadRoot.relativize(file).toString().replace('\\', '/');
+        return publicBaseUrl + "/uploads/" + relative;
+    }
+
+    private static Path variantPath(Path original, String variant, String extension) {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return original.resolveSibling(baseName + "-" + variant + extension);
+    }
+}
@@ -0,0 +1,65 @@
+package com.localcart.service.media;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of small media files held in memory, keyed by path and checked against
+ * the file's size and modification time so a rewritten file is never served stale
+ */
+final class MediaFileCache {
+
+    private record Entry(byte[] bytes, long lastModified) {
+    }
+
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    MediaFileCache(long maxBytes, long maxFileBytes) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+    }
+
+    boolean accepts(long length) {
+        return length <= maxFileBytes;
+    }
+
+    synchronized byte[] get(Path file, long length, long lastModified) {
+        Entry entry = entries.get(file);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.bytes().length != length || entry.lastModified() != lastModified) {
+            entries.remove(file);
+            totalBytes -= entry.bytes().length;
+            return null;
+        }
+        return entry.bytes();
+    }
+
+    synchronized void put(Path file, byte[] bytes, long lastModified) {
+        if (!accepts(bytes.length)) {
+            return;
+        }
+        Entry previous = entries.put(file, new Entry(bytes, lastModified));
+        totalBytes += bytes.length - (previous != null ? previous.bytes().length : 0);
+
+        Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
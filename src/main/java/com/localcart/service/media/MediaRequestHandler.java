@@ -0,0 +1,342 @@
+package com.localcart.service.media;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Media Request Handler
+ *
+ * Serves /uploads/** from the local upload directory:
+ * - Strong ETag (size + mtime) and Last-Modified, answering If-None-Match /
+ *   If-Modified-Since with 304
+ * - Cache-Control "immutable" for content-addressed names (<millis>-<uuid>[-variant].ext,
+ *   written once and never replaced); a short max-age for anything else
+ * - Single byte ranges (206 / 416, honouring If-Range); multi-range requests get the full body
+ * - Precompressed .br / .gz siblings for compressible types when the client accepts them
+ * - Body via Tomcat sendfile when the connector supports it, else FileChannel.transferTo;
+ *   small hot files optionally from a bounded in-memory LRU (media.cache.enabled)
+ */
+@Component
+public class MediaRequestHandler implements HttpRequestHandler {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^\\d{13}-[0-9a-f]{32}(-[a-z]+)?\\.[a-z0-9]+$");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path uploadRoot;
+    private final MeterRegistry meterRegistry;
+    private final MediaFileCache cache;
+
+    @Value("${media.cache-control.immutable-max-age-seconds:31536000}")
+    private long immutableMaxAgeSeconds;
+
+    @Value("${media.cache-control.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    @Value("${media.sendfile-threshold-bytes:49152}")
+    private long sendfileThresholdBytes;
+
+    public MediaRequestHandler(MeterRegistry meterRegistry,
+                               @Value("${storage.local.directory:uploads}") String uploadDirectory,
+                               @Value("${media.cache.enabled:false}") boolean cacheEnabled,
+                               @Value("${media.cache.max-bytes:67108864}") long cacheMaxBytes,
+                               @Value("${media.cache.max-file-bytes:262144}") long cacheMaxFileBytes) {
+        this.meterRegistry = meterRegistry;
+        this.uploadRoot = Paths.get(uploadDirectory == null || uploadDirectory.isBlank() ? "uploads" : uploadDirectory.trim())
+                .toAbsolutePath()
+                .normalize();
+        this.cache = cacheEnabled ? new MediaFileCache(cacheMaxBytes, cacheMaxFileBytes) : null;
+
+        if (cache != null) {
+            Gauge.builder("media.cache.bytes", cache, MediaFileCache::totalBytes)
+                    .description("Bytes of media held in the in-memory LRU")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        Path file = resolve(request);
+        if (file == null || !Files.isRegularFile(file)) {
+            count("not_found");
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean compressible = isCompressible(contentType);
+        String encoding = null;
+        if (compressible && request.getHeader(HttpHeaders.RANGE) == null) {
+            String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+            for (String candidate : new String[]{"br", "gzip"}) {
+                Path sibling = file.resolveSibling(file.getFileName() + (candidate.equals("br") ? ".br" : ".gz"));
+                if (accepts(acceptEncoding, candidate) && Files.isRegularFile(sibling)) {
+                    file = sibling;
+                    encoding = candidate;
+                    break;
+                }
+            }
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified)
+                + (encoding != null ? "-" + encoding : "") + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(request));
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (compressible) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (isNotModified(request, etag, lastModified)) {
+            count("not_modified");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType.toString());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                count("range_not_satisfiable");
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long contentLength = Math.max(0, end - start + 1);
+        response.setContentLengthLong(contentLength);
+        count(response.getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT ? "partial" : "ok");
+        if ("HEAD".equals(method) || contentLength == 0) {
+            return;
+        }
+
+        writeBody(request, response, file, start, contentLength, length, lastModified);
+    }
+
+    private void writeBody(HttpServletRequest request, HttpServletResponse response, Path file,
+                           long start, long contentLength, long length, long lastModified) throws IOException {
+        boolean wholeFile = start == 0 && contentLength == length;
+        if (cache != null && wholeFile && cache.accepts(length)) {
+            byte[] bytes = cache.get(file, length, lastModified);
+            meterRegistry.counter("media.cache", "result", bytes != null ? "hit" : "miss").increment();
+            if (bytes == null) {
+                bytes = Files.readAllBytes(file);
+                if (bytes.length != length) {
+                    // Replaced between stat and read: serve what was stat'ed via the channel path
+                    bytes = null;
+                } else {
+                    cache.put(file, bytes, lastModified);
+                }
+            }
+            if (bytes != null) {
+                response.getOutputStream().write(bytes);
+                return;
+            }
+        }
+
+        if (contentLength >= sendfileThresholdBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself after this handler returns (zero-copy sendfile)
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + contentLength);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = contentLength;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    private Path resolve(HttpServletRequest request) {
+        Object pathWithinMapping = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (!(pathWithinMapping instanceof String relative) || relative.isBlank()) {
+            return null;
+        }
+
+        String decoded = UriUtils.decode(relative, StandardCharsets.UTF_8);
+        if (decoded.indexOf('\0') >= 0 || decoded.indexOf('\\') >= 0) {
+            return null;
+        }
+        Path file = uploadRoot.resolve(decoded.startsWith("/") ? decoded.substring(1) : decoded).normalize();
+        String fileName = file.getFileName() != null ? file.getFileName().toString() : "";
+        if (!file.startsWith(uploadRoot) || fileName.startsWith(".") || fileName.endsWith(".tmp")) {
+            return null;
+        }
+        return file;
+    }
+
+    private String cacheControl(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return CONTENT_ADDRESSED.matcher(fileName).matches()
+                ? "public, max-age=" + immutableMaxAgeSeconds + ", immutable"
+                : "public, max-age=" + maxAgeSeconds;
+    }
+
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {start, end} for a satisfiable single range, {} to ignore the header, null for 416
+     */
+    private static long[] parseRange(String header, long length) {
+        Matcher matcher = SINGLE_RANGE.matcher(header.trim());
+        if (!matcher.matches()) {
+            // Multi-range or unknown unit: answering with the full body is allowed
+            return new long[0];
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return new long[0];
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                // Syntactically invalid: ignore the header
+                return new long[0];
+            }
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase(coding)) {
+                return tokens.length < 2 || !tokens[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCompressible(MediaType type) {
+        String subtype = type.getSubtype();
+        return "text".equals(type.getType()) || subtype.endsWith("xml") || subtype.endsWith("json")
+                || subtype.equals("javascript");
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("media.responses", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,285 @@
+package com.localcart.service.payment;
+
+import com.localcart.dto.payment.StalePaymentSummary;
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.entity.enums.PaymentStatus;
+import com.localcart.repository.PaymentRepository;
+import com.localcart.service.payment.gateway.PaymentGatewayResponse;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory;
+import com.localcart.service.payment.gateway.resilience.RateLimiter;
+import com.localcart.service.scheduling.ClusterSingleton;
+import com.localcart.service.stream.StatusChange;
+import com.localcart.service.stream.StatusStreamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Payment Reconciliation Service
+ *
+ * Periodically settles payments stuck in PENDING/PROCESSING against the gateway's view.
+ * Stale payments are read in keyset chunks; each chunk is verified concurrently on a
+ * bounded pool, with a token-bucket rate limit per provider on top of the gateway's own
+ * bulkhead and deadline. Terminal gateway states (completed, failed, cancelled) are then
+ * applied in one batched transaction per chunk, guarded on the status that was read so
+ * a concurrent confirm/webhook wins.
+ *
+ * Only states the gateway actually read back from its provider (providerConfirmed) are
+ * applied; the stub gateways answer SUCCESS for anything and must never settle a payment.
+ * Off by default (payment.reconciliation.enabled).
+ */
+@Slf4j
+@Service
+public class PaymentReconciliationService {
+
+    private static final Set<PaymentStatus> UNSETTLED = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGatewayFactory gatewayFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final StatusStreamService statusStreamService;
+    private final Map<PaymentProvider, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    @Value("${payment.reconciliation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.reconciliation.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    @Value("${payment.reconciliation.max-age-hours:72}")
+    private long maxAgeHours;
+
+    @Value("${payment.reconciliation.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${payment.reconciliation.rate-limit-wait-ms:5000}")
+    private long rateLimitWaitMs;
+
+    public PaymentReconciliationService(PaymentRepository paymentRepository,
+                                        PaymentGatewayFactory gatewayFactory,
+                                        JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        MeterRegistry meterRegistry,
+                                        Environment environment,
+                                        StatusStreamService statusStreamService,
+                                        @Value("${payment.reconciliation.concurrency:16}") int concurrency) {
+        this.paymentRepository = paymentRepository;
+        this.gatewayFactory = gatewayFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.statusStreamService = statusStreamService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconcile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reconcile payments untouched for stale-after-minutes (and younger than max-age-hours)
+     */
+    @ClusterSingleton(value = "payment-reconciliation")
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+               initialDelayString = "${payment.reconciliation.initial-delay-ms:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(staleAfterMinutes);
+        LocalDateTime notBefore = now.minusHours(maxAgeHours);
+        long afterId = 0L;
+        int checked = 0;
+        int applied = 0;
+
+        try {
+            while (true) {
+                List<StalePaymentSummary> chunk = paymentRepository.findStalePayments(
+                        afterId, UNSETTLED, staleBefore, notBefore, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                List<Future<Transition>> checks = new ArrayList<>(chunk.size());
+                for (StalePaymentSummary payment : chunk) {
+                    checks.add(executor.submit(() -> check(payment)));
+                }
+                List<Transition> transitions = new ArrayList<>();
+                for (Future<Transition> check : checks) {
+                    Transition transition = check.get();
+                    if (transition != null) {
+                        transitions.add(transition);
+                    }
+                }
+
+                applied += apply(transitions);
+                checked += chunk.size();
+                afterId = chunk.get(chunk.size() - 1).getPaymentId();
+
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            if (checked > 0) {
+                log.info("Payment reconciliation checked {} stale payments, settled {}", checked, applied);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment reconciliation interrupted after payment {}", afterId);
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Payment reconciliation failed after payment {}", afterId, e);
+        } finally {
+            sample.stop(meterRegistry.timer("payment.reconciliation.run"));
+        }
+    }
+
+    /**
+     * Ask the issuing provider for the payment's state; returns a transition only when it settled differently
+     */
+    private Transition check(StalePaymentSummary payment) {
+        PaymentProvider provider = payment.getProvider() != null ? payment.getProvider() : gatewayFactory.getDefaultProvider();
+        String providerTag = provider.getValue();
+
+        PaymentGatewayResponse response;
+        try {
+            if (!rateLimiterFor(provider).tryAcquire(rateLimitWaitMs)) {
+                meterRegistry.counter("payment.reconciliation.checks", "provider", providerTag, "outcome", "rate_limited").increment();
+                return null;
+            }
+            response = gatewayFactory.getGateway(provider).verifyPayment(payment.getTransactionId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            meterRegistry.counter("payment.reconciliation.checks", "provider", providerTag, "outcome", "error").increment();
+            log.debug("Could not verify payment {} with {}: {}", payment.getPaymentId(), provider, e.getMessage());
+            return null;
+        }
+
+        if (response == null || !Boolean.TRUE.equals(response.getProviderConfirmed())) {
+            meterRegistry.counter("payment.reconciliation.checks", "provider", providerTag, "outcome", "unconfirmed").increment();
+            return null;
+        }
+
+        PaymentStatus actual = toSettledStatus(response.getStatus());
+        if (actual == null) {
+            meterRegistry.counter("payment.reconciliation.checks", "provider", providerTag, "outcome", "unsettled").increment();
+            return null;
+        }
+
+        meterRegistry.counter("payment.reconciliation.checks", "provider", providerTag, "outcome", "mismatch").increment();
+        meterRegistry.counter("payment.reconciliation.mismatches",
+                "provider", providerTag, "from", payment.getStatus().name(), "to", actual.name()).increment();
+        return new Transition(payment.getPaymentId(), payment.getOrderId(), payment.getStatus(), actual,
+                actual == PaymentStatus.COMPLETED ? null : failureReason(response));
+    }
+
+    /**
+     * Applies one chunk's transitions in a single transaction; returns how many rows changed
+     */
+    private int apply(List<Transition> transitions) {
+        if (transitions.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> arguments = transitions.stream()
+                .map(t -> new Object[] {t.to().name(), t.to().name(), t.failureReason(), t.paymentId(), t.from().name()})
+                .toList();
+
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            int[] results = jdbcTemplate.batchUpdate("""
+                    UPDATE payments
+                    SET status = ?,
+                        paid_at = CASE WHEN ? = 'COMPLETED' THEN COALESCE(paid_at, NOW()) ELSE paid_at END,
+                        failure_reason = COALESCE(?, failure_reason)
+                    WHERE id = ? AND status = ?
+                    """, arguments);
+            for (int i = 0; i < results.length; i++) {
+                // SUCCESS_NO_INFO (-2) means the driver did not report a count
+                if (results[i] != 0) {
+                    Transition transition = transitions.get(i);
+                    statusStreamService.publish(StatusChange.payment(transition.orderId(), transition.paymentId(),
+                            transition.to().name(), transition.from().name()));
+                }
+                count += Math.max(results[i], 0);
+            }
+            return count;
+        });
+
+        int settled = updated != null ? updated : 0;
+        meterRegistry.counter("payment.reconciliation.applied").increment(settled);
+        return settled;
+    }
+
+    private RateLimiter rateLimiterFor(PaymentProvider provider) {
+        return rateLimiters.computeIfAbsent(provider, p -> {
+            double shared = environment.getProperty("payment.reconciliation.rate-limit-per-second", Double.class, 10.0);
+            double rate = environment.getProperty(
+                    "payment.reconciliation." + p.getValue() + ".rate-limit-per-second", Double.class, shared);
+            return new RateLimiter(rate, (int) Math.ceil(rate));
+        });
+    }
+
+    /**
+     * Gateway status -> terminal payment status, or null while the gateway has not settled it
+     */
+    private static PaymentStatus toSettledStatus(String gatewayStatus) {
+        if (gatewayStatus == null) {
+            return null;
+        }
+        return switch (gatewayStatus.toUpperCase()) {
+            case "SUCCESS", "COMPLETED" -> PaymentStatus.COMPLETED;
+            case "FAILED" -> PaymentStatus.FAILED;
+            case "CANCELLED" -> PaymentStatus.CANCELLED;
+            default -> null;
+        };
+    }
+
+    private static String failureReason(PaymentGatewayResponse response) {
+        String reason = response.getErrorMessage() != null ? response.getErrorMessage() : response.getFailureReason();
+        if (reason == null) {
+            reason = "Settled as " + response.getStatus() + " by reconciliation";
+        }
+        return reason.length() > 500 ? reason.substring(0, 500) : reason;
+    }
+
+    private record Transition(Long paymentId, Long orderId, PaymentStatus from, PaymentStatus to, String failureReason) {
+    }
+}
@@ -6,6 +6,7 @@ import com.localcart.dto.payment.RefundRequest;
 import com.localcart.dto.payment.RefundResponse;
 import com.localcart.entity.Payment;
 import com.localcart.entity.Order;
+import com.localcart.entity.enums.PaymentProvider;
 import com.localcart.entity.enums.PaymentStatus;
 import com.localcart.entity.enums.PaymentMethod;
 import com.localcart.exception.PaymentException;
@@ -14,12 +15,16 @@ import com.localcart.repository.PaymentRepository;
 import com.localcart.repository.OrderRepository;
 import com.localcart.service.payment.gateway.PaymentGateway;
 import com.localcart.service.payment.gateway.PaymentGatewayResponse;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory.ProviderResult;
+import com.localcart.service.health.DependencyHealthProber;
 import com.localcart.service.payment.encryption.PaymentEncryption;
+import com.localcart.service.stream.StatusChange;
+import com.localcart.service.stream.StatusStreamService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -41,6 +46,10 @@ import java.util.UUID;
  * - Acts as mediator between orders, payments, and payment gateways
  * - Handles business logic and workflows
  * - Provides single point of payment management
+ * 
+ * Gateway calls never run inside a database transaction: each flow loads what it
+ * needs in one short transaction, calls the (resilience-wrapped) gateway with no
+ * connection held, then applies the outcome in a second short transaction.
  */
 @Slf4j
 @Service
@@ -52,62 +61,70 @@ public class PaymentService {
     @Autowired
     private OrderRepository orderRepository;
     
-    // Payment gateway implementations (can be swapped via configuration)
+    // Resolves the guarded gateway for a provider (bulkhead, deadline, circuit breaker)
     @Autowired
-    @Qualifier("mockPaymentGateway")
-    private PaymentGateway paymentGateway;
+    private PaymentGatewayFactory gatewayFactory;
     
     @Autowired
     private PaymentEncryption paymentEncryption;
     
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private StatusStreamService statusStreamService;
+    
+    @Autowired
+    private DependencyHealthProber healthProber;
+    
     /**
      * Step 1: Initialize a payment
      * Creates a payment record and initiates with payment gateway
-     * Returns a payment intent that customer needs to complete
+     * Returns a payment intent that customer needs to complete.
+     * Falls back to another healthy provider when the default one is unavailable.
      */
-    @Transactional
     public PaymentResponse initiatePayment(PaymentRequest request) {
         try {
             log.info("Initiating payment for order: {}, amount: {}", request.getOrderNumber(), request.getAmount());
             
-            // Validate order exists and is in correct status
-            Order order = orderRepository.findByOrderNumber(request.getOrderNumber())
-                    .orElseThrow(() -> new PaymentException("Order not found", "ORDER_NOT_FOUND"));
-            
-            if (order.getPayment() != null && !order.getPayment().getStatus().equals(PaymentStatus.FAILED)) {
-                throw new PaymentException("Payment already exists for this order", "PAYMENT_EXISTS");
-            }
-            
-            // Validate amount matches order total
-            if (!request.getAmount().equals(order.getTotal())) {
-                throw new PaymentException("Payment amount does not match order total", "AMOUNT_MISMATCH");
-            }
-            
-            // Initialize with payment gateway
-            PaymentGatewayResponse gatewayResponse = paymentGateway.initializePayment(request);
+            // Validate order exists, has no live payment and the amount matches
+            transactionTemplate.executeWithoutResult(status -> loadPayableOrder(request));
             
-            if (!gatewayResponse.getStatus().equals("PENDING")) {
-                throw new PaymentException("Failed to initialize payment with gateway", "GATEWAY_INIT_FAILED");
-            }
-            
-            // Create payment record
-            Payment payment = Payment.builder()
-                    .order(order)
-                    .transactionId(gatewayResponse.getTransactionId())
-                    .paymentMethod(request.getPaymentMethod())
-                    .amount(request.getAmount())
-                    .status(PaymentStatus.PENDING)
-                    // Encrypt sensitive data before storing
-                    .metadata(paymentEncryption.encryptMetadata(request.getMetadataJson()))
-                    .build();
-            
-            Payment saved = paymentRepository.save(payment);
-            order.setPayment(saved);
-            orderRepository.save(order);
-            
-            log.info("Payment initiated successfully: {}", saved.getId());
+            // Initialize with payment gateway (no transaction held)
+            ProviderResult<PaymentGatewayResponse> result = gatewayFactory.executeWithFallback(null, (provider, gateway) -> {
+                PaymentGatewayResponse response = gateway.initializePayment(request);
+                if (!"PENDING".equals(response.getStatus())) {
+                    throw new PaymentException("Failed to initialize payment with gateway", "GATEWAY_INIT_FAILED");
+                }
+                return response;
+            });
+            PaymentGatewayResponse gatewayResponse = result.value();
             
-            return mapToPaymentResponse(saved);
+            return transactionTemplate.execute(status -> {
+                // Re-check: the order may have been paid while the gateway call was in flight
+                Order order = loadPayableOrder(request);
+                
+                // Create payment record
+                Payment payment = Payment.builder()
+                        .order(order)
+                        .transactionId(gatewayResponse.getTransactionId())
+                        .provider(result.provider())
+                        .paymentMethod(request.getPaymentMethod())
+                        .amount(request.getAmount())
+                        .status(PaymentStatus.PENDING)
+                        // Encrypt sensitive data before storing
+                        .metadata(paymentEncryption.encryptMetadata(request.getMetadataJson()))
+                        .build();
+                
+                Payment saved = paymentRepository.save(payment);
+                order.setPayment(saved);
+                orderRepository.save(order);
+                publishStatusChange(saved, null);
+                
+                log.info("Payment initiated successfully: {} via {}", saved.getId(), result.provider());
+                
+                return mapToPaymentResponse(saved);
+            });
             
         } catch (PaymentException e) {
             log.error("Payment initiation error: {}", e.getMessage());
@@ -123,44 +140,53 @@ public class PaymentService {
      * Called after customer completes payment on gateway
      * Verifies payment with gateway and updates status
      */
-    @Transactional
     public PaymentResponse processPayment(String paymentId, PaymentRequest request) {
         try {
             log.info("Processing payment: {}", paymentId);
             
-            // Fetch payment
-            Payment payment = paymentRepository.findById(Long.parseLong(paymentId))
-                    .orElseThrow(() -> new PaymentException("Payment not found", "PAYMENT_NOT_FOUND"));
+            Long id = Long.parseLong(paymentId);
+            Payment snapshot = transactionTemplate.execute(status -> findPayment(id));
             
-            // Process with gateway
-            PaymentGatewayResponse gatewayResponse = paymentGateway.processPayment(
-                    payment.getTransactionId(), 
+            // Process with the provider that issued the transaction
+            PaymentGatewayResponse gatewayResponse = gatewayFor(snapshot).processPayment(
+                    snapshot.getTransactionId(), 
                     request
             );
             
-            if (gatewayResponse.getStatus().equals("SUCCESS")) {
-                // Update payment status
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setPaidAt(LocalDateTime.now());
-                paymentRepository.save(payment);
-                
-                // Update order status
-                Order order = payment.getOrder();
-                order.setStatus(order.getStatus()); // Trigger subsequent workflow
-                orderRepository.save(order);
-                
-                log.info("Payment processed successfully: {}", paymentId);
+            PaymentResponse response = transactionTemplate.execute(status -> {
+                Payment payment = findPayment(id);
+                PaymentStatus previousStatus = payment.getStatus();
                 
-            } else if (gatewayResponse.getStatus().equals("FAILED")) {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.setFailureReason(gatewayResponse.getErrorMessage());
-                paymentRepository.save(payment);
+                if ("SUCCESS".equals(gatewayResponse.getStatus())) {
+                    // Update payment status
+                    payment.setStatus(PaymentStatus.COMPLETED);
+                    payment.setPaidAt(LocalDateTime.now());
+                    paymentRepository.save(payment);
+                    
+                    // Update order status
+                    Order order = payment.getOrder();
+                    order.setStatus(order.getStatus()); // Trigger subsequent workflow
+                    orderRepository.save(order);
+                    
+                    log.info("Payment processed successfully: {}", paymentId);
+                    
+                } else if ("FAILED".equals(gatewayResponse.getStatus())) {
+                    payment.setStatus(PaymentStatus.FAILED);
+                    payment.setFailureReason(gatewayResponse.getErrorMessage());
+                    paymentRepository.save(payment);
+                }
                 
+                publishStatusChange(payment, previousStatus);
+                return mapToPaymentResponse(payment);
+            });
+            
+            // Thrown after the FAILED status is committed
+            if ("FAILED".equals(gatewayResponse.getStatus())) {
                 throw new PaymentException("Payment failed: " + gatewayResponse.getErrorMessage(), 
                         gatewayResponse.getErrorCode());
             }
             
-            return mapToPaymentResponse(payment);
+            return response;
             
         } catch (PaymentException e) {
             log.error("Payment processing error: {}", e.getMessage());
@@ -175,27 +201,32 @@ public class PaymentService {
      * Verify payment status with gateway
      * Used for webhooks or manual verification
      */
-    @Transactional
     public PaymentResponse verifyPayment(String paymentId) {
         try {
             log.info("Verifying payment: {}", paymentId);
             
-            Payment payment = paymentRepository.findById(Long.parseLong(paymentId))
-                    .orElseThrow(() -> new PaymentException("Payment not found", "PAYMENT_NOT_FOUND"));
+            Long id = Long.parseLong(paymentId);
+            Payment snapshot = transactionTemplate.execute(status -> findPayment(id));
             
             // Verify with gateway
-            PaymentGatewayResponse gatewayResponse = paymentGateway.verifyPayment(payment.getTransactionId());
+            PaymentGatewayResponse gatewayResponse = gatewayFor(snapshot).verifyPayment(snapshot.getTransactionId());
             
-            if (gatewayResponse.getStatus().equals("SUCCESS") && !payment.getStatus().equals(PaymentStatus.COMPLETED)) {
-                // Update status if not already updated
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setPaidAt(LocalDateTime.now());
-                paymentRepository.save(payment);
+            return transactionTemplate.execute(status -> {
+                Payment payment = findPayment(id);
+                PaymentStatus previousStatus = payment.getStatus();
                 
-                log.info("Payment verified and status updated: {}", paymentId);
-            }
-            
-            return mapToPaymentResponse(payment);
+                if ("SUCCESS".equals(gatewayResponse.getStatus()) && !payment.getStatus().equals(PaymentStatus.COMPLETED)) {
+                    // Update status if not already updated
+                    payment.setStatus(PaymentStatus.COMPLETED);
+                    payment.setPaidAt(LocalDateTime.now());
+                    paymentRepository.save(payment);
+                    
+                    log.info("Payment verified and status updated: {}", paymentId);
+                    publishStatusChange(payment, previousStatus);
+                }
+                
+                return mapToPaymentResponse(payment);
+            });
             
         } catch (Exception e) {
             log.error("Payment verification failed", e);
@@ -208,60 +239,68 @@ public class PaymentService {
      * Supports full and partial refunds
      * Maintains audit trail
      */
-    @Transactional
     public RefundResponse refundPayment(RefundRequest request) {
         try {
             log.info("Processing refund for payment: {}", request.getPaymentId());
             
-            // Fetch payment
-            Payment payment = paymentRepository.findById(request.getPaymentId())
-                    .orElseThrow(() -> new PaymentException("Payment not found", "PAYMENT_NOT_FOUND"));
+            // Fetch and validate payment
+            Payment snapshot = transactionTemplate.execute(status -> {
+                Payment payment = findPayment(request.getPaymentId());
+                
+                BigDecimal amount = request.getRefundAmount() != null ? 
+                        request.getRefundAmount() : payment.getAmount();
+                
+                if (amount.compareTo(payment.getAmount()) > 0) {
+                    throw new PaymentException("Refund amount exceeds payment amount", "EXCESS_REFUND");
+                }
+                
+                if (!payment.getStatus().equals(PaymentStatus.COMPLETED)) {
+                    throw new PaymentException("Only completed payments can be refunded", "INVALID_PAYMENT_STATUS");
+                }
+                return payment;
+            });
             
-            // Validate refund amount
             BigDecimal refundAmount = request.getRefundAmount() != null ? 
-                    request.getRefundAmount() : payment.getAmount();
-            
-            if (refundAmount.compareTo(payment.getAmount()) > 0) {
-                throw new PaymentException("Refund amount exceeds payment amount", "EXCESS_REFUND");
-            }
-            
-            if (!payment.getStatus().equals(PaymentStatus.COMPLETED)) {
-                throw new PaymentException("Only completed payments can be refunded", "INVALID_PAYMENT_STATUS");
-            }
+                    request.getRefundAmount() : snapshot.getAmount();
             
-            // Process refund with gateway
-            PaymentGatewayResponse gatewayResponse = paymentGateway.refundPayment(
-                    payment.getTransactionId(),
+            // Process refund with the provider that took the payment
+            PaymentGatewayResponse gatewayResponse = gatewayFor(snapshot).refundPayment(
+                    snapshot.getTransactionId(),
                     refundAmount,
                     request.getReason()
             );
             
-            if (gatewayResponse.getRefundStatus().equals("SUCCESS")) {
-                // Update payment
+            if (!"SUCCESS".equals(gatewayResponse.getRefundStatus())) {
+                throw new PaymentException("Refund failed: " + gatewayResponse.getErrorMessage(),
+                        gatewayResponse.getErrorCode());
+            }
+            
+            LocalDateTime refundedAt = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                Payment payment = findPayment(request.getPaymentId());
+                PaymentStatus previousStatus = payment.getStatus();
                 if (refundAmount.equals(payment.getAmount())) {
                     payment.setStatus(PaymentStatus.REFUNDED);
                 } else {
                     payment.setStatus(PaymentStatus.PARTIALLY_REFUNDED);
                 }
                 payment.setRefundAmount(refundAmount);
-                payment.setRefundedAt(LocalDateTime.now());
+                payment.setRefundedAt(refundedAt);
                 paymentRepository.save(payment);
-                
-                log.info("Refund processed successfully: {}", gatewayResponse.getRefundId());
-                
-                return RefundResponse.builder()
-                        .paymentId(payment.getId())
-                        .transactionId(payment.getTransactionId())
-                        .refundId(gatewayResponse.getRefundId())
-                        .status("SUCCESS")
-                        .refundAmount(refundAmount)
-                        .reason(request.getReason())
-                        .refundedAt(LocalDateTime.now())
-                        .build();
-            } else {
-                throw new PaymentException("Refund failed: " + gatewayResponse.getErrorMessage(),
-                        gatewayResponse.getErrorCode());
-            }
+                publishStatusChange(payment, previousStatus);
+            });
+            
+            log.info("Refund processed successfully: {}", gatewayResponse.getRefundId());
+            
+            return RefundResponse.builder()
+                    .paymentId(snapshot.getId())
+                    .transactionId(snapshot.getTransactionId())
+                    .refundId(gatewayResponse.getRefundId())
+                    .status("SUCCESS")
+                    .refundAmount(refundAmount)
+                    .reason(request.getReason())
+                    .refundedAt(refundedAt)
+                    .build();
             
         } catch (PaymentException e) {
             log.error("Refund error: {}", e.getMessage());
@@ -281,7 +320,7 @@ public class PaymentService {
             log.info("Saving payment method");
             
             // Tokenize with payment gateway
-            String token = paymentGateway.tokenizeCard(cardNumber, expiryMonth, expiryYear, cvv);
+            String token = gatewayFactory.getDefaultGateway().tokenizeCard(cardNumber, expiryMonth, expiryYear, cvv);
             
             log.info("Payment method saved successfully");
             
@@ -295,32 +334,42 @@ public class PaymentService {
     
     /**
      * Charge a previously saved payment method
-     * Uses tokenized card - no sensitive data handled
+     * Uses tokenized card - no sensitive data handled.
+     * Tokens belong to the provider that issued them, so there is no fallback here.
      */
-    @Transactional
     public PaymentResponse chargeToken(Long orderId, String token, String description) {
         try {
             log.info("Charging saved token for order: {}", orderId);
             
-            // Fetch order
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new PaymentException("Order not found", "ORDER_NOT_FOUND"));
+            // Fetch order total
+            BigDecimal total = transactionTemplate.execute(status -> orderRepository.findById(orderId)
+                    .orElseThrow(() -> new PaymentException("Order not found", "ORDER_NOT_FOUND"))
+                    .getTotal());
             
             // Charge token
-            PaymentGatewayResponse gatewayResponse = paymentGateway.chargeToken(
+            PaymentProvider provider = gatewayFactory.getDefaultProvider();
+            PaymentGatewayResponse gatewayResponse = gatewayFactory.getGateway(provider).chargeToken(
                     token,
-                    order.getTotal(),
+                    total,
                     "USD",
                     description
             );
             
-            if (gatewayResponse.getStatus().equals("SUCCESS")) {
+            if (!"SUCCESS".equals(gatewayResponse.getStatus())) {
+                throw new PaymentException("Token charge failed", gatewayResponse.getErrorCode());
+            }
+            
+            return transactionTemplate.execute(status -> {
+                Order order = orderRepository.findById(orderId)
+                        .orElseThrow(() -> new PaymentException("Order not found", "ORDER_NOT_FOUND"));
+                
                 // Create payment record
                 Payment payment = Payment.builder()
                         .order(order)
                         .transactionId(gatewayResponse.getTransactionId())
+                        .provider(provider)
                         .paymentMethod("SAVED_CARD")
-                        .amount(order.getTotal())
+                        .amount(total)
                         .status(PaymentStatus.COMPLETED)
                         .paidAt(LocalDateTime.now())
                         .build();
@@ -332,9 +381,7 @@ public class PaymentService {
                 log.info("Token charge successful: {}", gatewayResponse.getTransactionId());
                 
                 return mapToPaymentResponse(saved);
-            } else {
-                throw new PaymentException("Token charge failed", gatewayResponse.getErrorCode());
-            }
+            });
             
         } catch (Exception e) {
             log.error("Failed to charge token", e);
@@ -352,6 +399,19 @@ public class PaymentService {
         return mapToPaymentResponse(payment);
     }
     
+    /**
+     * Get payment details for the customer who placed its order
+     */
+    public PaymentResponse getPaymentDetailsForUser(Long paymentId, Long userId) {
+        return transactionTemplate.execute(status -> {
+            Payment payment = findPayment(paymentId);
+            if (!payment.getOrder().getUser().getId().equals(userId)) {
+                throw new PaymentException("Payment not found", "PAYMENT_NOT_FOUND");
+            }
+            return mapToPaymentResponse(payment);
+        });
+    }
+    
     /**
      * Get payment by order
      */
@@ -364,12 +424,51 @@ public class PaymentService {
     
     /**
      * Healthcare check - verify payment gateway is available
+     * Reads the background prober's cached result rather than calling the gateway
      */
     public boolean isPaymentGatewayHealthy() {
-        return paymentGateway.isHealthy();
+        return healthProber.isGatewayHealthy(gatewayFactory.getDefaultProvider());
+    }
+    
+    private Order loadPayableOrder(PaymentRequest request) {
+        Order order = orderRepository.findByOrderNumber(request.getOrderNumber())
+                .orElseThrow(() -> new PaymentException("Order not found", "ORDER_NOT_FOUND"));
+        
+        if (order.getPayment() != null && !order.getPayment().getStatus().equals(PaymentStatus.FAILED)) {
+            throw new PaymentException("Payment already exists for this order", "PAYMENT_EXISTS");
+        }
+        
+        // Validate amount matches order total
+        if (!request.getAmount().equals(order.getTotal())) {
+            throw new PaymentException("Payment amount does not match order total", "AMOUNT_MISMATCH");
+        }
+        return order;
+    }
+    
+    private Payment findPayment(Long paymentId) {
+        return paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new PaymentException("Payment not found", "PAYMENT_NOT_FOUND"));
+    }
+    
+    // Payments made before providers were recorded belong to the default gateway
+    private PaymentGateway gatewayFor(Payment payment) {
+        return payment.getProvider() != null
+                ? gatewayFactory.getGateway(payment.getProvider())
+                : gatewayFactory.getDefaultGateway();
     }
     
     // Helper method to map entity to response DTO
+    /**
+     * Push a payment status change to the order's (and payment's) status streams after commit
+     */
+    private void publishStatusChange(Payment payment, PaymentStatus previousStatus) {
+        if (payment.getStatus() == previousStatus) {
+            return;
+        }
+        statusStreamService.publish(StatusChange.payment(payment.getOrder().getId(), payment.getId(),
+                payment.getStatus().name(), previousStatus != null ? previousStatus.name() : null));
+    }
+    
     private PaymentResponse mapToPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getId())
@@ -1,5 +1,6 @@
 package com.localcart.service.payment.encryption;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -7,15 +8,26 @@ import org.springframework.stereotype.Component;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Payment Data Encryption Utility
  * 
  * Encryption Strategy:
- * - Algorithm: AES-256 (Advanced Encryption Standard with 256-bit key)
- * - Encoding: Base64 for storage and transmission
+ * - Algorithm: AES-256-GCM with a random 96-bit nonce per value (authenticated)
+ * - Format: "v1:{keyId}:" + Base64(nonce || ciphertext || tag); the header is bound as AAD
+ * - Legacy values (Base64 of AES/ECB output, no header) are still decrypted
  * - Use Case: Encrypt sensitive payment metadata before database storage
  * 
  * What gets encrypted:
@@ -29,44 +41,121 @@ import java.util.Base64;
  * 
  * Key Management:
  * - Encryption key loaded from environment variables (not hardcoded)
- * - Separate keys for development and production
- * - Key rotation support through configuration
+ * - A Base64 256-bit key (see generateNewEncryptionKey) is used as-is, any other
+ *   string is stretched with SHA-256
+ * - The key id in the header identifies which key encrypted a value; retired keys stay
+ *   in the key ring (payment.encryption.previous-keys) for decryption only, and
+ *   PaymentKeyRotationJob rewrites old values under the current key
  * 
- * Security Best Practices:
- * ✅ AES-256 encryption (military-grade)
- * ✅ Keys not hardcoded (environment variables)
- * ✅ Metadata encrypted at rest
- * ✅ Separate from raw card handling (gateway responsibility)
- * ✅ Base64 encoding for safe storage
- * ✅ Audit logging for encryption operations
+ * Performance:
+ * - Cipher instances are cached per thread; only init() runs per value
+ * - encryptAll/decryptAll amortise lookups for batch jobs
  */
 @Slf4j
 @Component
 public class PaymentEncryption {
     
     private static final String CIPHER_ALGORITHM = "AES";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int KEY_SIZE = 256;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    
+    static final String VERSION_PREFIX = "v1:";
+    
+    private static final ThreadLocal<Cipher> GCM_CIPHER = ThreadLocal.withInitial(() -> newCipher(GCM_TRANSFORMATION));
+    private static final ThreadLocal<Cipher> LEGACY_CIPHER = ThreadLocal.withInitial(() -> newCipher(CIPHER_ALGORITHM));
+    private static final ThreadLocal<SecureRandom> NONCE_SOURCE = ThreadLocal.withInitial(SecureRandom::new);
     
     @Value("${payment.encryption.key:${PAYMENT_ENCRYPTION_KEY:default-dev-key-change-in-production}}")
     private String encryptionKey;
     
+    @Value("${payment.encryption.key-id:k1}")
+    private String keyId;
+    
+    // Retired keys, decrypt only: "id=key,id=key"
+    @Value("${payment.encryption.previous-keys:}")
+    private String previousKeys;
+    
+    // Key the pre-versioned (ECB) values were written with; defaults to the current key
+    @Value("${payment.encryption.legacy-key:}")
+    private String legacyEncryptionKey;
+    
     private SecretKey secretKey;
+    private SecretKey legacyKey;
+    private Map<String, SecretKey> keyRing;
+    private byte[] header;
+    private String headerText;
+    
+    @PostConstruct
+    public void init() {
+        requireValidKeyId(keyId);
+        secretKey = deriveKey(encryptionKey);
+        
+        Map<String, SecretKey> ring = new HashMap<>();
+        if (previousKeys != null && !previousKeys.isBlank()) {
+            for (String entry : previousKeys.split(",")) {
+                int separator = entry.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalStateException("payment.encryption.previous-keys entries must be id=key");
+                }
+                String id = entry.substring(0, separator).trim();
+                requireValidKeyId(id);
+                ring.put(id, deriveKey(entry.substring(separator + 1).trim()));
+            }
+        }
+        ring.put(keyId, secretKey);
+        keyRing = Map.copyOf(ring);
+        
+        String legacy = legacyEncryptionKey != null && !legacyEncryptionKey.isBlank() ? legacyEncryptionKey : encryptionKey;
+        legacyKey = new SecretKeySpec(padOrTruncateKey(legacy.getBytes(StandardCharsets.UTF_8)), CIPHER_ALGORITHM);
+        headerText = VERSION_PREFIX + keyId + ":";
+        header = headerText.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static void requireValidKeyId(String id) {
+        if (id == null || !id.matches("[A-Za-z0-9_-]{1,16}")) {
+            throw new IllegalStateException("Encryption key ids must be 1-16 characters of [A-Za-z0-9_-]: " + id);
+        }
+    }
+    
+    /**
+     * Id of the key new values are encrypted with
+     */
+    public String getCurrentKeyId() {
+        return keyId;
+    }
+    
+    /**
+     * Header prefix of values written with the current key
+     */
+    public String getCurrentHeader() {
+        return headerText;
+    }
     
     /**
-     * Initialize encryption key from configuration
-     * In production, this should be a securely stored 256-bit key
+     * Base64 256-bit keys are used directly; passphrases are hashed to 256 bits
      */
-    private SecretKey getSecretKey() throws Exception {
-        if (secretKey == null) {
-            // Ensure encryption key is 32 bytes (256 bits) for AES-256
-            byte[] decodedKey = padOrTruncateKey(encryptionKey.getBytes());
-            secretKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, CIPHER_ALGORITHM);
+    static SecretKey deriveKey(String configured) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(configured);
+            if (decoded.length == 32) {
+                return new SecretKeySpec(decoded, CIPHER_ALGORITHM);
+            }
+        } catch (IllegalArgumentException e) {
+            // not Base64, treat as a passphrase
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(configured.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest, CIPHER_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return secretKey;
     }
     
     /**
      * Pad key to 32 bytes (256 bits) or truncate if longer
+     * Only used to read values written before the versioned format
      */
     private byte[] padOrTruncateKey(byte[] key) {
         byte[] result = new byte[32]; // 256 bits = 32 bytes
@@ -82,31 +171,27 @@ public class PaymentEncryption {
         return result;
     }
     
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + transformation + " not available", e);
+        }
+    }
+    
     /**
      * Encrypt sensitive payment metadata
      * Called before storing metadata in database
      * 
      * @param plaintext Unencrypted metadata JSON or string
-     * @return Base64-encoded encrypted data
+     * @return Versioned, Base64-encoded encrypted data
      */
     public String encryptMetadata(String plaintext) {
         try {
             if (plaintext == null || plaintext.isEmpty()) {
                 return plaintext;
             }
-            
-            log.debug("Encrypting payment metadata");
-            
-            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey());
-            
-            byte[] encryptedBytes = cipher.doFinal(plaintext.getBytes());
-            String encryptedData = Base64.getEncoder().encodeToString(encryptedBytes);
-            
-            log.debug("Metadata encrypted successfully (length: {})", encryptedData.length());
-            
-            return encryptedData;
-            
+            return encrypt(plaintext);
         } catch (Exception e) {
             log.error("Failed to encrypt payment metadata", e);
             throw new RuntimeException("Encryption failed", e);
@@ -115,9 +200,10 @@ public class PaymentEncryption {
     
     /**
      * Decrypt previously encrypted payment metadata
-     * Called when retrieving metadata from database
+     * Called when retrieving metadata from database; reads both the versioned
+     * format and legacy AES/ECB values
      * 
-     * @param encryptedData Base64-encoded encrypted data
+     * @param encryptedData Encrypted data
      * @return Decrypted plaintext metadata
      */
     public String decryptMetadata(String encryptedData) {
@@ -125,22 +211,9 @@ public class PaymentEncryption {
             if (encryptedData == null || encryptedData.isEmpty()) {
                 return encryptedData;
             }
-            
-            log.debug("Decrypting payment metadata");
-            
-            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, getSecretKey());
-            
-            byte[] encryptedBytes = Base64.getDecoder().decode(encryptedData);
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
-            String decryptedData = new String(decryptedBytes);
-            
-            log.debug("Metadata decrypted successfully");
-            
-            return decryptedData;
-            
+            return decrypt(encryptedData);
         } catch (IllegalArgumentException e) {
-            log.error("Invalid Base64 encoding for encrypted data", e);
+            log.error("Invalid encrypted data format", e);
             throw new RuntimeException("Invalid encrypted data format", e);
         } catch (Exception e) {
             log.error("Failed to decrypt payment metadata", e);
@@ -148,6 +221,109 @@ public class PaymentEncryption {
         }
     }
     
+    /**
+     * Encrypt many values on the calling thread; null/empty entries pass through
+     */
+    public List<String> encryptAll(List<String> plaintexts) {
+        List<String> result = new ArrayList<>(plaintexts.size());
+        try {
+            for (String plaintext : plaintexts) {
+                result.add(plaintext == null || plaintext.isEmpty() ? plaintext : encrypt(plaintext));
+            }
+        } catch (GeneralSecurityException e) {
+            log.error("Failed to encrypt payment metadata batch at item {}", result.size(), e);
+            throw new RuntimeException("Encryption failed", e);
+        }
+        return result;
+    }
+    
+    /**
+     * Decrypt many values on the calling thread; null/empty entries pass through
+     */
+    public List<String> decryptAll(List<String> encrypted) {
+        List<String> result = new ArrayList<>(encrypted.size());
+        try {
+            for (String value : encrypted) {
+                result.add(value == null || value.isEmpty() ? value : decrypt(value));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.error("Failed to decrypt payment metadata batch at item {}", result.size(), e);
+            throw new RuntimeException("Decryption failed", e);
+        }
+        return result;
+    }
+    
+    /**
+     * True when a stored value is not in the current format/key and should be rewritten
+     */
+    public boolean needsReEncryption(String encryptedData) {
+        return encryptedData != null && !encryptedData.isEmpty() && !encryptedData.startsWith(headerText);
+    }
+    
+    /**
+     * Decrypt with whichever ring key wrote the value and encrypt under the current key;
+     * values already current are returned unchanged
+     */
+    public String reEncrypt(String encryptedData) throws GeneralSecurityException {
+        if (!needsReEncryption(encryptedData)) {
+            return encryptedData;
+        }
+        return encrypt(decrypt(encryptedData));
+    }
+    
+    private String encrypt(String plaintext) throws GeneralSecurityException {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        NONCE_SOURCE.get().nextBytes(nonce);
+        
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+        cipher.updateAAD(header);
+        
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[NONCE_LENGTH + cipher.getOutputSize(input.length)];
+        System.arraycopy(nonce, 0, payload, 0, NONCE_LENGTH);
+        int written = cipher.doFinal(input, 0, input.length, payload, NONCE_LENGTH);
+        
+        int length = NONCE_LENGTH + written;
+        String encoded = Base64.getEncoder().encodeToString(
+                length == payload.length ? payload : Arrays.copyOf(payload, length));
+        return headerText + encoded;
+    }
+    
+    private String decrypt(String encryptedData) throws GeneralSecurityException {
+        if (!encryptedData.startsWith(VERSION_PREFIX)) {
+            return decryptLegacy(encryptedData);
+        }
+        
+        int separator = encryptedData.indexOf(':', VERSION_PREFIX.length());
+        if (separator < 0) {
+            throw new IllegalArgumentException("Missing key id in encrypted value");
+        }
+        String valueKeyId = encryptedData.substring(VERSION_PREFIX.length(), separator);
+        SecretKey key = keyRing.get(valueKeyId);
+        if (key == null) {
+            throw new GeneralSecurityException("Unknown encryption key id: " + valueKeyId);
+        }
+        
+        byte[] payload = Base64.getDecoder().decode(encryptedData.substring(separator + 1));
+        if (payload.length < NONCE_LENGTH + TAG_LENGTH_BITS / 8) {
+            throw new IllegalArgumentException("Encrypted value is too short");
+        }
+        
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, NONCE_LENGTH));
+        cipher.updateAAD(encryptedData.substring(0, separator + 1).getBytes(StandardCharsets.US_ASCII));
+        byte[] plain = cipher.doFinal(payload, NONCE_LENGTH, payload.length - NONCE_LENGTH);
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+    
+    private String decryptLegacy(String encryptedData) throws GeneralSecurityException {
+        Cipher cipher = LEGACY_CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, legacyKey);
+        byte[] plain = cipher.doFinal(Base64.getDecoder().decode(encryptedData));
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+    
     /**
      * Encrypt sensitive fields in payment request
      * Used to securely store cardholder name or other sensitive info
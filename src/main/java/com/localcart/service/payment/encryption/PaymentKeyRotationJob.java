@@ -0,0 +1,290 @@
+package com.localcart.service.payment.encryption;
+
+import com.localcart.entity.JobCheckpoint;
+import com.localcart.repository.JobCheckpointRepository;
+import com.localcart.service.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payment Key Rotation Job
+ *
+ * Rewrites payments.metadata under the current encryption key after
+ * payment.encryption.key / key-id change (the old key goes into
+ * payment.encryption.previous-keys so it can still decrypt).
+ *
+ * Rows are streamed in keyset chunks (id > last id, only values not already under the
+ * current key), re-encrypted in parallel on a bounded fork-join pool and written with one
+ * JDBC batch per chunk. Each update is guarded on the value read, so a row changed
+ * meanwhile is skipped. Progress is checkpointed per key id in job_checkpoints after
+ * every chunk, so a restart or failover resumes where it stopped. When a pass reaches
+ * the end and rows are still under an old key (changed concurrently or not decryptable),
+ * the next run starts again from id 0, visiting only those rows; otherwise the
+ * checkpoint watermark marks the key as done.
+ *
+ * Throttled by payment.encryption.rotation.max-rows-per-second (0 = unthrottled) and
+ * can be paused at runtime. The pause flag lives on the checkpoint row, so it reaches
+ * whichever node holds the lease; the pass stops at its next chunk boundary.
+ */
+@Slf4j
+@Component
+public class PaymentKeyRotationJob {
+
+    private static final String JOB_PREFIX = "payment-key-rotation:";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final PaymentEncryption paymentEncryption;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.encryption.rotation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.encryption.rotation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${payment.encryption.rotation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${payment.encryption.rotation.max-rows-per-second:2000}")
+    private volatile int maxRowsPerSecond;
+
+    private ForkJoinPool pool;
+    private volatile boolean running;
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicLong rewritten = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public PaymentKeyRotationJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 JobCheckpointRepository jobCheckpointRepository,
+                                 PaymentEncryption paymentEncryption, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.paymentEncryption = paymentEncryption;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        Gauge.builder("payment.encryption.rotation.last_id", lastId, AtomicLong::get)
+                .description("Highest payment id processed by the current rotation pass")
+                .register(meterRegistry);
+        Gauge.builder("payment.encryption.rotation.running", this, job -> job.running ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs a rotation pass; a pass continues from the checkpoint until every row is
+     * under the current key, or until paused
+     */
+    @ClusterSingleton(value = "payment-key-rotation", leaseMillis = 300_000, minHoldMillis = 0)
+    @Scheduled(fixedDelayString = "${payment.encryption.rotation.interval-ms:600000}",
+               initialDelayString = "${payment.encryption.rotation.initial-delay-ms:60000}")
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+
+        String jobName = JOB_PREFIX + paymentEncryption.getCurrentKeyId();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobName(jobName)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(jobName).lastId(0L).build());
+        if (Boolean.TRUE.equals(checkpoint.getPaused())) {
+            log.debug("Payment key rotation to {} is paused", paymentEncryption.getCurrentKeyId());
+            return;
+        }
+        if (checkpoint.getWatermark() != null) {
+            log.debug("Payment metadata already rotated to key {}", paymentEncryption.getCurrentKeyId());
+            return;
+        }
+
+        running = true;
+        long afterId = checkpoint.getLastId() != null ? checkpoint.getLastId() : 0L;
+        lastId.set(afterId);
+        String likeCurrent = paymentEncryption.getCurrentHeader().replace("_", "\\_") + "%";
+        log.info("Payment key rotation to {} starting after payment {}", paymentEncryption.getCurrentKeyId(), afterId);
+
+        try {
+            while (!isPaused(jobName)) {
+                long chunkStart = System.nanoTime();
+                List<Row> rows = jdbcTemplate.query("""
+                        SELECT id, metadata FROM payments
+                        WHERE id > ? AND metadata IS NOT NULL AND metadata <> ''
+                          AND metadata NOT LIKE ?
+                        ORDER BY id
+                        LIMIT ?
+                        """,
+                        (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("metadata")),
+                        afterId, likeCurrent, chunkSize);
+
+                if (rows.isEmpty()) {
+                    Long remaining = jdbcTemplate.queryForObject("""
+                            SELECT COUNT(*) FROM payments
+                            WHERE metadata IS NOT NULL AND metadata <> '' AND metadata NOT LIKE ?
+                            """, Long.class, likeCurrent);
+                    if (remaining == null || remaining == 0) {
+                        checkpoint.setWatermark(LocalDateTime.now());
+                        log.info("Payment key rotation to {} complete ({} rows rewritten)",
+                                paymentEncryption.getCurrentKeyId(), rewritten.get());
+                    } else {
+                        checkpoint.setLastId(0L);
+                        log.warn("Payment key rotation pass to {} left {} rows under old keys, retrying them on the next run",
+                                paymentEncryption.getCurrentKeyId(), remaining);
+                    }
+                    transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(checkpoint));
+                    return;
+                }
+
+                List<Object[]> updates = reEncrypt(rows);
+                afterId = rows.get(rows.size() - 1).id();
+                long chunkLastId = afterId;
+                int written = transactionTemplate.execute(status -> {
+                    int count = 0;
+                    if (!updates.isEmpty()) {
+                        for (int result : jdbcTemplate.batchUpdate(
+                                "UPDATE payments SET metadata = ? WHERE id = ? AND metadata = ?", updates)) {
+                            count += Math.max(result, 0);
+                        }
+                    }
+                    checkpoint.setLastId(chunkLastId);
+                    jobCheckpointRepository.save(checkpoint);
+                    return count;
+                });
+
+                lastId.set(afterId);
+                rewritten.addAndGet(written);
+                meterRegistry.counter("payment.encryption.rotation.rows", "outcome", "rewritten").increment(written);
+                meterRegistry.counter("payment.encryption.rotation.rows", "outcome", "changed_concurrently")
+                        .increment(updates.size() - written);
+                meterRegistry.counter("payment.encryption.rotation.chunks").increment();
+
+                throttle(rows.size(), System.nanoTime() - chunkStart);
+            }
+            log.info("Payment key rotation paused after payment {}", afterId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment key rotation interrupted after payment {}", afterId);
+        } catch (Exception e) {
+            log.error("Payment key rotation failed after payment {}, will resume from checkpoint", afterId, e);
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Re-encrypts a chunk on the fork-join pool; returns {new, id, old} batch arguments
+     */
+    private List<Object[]> reEncrypt(List<Row> rows) throws InterruptedException, ExecutionException {
+        List<Object[]> results = pool.submit(() -> rows.parallelStream()
+                .map(this::reEncrypt)
+                .toList()).get();
+        List<Object[]> updates = new ArrayList<>(results.size());
+        for (Object[] update : results) {
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+        return updates;
+    }
+
+    private Object[] reEncrypt(Row row) {
+        try {
+            String rotated = paymentEncryption.reEncrypt(row.metadata());
+            return rotated.equals(row.metadata()) ? null : new Object[] {rotated, row.id(), row.metadata()};
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            meterRegistry.counter("payment.encryption.rotation.rows", "outcome", "failed").increment();
+            log.warn("Could not re-encrypt metadata of payment {}: {}", row.id(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void throttle(int rows, long elapsedNanos) throws InterruptedException {
+        int limit = maxRowsPerSecond;
+        if (limit <= 0) {
+            return;
+        }
+        long budgetNanos = TimeUnit.SECONDS.toNanos(rows) / limit;
+        long sleepNanos = budgetNanos - elapsedNanos;
+        if (sleepNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    /**
+     * Pauses rotation to the current key on every node; a running pass stops at its next
+     * chunk boundary
+     */
+    public void pause() {
+        setPaused(true);
+    }
+
+    public void resume() {
+        setPaused(false);
+    }
+
+    private void setPaused(boolean paused) {
+        jdbcTemplate.update("""
+                INSERT INTO job_checkpoints (job_name, last_id, paused) VALUES (?, 0, ?)
+                ON CONFLICT (job_name) DO UPDATE SET paused = EXCLUDED.paused, updated_at = CURRENT_TIMESTAMP
+                """, JOB_PREFIX + paymentEncryption.getCurrentKeyId(), paused);
+    }
+
+    private boolean isPaused(String jobName) {
+        List<Boolean> paused = jdbcTemplate.queryForList(
+                "SELECT paused FROM job_checkpoints WHERE job_name = ?", Boolean.class, jobName);
+        return !paused.isEmpty() && Boolean.TRUE.equals(paused.get(0));
+    }
+
+    public void setMaxRowsPerSecond(int maxRowsPerSecond) {
+        this.maxRowsPerSecond = Math.max(0, maxRowsPerSecond);
+    }
+
+    /**
+     * Snapshot for the admin API
+     */
+    public Status getStatus() {
+        String jobName = JOB_PREFIX + paymentEncryption.getCurrentKeyId();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobName(jobName).orElse(null);
+        return new Status(
+                paymentEncryption.getCurrentKeyId(),
+                enabled,
+                running,
+                checkpoint != null && Boolean.TRUE.equals(checkpoint.getPaused()),
+                maxRowsPerSecond,
+                checkpoint != null && checkpoint.getLastId() != null ? checkpoint.getLastId() : 0L,
+                checkpoint != null ? checkpoint.getWatermark() : null,
+                rewritten.get(),
+                failed.get());
+    }
+
+    private record Row(long id, String metadata) {
+    }
+
+    public record Status(String keyId, boolean enabled, boolean running, boolean paused, int maxRowsPerSecond,
+                         long lastId, LocalDateTime completedAt, long rewritten, long failed) {
+    }
+}
@@ -16,6 +16,7 @@ public class PaymentGatewayResponse {
     
     private String transactionId; // Gateway's transaction ID
     private String status; // SUCCESS, PENDING, FAILED, CANCELLED
+    private Boolean providerConfirmed; // true only when status was read back from the provider (not a stub default)
     private String statusCode; // Confirmation code from gateway
     
     // Payment details
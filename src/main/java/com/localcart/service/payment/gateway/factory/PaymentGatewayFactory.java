@@ -2,15 +2,25 @@ package com.localcart.service.payment.gateway.factory;
 
 import com.localcart.entity.enums.PaymentProvider;
 import com.localcart.service.payment.gateway.PaymentGateway;
+import com.localcart.service.payment.gateway.resilience.ResilienceSettings;
+import com.localcart.service.payment.gateway.resilience.ResilientPaymentGateway;
 import com.localcart.exception.PaymentException;
+import com.localcart.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +38,9 @@ import java.util.Map;
  * - Add new provider without modifying this class
  * - Each provider is independent Spring component
  * - Configuration-driven provider selection
+ * 
+ * Every registered gateway is wrapped in a ResilientPaymentGateway (bulkhead, call
+ * deadline, circuit breaker), so callers always get the guarded instance.
  */
 @Slf4j
 @Component
@@ -45,10 +58,26 @@ public class PaymentGatewayFactory {
     // @Autowired(required = false) @Qualifier("paypalPaymentGateway") 
     // private PaymentGateway paypalPaymentGateway;
     
-    private final Map<PaymentProvider, PaymentGateway> gateways = new HashMap<>();
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.default_gateway:mock}")
+    private String configuredDefaultProvider;
+    
+    // Providers allowed to take over when the preferred one fails; empty = no fallback
+    @Value("${payment.gateway.fallback-providers:}")
+    private List<String> configuredFallbackProviders;
+    
+    // EnumMap keeps provider iteration order stable (declaration order of PaymentProvider)
+    private final Map<PaymentProvider, ResilientPaymentGateway> gateways = new EnumMap<>(PaymentProvider.class);
     
     private PaymentProvider defaultProvider = PaymentProvider.MOCK;
     
+    private final List<PaymentProvider> fallbackProviders = new ArrayList<>();
+    
     /**
      * Initialize factory after beans are created
      * Called automatically by Spring
@@ -73,7 +102,41 @@ public class PaymentGatewayFactory {
         // register(PaymentProvider.PAYPAL, paypalPaymentGateway);
         // register(PaymentProvider.RAZORPAY, razorpayPaymentGateway);
         
-        log.info("Payment Gateway Factory initialized with {} providers", gateways.size());
+        try {
+            PaymentProvider configured = PaymentProvider.fromValue(configuredDefaultProvider);
+            if (gateways.containsKey(configured)) {
+                defaultProvider = configured;
+            } else {
+                log.warn("Configured default payment gateway {} is not registered, using {}", configured, defaultProvider);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown payment.default_gateway '{}', using {}", configuredDefaultProvider, defaultProvider);
+        }
+        
+        for (String value : configuredFallbackProviders) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            try {
+                PaymentProvider provider = PaymentProvider.fromValue(value.trim());
+                // The mock approves everything: never let it take over real payments
+                if (provider == PaymentProvider.MOCK && defaultProvider != PaymentProvider.MOCK) {
+                    log.warn("Ignoring mock in payment.gateway.fallback-providers (default is {})", defaultProvider);
+                } else if (!fallbackProviders.contains(provider)) {
+                    fallbackProviders.add(provider);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown provider '{}' in payment.gateway.fallback-providers", value);
+            }
+        }
+        
+        log.info("Payment Gateway Factory initialized with {} providers (default: {}, fallback: {})",
+                gateways.size(), defaultProvider, fallbackProviders);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        gateways.values().forEach(ResilientPaymentGateway::shutdown);
     }
     
     /**
@@ -84,7 +147,7 @@ public class PaymentGatewayFactory {
      * @throws PaymentException if provider not registered
      */
     public PaymentGateway getGateway(PaymentProvider provider) {
-        PaymentGateway gateway = gateways.get(provider);
+        PaymentGateway gateway = provider != null ? gateways.get(provider) : null;
         
         if (gateway == null) {
             log.warn("Payment gateway not found for provider: {}", provider);
@@ -132,10 +195,82 @@ public class PaymentGatewayFactory {
             return;
         }
         
-        gateways.put(provider, gateway);
+        ResilientPaymentGateway resilient = gateway instanceof ResilientPaymentGateway existing
+                ? existing
+                : new ResilientPaymentGateway(provider, gateway, ResilienceSettings.from(environment, provider), meterRegistry);
+        ResilientPaymentGateway previous = gateways.put(provider, resilient);
+        if (previous != null && previous != resilient) {
+            previous.shutdown();
+        }
         log.info("Registered payment gateway for provider: {}", provider);
     }
     
+    /**
+     * Run a gateway call on the preferred provider, falling back to the healthy providers
+     * listed in payment.gateway.fallback-providers (in that order) when it fails.
+     * Only for calls that are safe to repeat elsewhere, i.e. that cannot move money twice
+     * (such as initializing a payment intent); provider-bound calls use getGateway.
+     * 
+     * @param preferred Provider to try first (default provider when null)
+     * @param call Gateway call
+     * @return The result together with the provider that produced it
+     */
+    public <T> ProviderResult<T> executeWithFallback(PaymentProvider preferred, GatewayCall<T> call) throws Exception {
+        PaymentProvider first = preferred != null && gateways.containsKey(preferred) ? preferred : defaultProvider;
+        List<PaymentProvider> candidates = new ArrayList<>();
+        candidates.add(first);
+        for (PaymentProvider provider : fallbackProviders) {
+            ResilientPaymentGateway gateway = gateways.get(provider);
+            if (provider != first && gateway != null && isHealthy(gateway)) {
+                candidates.add(provider);
+            }
+        }
+        
+        Exception lastFailure = null;
+        for (PaymentProvider provider : candidates) {
+            try {
+                T result = call.apply(provider, getGateway(provider));
+                if (provider != first) {
+                    log.warn("Payment call served by fallback provider {} instead of {}", provider, first);
+                    meterRegistry.counter("payment.gateway.fallbacks",
+                            "from", first.getValue(), "to", provider.getValue()).increment();
+                }
+                return new ProviderResult<>(provider, result);
+            } catch (Exception e) {
+                log.warn("Payment call on provider {} failed: {}", provider, e.getMessage());
+                lastFailure = e;
+            }
+        }
+        
+        if (lastFailure != null && candidates.size() == 1) {
+            throw lastFailure;
+        }
+        throw new PaymentGatewayException("No payment provider is currently available",
+                "NO_PROVIDER_AVAILABLE", lastFailure);
+    }
+    
+    private boolean isHealthy(PaymentGateway gateway) {
+        try {
+            return gateway.isHealthy();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Gateway call that may be retried on another provider
+     */
+    @FunctionalInterface
+    public interface GatewayCall<T> {
+        T apply(PaymentProvider provider, PaymentGateway gateway) throws Exception;
+    }
+    
+    /**
+     * Result of a gateway call and the provider that served it
+     */
+    public record ProviderResult<T>(PaymentProvider provider, T value) {
+    }
+    
     /**
      * Set default payment gateway provider
      * 
@@ -162,6 +297,16 @@ public class PaymentGatewayFactory {
         return defaultProvider;
     }
     
+    /**
+     * Get the providers allowed to take over from the preferred one, in fallback order
+     * 
+     * @return Fallback providers from payment.gateway.fallback-providers (mock excluded
+     *         unless it is the default)
+     */
+    public List<PaymentProvider> getFallbackProviders() {
+        return List.copyOf(fallbackProviders);
+    }
+    
     /**
      * Check if provider is available
      * 
@@ -199,7 +344,7 @@ public class PaymentGatewayFactory {
     public Map<PaymentProvider, Boolean> checkAllGatewayHealth() {
         Map<PaymentProvider, Boolean> healthStatus = new HashMap<>();
         
-        for (Map.Entry<PaymentProvider, PaymentGateway> entry : gateways.entrySet()) {
+        for (Map.Entry<PaymentProvider, ResilientPaymentGateway> entry : gateways.entrySet()) {
             try {
                 boolean isHealthy = entry.getValue().isHealthy();
                 healthStatus.put(entry.getKey(), isHealthy);
@@ -0,0 +1,76 @@
+package com.localcart.service.payment.gateway.impl;
+
+import com.localcart.service.payment.gateway.impl.MockGatewaySimulation.LatencyModel;
+import com.localcart.service.payment.gateway.impl.MockGatewaySimulation.Settings;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Actuator endpoint to change the mock gateway simulation at runtime
+ *
+ * GET    /actuator/mockgateway  - current settings
+ * POST   /actuator/mockgateway  - change any subset, e.g.
+ *        {"latency": "LOG_NORMAL", "medianMs": 150, "p99Ms": 2000, "failureRates": "process=2,refund=1"}
+ *        (outage windows restart from the moment of the update)
+ * DELETE /actuator/mockgateway  - back to the configured properties
+ *
+ * Only registered when payment.mock.simulation.endpoint-enabled=true (perf environments);
+ * it also has to be listed in management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "mockgateway")
+@ConditionalOnProperty(name = "payment.mock.simulation.endpoint-enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MockGatewayEndpoint {
+
+    private final MockGatewaySimulation simulation;
+
+    @ReadOperation
+    public Settings settings() {
+        return simulation.getSettings();
+    }
+
+    @WriteOperation
+    public Settings update(@Nullable Boolean enabled,
+                           @Nullable String latency,
+                           @Nullable Long fixedMs,
+                           @Nullable Long minMs,
+                           @Nullable Long maxMs,
+                           @Nullable Long medianMs,
+                           @Nullable Long p99Ms,
+                           @Nullable String failureRates,
+                           @Nullable Double timeoutRate,
+                           @Nullable Long timeoutMs,
+                           @Nullable String outages,
+                           @Nullable Double successRate) {
+        Settings current = simulation.getSettings();
+        return simulation.apply(new Settings(
+                enabled != null ? enabled : current.enabled(),
+                latency != null ? LatencyModel.valueOf(latency.trim().toUpperCase(Locale.ROOT)) : current.latency(),
+                fixedMs != null ? fixedMs : current.fixedMs(),
+                minMs != null ? minMs : current.minMs(),
+                maxMs != null ? maxMs : current.maxMs(),
+                medianMs != null ? medianMs : current.medianMs(),
+                p99Ms != null ? p99Ms : current.p99Ms(),
+                failureRates != null ? MockGatewaySimulation.parseRates(failureRates) : current.failureRates(),
+                timeoutRate != null ? timeoutRate : current.timeoutRate(),
+                timeoutMs != null ? timeoutMs : current.timeoutMs(),
+                outages != null ? MockGatewaySimulation.parseOutages(outages) : current.outages(),
+                successRate != null ? successRate : current.successRate(),
+                Instant.now()));
+    }
+
+    @DeleteOperation
+    public Settings reset() {
+        return simulation.reset();
+    }
+}
@@ -0,0 +1,254 @@
+package com.localcart.service.payment.gateway.impl;
+
+import com.localcart.exception.PaymentGatewayException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mock Gateway Simulation
+ *
+ * Makes MockPaymentGateway behave like a real provider under load: per-call latency
+ * drawn from a FIXED, UNIFORM or LOG_NORMAL distribution (the latter fitted to a
+ * median and a p99 target), per-operation error rates, injected hangs and scripted
+ * outage windows. Settings are one immutable snapshot swapped atomically, so they
+ * can be changed at runtime (see MockGatewayEndpoint) without locking the hot path.
+ *
+ * Outage windows are "startSeconds:durationSeconds" pairs, relative to the moment
+ * the settings were applied, e.g. "60:30,300:120".
+ */
+@Slf4j
+@Component
+public class MockGatewaySimulation {
+
+    public enum LatencyModel {
+        FIXED, UNIFORM, LOG_NORMAL
+    }
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263478740408408;
+
+    @Value("${payment.mock.simulation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.mock.simulation.latency:FIXED}")
+    private LatencyModel latency;
+
+    @Value("${payment.mock.processing-delay:500}")
+    private long fixedMs;
+
+    @Value("${payment.mock.simulation.min-ms:50}")
+    private long minMs;
+
+    @Value("${payment.mock.simulation.max-ms:500}")
+    private long maxMs;
+
+    @Value("${payment.mock.simulation.median-ms:120}")
+    private long medianMs;
+
+    @Value("${payment.mock.simulation.p99-ms:1500}")
+    private long p99Ms;
+
+    @Value("${payment.mock.simulation.failure-rates:}")
+    private String failureRates;
+
+    @Value("${payment.mock.simulation.timeout-rate:0}")
+    private double timeoutRate;
+
+    @Value("${payment.mock.simulation.timeout-ms:60000}")
+    private long timeoutMs;
+
+    @Value("${payment.mock.simulation.outages:}")
+    private String outages;
+
+    @Value("${payment.mock.success-rate:100}")
+    private double successRate;
+
+    private volatile Settings settings;
+
+    @PostConstruct
+    public void init() {
+        reset();
+    }
+
+    /**
+     * Back to the configured properties
+     */
+    public Settings reset() {
+        return apply(new Settings(enabled, latency, fixedMs, minMs, maxMs, medianMs, p99Ms,
+                parseRates(failureRates), timeoutRate, timeoutMs, parseOutages(outages), successRate,
+                Instant.now()));
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public Settings apply(Settings updated) {
+        validate(updated);
+        this.settings = updated;
+        log.info("Mock gateway simulation {}: latency={} failures={} timeoutRate={}% outages={}",
+                updated.enabled() ? "enabled" : "disabled", updated.latency(), updated.failureRates(),
+                updated.timeoutRate(), updated.outages());
+        return updated;
+    }
+
+    /**
+     * Runs before every mock operation: sleeps for the simulated latency and throws
+     * for outages, injected errors and (after hanging) injected timeouts
+     */
+    public void beforeCall(String operation) throws InterruptedException {
+        Settings current = settings;
+        if (current == null || !current.enabled()) {
+            return;
+        }
+
+        if (current.inOutage(Instant.now())) {
+            throw new PaymentGatewayException("Mock gateway outage (simulated)", "MOCK_OUTAGE");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (current.timeoutRate() > 0 && random.nextDouble(100) < current.timeoutRate()) {
+            Thread.sleep(current.timeoutMs());
+            throw new PaymentGatewayException("Mock gateway timed out (simulated)", "MOCK_TIMEOUT");
+        }
+
+        long delay = current.sampleLatencyMs(random);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+
+        double failureRate = current.failureRates().getOrDefault(operation,
+                current.failureRates().getOrDefault("*", 0.0));
+        if (failureRate > 0 && random.nextDouble(100) < failureRate) {
+            throw new PaymentGatewayException("Mock gateway error on " + operation + " (simulated)", "MOCK_ERROR");
+        }
+    }
+
+    /**
+     * True while a scripted outage window is open
+     */
+    public boolean isInOutage() {
+        Settings current = settings;
+        return current != null && current.enabled() && current.inOutage(Instant.now());
+    }
+
+    /**
+     * True when a payment should be declined (payment.mock.success-rate)
+     */
+    public boolean shouldDecline() {
+        Settings current = settings;
+        return current != null && current.successRate() < 100
+                && ThreadLocalRandom.current().nextDouble(100) >= current.successRate();
+    }
+
+    static Map<String, Double> parseRates(String spec) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return rates;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Failure rates must be operation=percent: " + entry);
+            }
+            rates.put(parts[0].trim().toLowerCase(Locale.ROOT), Double.parseDouble(parts[1].trim()));
+        }
+        return rates;
+    }
+
+    static List<Outage> parseOutages(String spec) {
+        List<Outage> windows = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return windows;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Outage windows must be startSeconds:durationSeconds: " + entry);
+            }
+            windows.add(new Outage(Duration.ofSeconds(Long.parseLong(parts[0].trim())),
+                    Duration.ofSeconds(Long.parseLong(parts[1].trim()))));
+        }
+        return windows;
+    }
+
+    private static void validate(Settings settings) {
+        if (settings.latency() == LatencyModel.UNIFORM && settings.minMs() > settings.maxMs()) {
+            throw new IllegalArgumentException("min-ms must not exceed max-ms");
+        }
+        if (settings.latency() == LatencyModel.LOG_NORMAL
+                && (settings.medianMs() <= 0 || settings.p99Ms() < settings.medianMs())) {
+            throw new IllegalArgumentException("LOG_NORMAL needs 0 < median-ms <= p99-ms");
+        }
+        for (double rate : settings.failureRates().values()) {
+            if (rate < 0 || rate > 100) {
+                throw new IllegalArgumentException("Failure rates are percentages (0-100)");
+            }
+        }
+        if (settings.timeoutRate() < 0 || settings.timeoutRate() > 100
+                || settings.successRate() < 0 || settings.successRate() > 100) {
+            throw new IllegalArgumentException("timeout-rate and success-rate are percentages (0-100)");
+        }
+    }
+
+    /**
+     * Outage window relative to when the settings were applied
+     */
+    public record Outage(Duration start, Duration duration) {
+    }
+
+    public record Settings(
+            boolean enabled,
+            LatencyModel latency,
+            long fixedMs,
+            long minMs,
+            long maxMs,
+            long medianMs,
+            long p99Ms,
+            Map<String, Double> failureRates,
+            double timeoutRate,
+            long timeoutMs,
+            List<Outage> outages,
+            double successRate,
+            Instant appliedAt) {
+
+        public Settings {
+            failureRates = Map.copyOf(failureRates);
+            outages = List.copyOf(outages);
+        }
+
+        boolean inOutage(Instant now) {
+            for (Outage outage : outages) {
+                Instant start = appliedAt.plus(outage.start());
+                if (!now.isBefore(start) && now.isBefore(start.plus(outage.duration()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long sampleLatencyMs(ThreadLocalRandom random) {
+            return switch (latency) {
+                case FIXED -> fixedMs;
+                case UNIFORM -> minMs == maxMs ? minMs : random.nextLong(minMs, maxMs + 1);
+                case LOG_NORMAL -> {
+                    // median = e^mu, p99 = e^(mu + 2.326 sigma)
+                    double mu = Math.log(medianMs);
+                    double sigma = Math.log((double) p99Ms / medianMs) / Z_99;
+                    yield Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+                }
+            };
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.localcart.service.payment.gateway.PaymentGateway;
 import com.localcart.service.payment.gateway.PaymentGatewayResponse;
 import com.localcart.service.payment.gateway.PaymentMethodDetails;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,7 +16,8 @@ import java.util.UUID;
 
 /**
  * Mock/Development Payment Gateway
- * Used for testing without actual payment processing
+ * Used for testing without actual payment processing.
+ * Latency, errors, hangs and outages can be simulated for load tests (MockGatewaySimulation).
  */
 @Slf4j
 @Component
@@ -27,6 +29,18 @@ public class MockPaymentGateway implements PaymentGateway {
     @Value("${payment.mock.auto-approve:true}")
     private Boolean autoApprove;
     
+    @Autowired
+    private MockGatewaySimulation simulation;
+    
+    // Share of transactions (0-100%) whose verified state drifts from what we recorded,
+    // so reconciliation can be exercised offline; chosen per transaction id, so stable
+    @Value("${payment.mock.drift-rate:0}")
+    private int driftRate;
+    
+    // Status verifyPayment reports for drifted transactions (FAILED, CANCELLED, PENDING)
+    @Value("${payment.mock.drift-status:FAILED}")
+    private String driftStatus;
+    
     @Override
     public PaymentGatewayResponse initializePayment(PaymentRequest request) throws Exception {
         if (!mockEnabled) {
@@ -34,6 +48,7 @@ public class MockPaymentGateway implements PaymentGateway {
         }
         
         log.info("Mock: Initializing payment for order: {}, amount: {}", request.getOrderNumber(), request.getAmount());
+        simulation.beforeCall("initialize");
         
         String transactionId = "mock_" + UUID.randomUUID().toString().substring(0, 24);
         
@@ -49,8 +64,9 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public PaymentGatewayResponse processPayment(String transactionId, PaymentRequest request) throws Exception {
         log.info("Mock: Processing payment: {}", transactionId);
+        simulation.beforeCall("process");
         
-        if (autoApprove) {
+        if (autoApprove && !simulation.shouldDecline()) {
             return PaymentGatewayResponse.builder()
                     .transactionId(transactionId)
                     .status("SUCCESS")
@@ -76,6 +92,19 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public PaymentGatewayResponse verifyPayment(String transactionId) throws Exception {
         log.info("Mock: Verifying payment: {}", transactionId);
+        simulation.beforeCall("verify");
+        
+        if (driftRate > 0 && Math.floorMod(transactionId.hashCode(), 100) < driftRate) {
+            log.info("Mock: Reporting drifted status {} for payment: {}", driftStatus, transactionId);
+            return PaymentGatewayResponse.builder()
+                    .transactionId(transactionId)
+                    .status(driftStatus)
+                    .providerConfirmed(true)
+                    .errorCode("MOCK_DRIFT")
+                    .errorMessage("Mock gateway reports " + driftStatus + " (simulated drift)")
+                    .processedAt(LocalDateTime.now())
+                    .build();
+        }
         
         return PaymentGatewayResponse.builder()
                 .transactionId(transactionId)
@@ -87,6 +116,7 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public PaymentGatewayResponse refundPayment(String transactionId, BigDecimal refundAmount, String reason) throws Exception {
         log.info("Mock: Refunding payment: {}, amount: {}", transactionId, refundAmount);
+        simulation.beforeCall("refund");
         
         String refundId = "mock_refund_" + UUID.randomUUID().toString().substring(0, 20);
         
@@ -102,6 +132,7 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public String tokenizeCard(String cardNumber, String expiryMonth, String expiryYear, String cvv) throws Exception {
         log.info("Mock: Tokenizing card");
+        simulation.beforeCall("tokenize");
         
         return "mock_token_" + UUID.randomUUID().toString().substring(0, 20);
     }
@@ -109,6 +140,7 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public PaymentGatewayResponse chargeToken(String token, BigDecimal amount, String currency, String description) throws Exception {
         log.info("Mock: Charging token: {}, amount: {}", token, amount);
+        simulation.beforeCall("charge_token");
         
         String transactionId = "mock_" + UUID.randomUUID().toString().substring(0, 24);
         
@@ -124,6 +156,7 @@ public class MockPaymentGateway implements PaymentGateway {
     @Override
     public PaymentMethodDetails getPaymentMethodDetails(String transactionId) throws Exception {
         log.info("Mock: Getting payment method details: {}", transactionId);
+        simulation.beforeCall("method_details");
         
         return PaymentMethodDetails.builder()
                 .type("CARD")
@@ -137,6 +170,6 @@ public class MockPaymentGateway implements PaymentGateway {
     
     @Override
     public boolean isHealthy() {
-        return mockEnabled;
+        return mockEnabled && !simulation.isInOutage();
     }
 }
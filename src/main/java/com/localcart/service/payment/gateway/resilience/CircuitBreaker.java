@@ -0,0 +1,154 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one payment provider
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens once at least
+ * {@code minimumCalls} were recorded and the failure rate reaches the threshold. OPEN rejects
+ * every call until {@code openDurationMs} has passed, then HALF_OPEN lets up to
+ * {@code halfOpenProbes} calls through: all of them succeeding closes the circuit, any
+ * failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> listener;
+
+    // Ring buffer of recent outcomes (true = failure), guarded by this
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                          long openDurationMs, int halfOpenProbes,
+                          LongSupplier clock, BiConsumer<State, State> listener) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.clock = clock;
+        this.listener = listener;
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * True when a call may proceed right now; callers that get true must report back through
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Open or half-open circuits are not offered as fallback targets until their wait is over
+     */
+    public synchronized boolean isCallPermitted() {
+        return state == State.CLOSED
+            || (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMs)
+            || (state == State.HALF_OPEN && probesInFlight + probesSucceeded < halfOpenProbes);
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Releases a permission without recording an outcome (e.g. the bulkhead rejected the call)
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        if (previous == target) {
+            return;
+        }
+        state = target;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAt = clock.getAsLong();
+        }
+        if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+        listener.accept(previous, target);
+    }
+}
@@ -0,0 +1,46 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiter for calls to one payment provider
+ *
+ * Each permit reserves the next free slot, spaced 1/permitsPerSecond apart; up to
+ * {@code burst} unused slots accumulate while idle. Callers sleep until their slot,
+ * or give up without reserving when it is further away than their timeout.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long maxBurstNanos;
+    private long nextFreeNanos;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.maxBurstNanos = intervalNanos * Math.max(1, burst);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits for a permit for at most timeoutMs; false if none could be reserved in time
+     */
+    public boolean tryAcquire(long timeoutMs) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextFreeNanos, now - maxBurstNanos + intervalNanos);
+            waitNanos = slot - now;
+            if (waitNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+                return false;
+            }
+            nextFreeNanos = slot + intervalNanos;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+}
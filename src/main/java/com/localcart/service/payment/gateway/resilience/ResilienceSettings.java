@@ -0,0 +1,41 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import com.localcart.entity.enums.PaymentProvider;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-provider resilience limits
+ *
+ * Read from payment.gateway.resilience.{provider}.* with payment.gateway.resilience.* as the
+ * shared default, e.g. payment.gateway.resilience.stripe.call-timeout-ms=8000.
+ */
+public record ResilienceSettings(
+        int maxConcurrentCalls,
+        long maxWaitMs,
+        long callTimeoutMs,
+        int windowSize,
+        int minimumCalls,
+        int failureRateThreshold,
+        long openDurationMs,
+        int halfOpenProbes) {
+
+    private static final String PREFIX = "payment.gateway.resilience.";
+
+    public static ResilienceSettings from(Environment environment, PaymentProvider provider) {
+        return new ResilienceSettings(
+                get(environment, provider, "max-concurrent-calls", Integer.class, 20),
+                get(environment, provider, "max-wait-ms", Long.class, 50L),
+                get(environment, provider, "call-timeout-ms", Long.class, 10_000L),
+                get(environment, provider, "window-size", Integer.class, 20),
+                get(environment, provider, "minimum-calls", Integer.class, 10),
+                get(environment, provider, "failure-rate-threshold", Integer.class, 50),
+                get(environment, provider, "open-duration-ms", Long.class, 30_000L),
+                get(environment, provider, "half-open-probes", Integer.class, 3));
+    }
+
+    private static <T> T get(Environment environment, PaymentProvider provider, String key,
+                             Class<T> type, T defaultValue) {
+        T shared = environment.getProperty(PREFIX + key, type, defaultValue);
+        return environment.getProperty(PREFIX + provider.getValue() + "." + key, type, shared);
+    }
+}
@@ -0,0 +1,302 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import com.localcart.dto.payment.PaymentRequest;
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.exception.PaymentGatewayException;
+import com.localcart.service.payment.gateway.PaymentGateway;
+import com.localcart.service.payment.gateway.PaymentGatewayResponse;
+import com.localcart.service.payment.gateway.PaymentMethodDetails;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resilient Payment Gateway
+ *
+ * Decorates one provider's gateway with:
+ * - a bulkhead: at most maxConcurrentCalls calls in flight, callers wait maxWaitMs for a slot
+ * - a deadline: calls run on the provider's own pool and are abandoned after callTimeoutMs
+ * - a circuit breaker that fails fast while the provider keeps failing. Only transport
+ *   errors, timeouts and gateway errors count as failures; declines and validation errors
+ *   are answers from a healthy provider and count as successful calls
+ *
+ * A bulkhead slot is only freed when the delegate actually returns, so a provider that
+ * ignores interrupts after a timeout keeps its slot and cannot pile up more threads.
+ *
+ * Calls that move money (process, charge_token, refund) have no deadline. Abandoning one
+ * would leave it running at the provider with no local record of the outcome, and a retry
+ * would charge or refund twice. They run to completion on the caller's thread, bounded by
+ * the bulkhead, the circuit and the provider client's own timeouts.
+ *
+ * Fail-fast rejections are PaymentGatewayException with gateway codes CIRCUIT_OPEN,
+ * BULKHEAD_FULL or (deadline calls only) GATEWAY_TIMEOUT.
+ */
+@Slf4j
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    public static final String BULKHEAD_FULL = "BULKHEAD_FULL";
+    public static final String GATEWAY_TIMEOUT = "GATEWAY_TIMEOUT";
+
+    private final PaymentProvider provider;
+    private final PaymentGateway delegate;
+    private final ResilienceSettings settings;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore bulkhead;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+
+    public ResilientPaymentGateway(PaymentProvider provider, PaymentGateway delegate,
+                                   ResilienceSettings settings, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.delegate = delegate;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(settings.maxConcurrentCalls());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                settings.maxConcurrentCalls(), settings.maxConcurrentCalls(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "payment-" + provider.getValue() + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.circuitBreaker = new CircuitBreaker(
+                settings.windowSize(), settings.minimumCalls(), settings.failureRateThreshold(),
+                settings.openDurationMs(), settings.halfOpenProbes(),
+                System::currentTimeMillis, this::onStateTransition);
+
+        Gauge.builder("payment.gateway.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .tag("provider", provider.getValue())
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("provider", provider.getValue())
+                .register(meterRegistry);
+    }
+
+    public PaymentProvider getProvider() {
+        return provider;
+    }
+
+    public PaymentGateway getDelegate() {
+        return delegate;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * True for rejections raised by this layer rather than by the provider
+     */
+    public static boolean isFailFast(Throwable e) {
+        return e instanceof PaymentGatewayException gatewayException
+                && (CIRCUIT_OPEN.equals(gatewayException.getGatewayErrorCode())
+                    || BULKHEAD_FULL.equals(gatewayException.getGatewayErrorCode()));
+    }
+
+    /**
+     * True for errors that say the provider is unhealthy: transport and timeout errors and
+     * gateway errors that are not declines. Other exceptions (PaymentException validation
+     * errors, bad arguments) are the provider answering normally.
+     */
+    public static boolean isProviderFailure(Throwable e) {
+        if (e instanceof PaymentGatewayException gatewayException) {
+            return !gatewayException.isDeclined();
+        }
+        return e instanceof IOException || e instanceof TimeoutException;
+    }
+
+    @Override
+    public PaymentGatewayResponse initializePayment(PaymentRequest request) throws Exception {
+        return call("initialize", () -> delegate.initializePayment(request));
+    }
+
+    @Override
+    public PaymentGatewayResponse processPayment(String transactionId, PaymentRequest request) throws Exception {
+        return callToCompletion("process", () -> delegate.processPayment(transactionId, request));
+    }
+
+    @Override
+    public PaymentGatewayResponse verifyPayment(String transactionId) throws Exception {
+        return call("verify", () -> delegate.verifyPayment(transactionId));
+    }
+
+    @Override
+    public PaymentGatewayResponse refundPayment(String transactionId, BigDecimal refundAmount, String reason) throws Exception {
+        return callToCompletion("refund", () -> delegate.refundPayment(transactionId, refundAmount, reason));
+    }
+
+    @Override
+    public String tokenizeCard(String cardNumber, String expiryMonth, String expiryYear, String cvv) throws Exception {
+        return call("tokenize", () -> delegate.tokenizeCard(cardNumber, expiryMonth, expiryYear, cvv));
+    }
+
+    @Override
+    public PaymentGatewayResponse chargeToken(String token, BigDecimal amount, String currency, String description) throws Exception {
+        return callToCompletion("charge_token", () -> delegate.chargeToken(token, amount, currency, description));
+    }
+
+    @Override
+    public PaymentMethodDetails getPaymentMethodDetails(String transactionId) throws Exception {
+        return call("method_details", () -> delegate.getPaymentMethodDetails(transactionId));
+    }
+
+    /**
+     * Healthy only while the circuit would let a call through and the provider itself reports healthy
+     */
+    @Override
+    public boolean isHealthy() {
+        return circuitBreaker.isCallPermitted() && delegate.isHealthy();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(String operation, Callable<T> call) throws Exception {
+        acquire(operation);
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return call.call();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.onIgnored();
+            throw new PaymentGatewayException("Payment provider " + provider.getValue() + " is shut down", BULKHEAD_FULL, e);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = future.get(settings.callTimeoutMs(), TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            record(operation, "success", System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            record(operation, "timeout", System.nanoTime() - start);
+            throw new PaymentGatewayException("Payment provider " + provider.getValue() + " did not respond within "
+                    + settings.callTimeoutMs() + " ms", GATEWAY_TIMEOUT, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            onError(operation, cause, start);
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a money-moving call on the caller's thread and waits for the provider's answer
+     */
+    private <T> T callToCompletion(String operation, Callable<T> call) throws Exception {
+        acquire(operation);
+
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            circuitBreaker.onSuccess();
+            record(operation, "success", System.nanoTime() - start);
+            return result;
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        } catch (Exception e) {
+            onError(operation, e, start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Counts an error against the circuit only when it is the provider's fault
+     */
+    private void onError(String operation, Throwable cause, long start) {
+        if (isProviderFailure(cause)) {
+            circuitBreaker.onFailure();
+            record(operation, "failure", System.nanoTime() - start);
+        } else {
+            circuitBreaker.onSuccess();
+            record(operation, "declined", System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Takes a circuit permission and a bulkhead slot, or fails fast
+     */
+    private void acquire(String operation) throws PaymentGatewayException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            record(operation, "rejected_circuit", 0);
+            throw new PaymentGatewayException(
+                    "Payment provider " + provider.getValue() + " is temporarily unavailable", CIRCUIT_OPEN);
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(settings.maxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted waiting for payment provider", BULKHEAD_FULL, e);
+        }
+        if (!acquired) {
+            circuitBreaker.onIgnored();
+            record(operation, "rejected_bulkhead", 0);
+            throw new PaymentGatewayException(
+                    "Payment provider " + provider.getValue() + " is at capacity", BULKHEAD_FULL);
+        }
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder("payment.gateway.calls")
+                .tag("provider", provider.getValue())
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void onStateTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        if (to == CircuitBreaker.State.OPEN) {
+            log.warn("Payment circuit for {} opened ({} -> {})", provider, from, to);
+        } else {
+            log.info("Payment circuit for {} moved {} -> {}", provider, from, to);
+        }
+        meterRegistry.counter("payment.gateway.circuit.transitions",
+                "provider", provider.getValue(), "from", from.name(), "to", to.name()).increment();
+    }
+}
@@ -0,0 +1,27 @@
+package com.localcart.service.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Result of pricing a cart: subtotal before discounts and every discount applied
+ */
+public record CartPricing(BigDecimal subtotal, BigDecimal discount, List<AppliedDiscount> discounts) {
+
+    public BigDecimal total() {
+        return subtotal.subtract(discount).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * The coupon discount, if a coupon code was applied (needs redeeming at checkout)
+     */
+    public Optional<AppliedDiscount> coupon() {
+        return discounts.stream()
+                .filter(applied -> applied.kind() == PricingRule.Kind.COUPON)
+                .findFirst();
+    }
+
+    public record AppliedDiscount(PricingRule.Kind kind, Long ruleId, String code, String title, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.localcart.service.pricing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Effective Price Materializer
+ *
+ * Recomputes products.effective_price with set-based UPDATEs: the base price
+ * (discount price, else list price) lowered by the best OFFER promotion active
+ * at the given instant. Offers match on vendor, optional product, and optional
+ * category including its ancestors (same scoping as {@link PricingRule#appliesTo}).
+ * Offers are per item, so their minimum purchase amount does not apply here.
+ *
+ * Rows whose price does not change are not written.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EffectivePriceMaterializer {
+
+    private static final String RECOMPUTE_SQL = """
+        WITH RECURSIVE scoped AS (
+            SELECT p.id, p.vendor_id, p.category_id, COALESCE(p.discount_price, p.price) AS base_price
+            FROM products p
+            WHERE %s
+        ),
+        category_path AS (
+            SELECT s.id AS product_id, s.category_id
+            FROM scoped s
+            WHERE s.category_id IS NOT NULL
+            UNION
+            SELECT cp.product_id, c.parent_id
+            FROM category_path cp
+            JOIN categories c ON c.id = cp.category_id
+            WHERE c.parent_id IS NOT NULL
+        ),
+        offer_prices AS (
+            SELECT s.id,
+                   MIN(GREATEST(0, CASE WHEN pr.discount_type = 'PERCENTAGE'
+                            THEN s.base_price - LEAST(ROUND(s.base_price * pr.discount_value / 100, 2),
+                                                      COALESCE(pr.max_discount_amount, s.base_price))
+                            ELSE s.base_price - pr.discount_value
+                       END)) AS offer_price
+            FROM scoped s
+            JOIN promotions pr ON pr.vendor_id = s.vendor_id
+            WHERE pr.promotion_type = 'OFFER'
+              AND pr.is_active = TRUE
+              AND (pr.code IS NULL OR pr.code = '')
+              AND pr.discount_type IS NOT NULL
+              AND pr.discount_value IS NOT NULL
+              AND (pr.starts_at IS NULL OR pr.starts_at <= ?)
+              AND (pr.ends_at IS NULL OR pr.ends_at > ?)
+              AND (pr.product_id IS NULL OR pr.product_id = s.id)
+              AND (pr.category_id IS NULL OR EXISTS (
+                    SELECT 1 FROM category_path cp
+                    WHERE cp.product_id = s.id AND cp.category_id = pr.category_id))
+            GROUP BY s.id
+        ),
+        target AS (
+            SELECT s.id,
+                   GREATEST(0, LEAST(s.base_price, COALESCE(o.offer_price, s.base_price))) AS new_price
+            FROM scoped s
+            LEFT JOIN offer_prices o ON o.id = s.id
+        )
+        UPDATE products p
+        SET effective_price = t.new_price
+        FROM target t
+        WHERE p.id = t.id
+          AND p.effective_price IS DISTINCT FROM t.new_price
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recompute every product's effective price
+     */
+    public int recomputeAll(LocalDateTime now) {
+        int updated = execute("TRUE", List.of(), now);
+        log.info("Effective prices recomputed for all products: {} changed", updated);
+        return updated;
+    }
+
+    /**
+     * Recompute the products of the given vendors (promotions are vendor scoped)
+     */
+    public int recomputeForVendors(Collection<Long> vendorIds, LocalDateTime now) {
+        if (vendorIds.isEmpty()) {
+            return 0;
+        }
+        int updated = execute("p.vendor_id IN (" + placeholders(vendorIds.size()) + ")", vendorIds, now);
+        log.debug("Effective prices recomputed for vendors {}: {} changed", vendorIds, updated);
+        return updated;
+    }
+
+    /**
+     * Recompute one product, e.g. after its price or category changed
+     */
+    public int recomputeProduct(Long productId, LocalDateTime now) {
+        return execute("p.id = ?", List.of(productId), now);
+    }
+
+    private int execute(String scope, Collection<Long> scopeArgs, LocalDateTime now) {
+        Timestamp at = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(scopeArgs);
+        args.add(at);
+        args.add(at);
+        return jdbcTemplate.update(String.format(RECOMPUTE_SQL, scope), args.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.localcart.service.pricing;
+
+import com.localcart.entity.CartItem;
+import com.localcart.entity.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * One cart line as seen by the pricing rules
+ */
+public record PricedLine(Long productId, Long categoryId, Long vendorId, BigDecimal unitPrice, int quantity) {
+
+    public static PricedLine of(CartItem item) {
+        Product product = item.getProduct();
+        return new PricedLine(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getVendor() != null ? product.getVendor().getId() : null,
+                product.getEffectivePrice(),
+                item.getQuantity());
+    }
+
+    public BigDecimal amount() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,154 @@
+package com.localcart.service.pricing;
+
+import com.localcart.entity.Coupon;
+import com.localcart.entity.Promotion;
+import com.localcart.entity.enums.CouponType;
+import com.localcart.entity.enums.PromotionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, detached view of a coupon or promotion used by the pricing rule index.
+ * Holds ids only, so it can be evaluated outside a persistence context.
+ */
+public record PricingRule(
+        Kind kind,
+        Long id,
+        String code,
+        String title,
+        Long vendorId,
+        Long productId,
+        Long categoryId,
+        CouponType discountType,
+        BigDecimal discountValue,
+        BigDecimal minPurchaseAmount,
+        BigDecimal maxDiscountAmount,
+        LocalDateTime validFrom,
+        LocalDateTime validUntil) {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    public enum Kind {
+        /** Vendor coupon, needs its code and consumes a redemption */
+        COUPON,
+        /** Promotion with a code, needs its code */
+        CODE_PROMOTION,
+        /** Automatic per-item offer, materialized into products.effective_price */
+        OFFER,
+        /** Automatic spend-based campaign on the matching part of the cart */
+        CAMPAIGN
+    }
+
+    public static PricingRule fromCoupon(Coupon coupon) {
+        // getId() on lazy proxies does not initialize them
+        return new PricingRule(
+                Kind.COUPON,
+                coupon.getId(),
+                normalizeCode(coupon.getCode()),
+                coupon.getDescription(),
+                coupon.getVendor() != null ? coupon.getVendor().getId() : null,
+                coupon.getProduct() != null ? coupon.getProduct().getId() : null,
+                null,
+                coupon.getCouponType(),
+                coupon.getDiscountValue(),
+                coupon.getMinPurchaseAmount(),
+                coupon.getMaxDiscountAmount(),
+                coupon.getValidFrom(),
+                coupon.getValidUntil());
+    }
+
+    /**
+     * Rule for a promotion, or null when it carries no applicable discount terms
+     */
+    public static PricingRule fromPromotion(Promotion promotion) {
+        if (promotion.getDiscountType() == null || promotion.getDiscountValue() == null) {
+            return null;
+        }
+        String code = normalizeCode(promotion.getCode());
+        Kind kind;
+        if (code != null) {
+            kind = Kind.CODE_PROMOTION;
+        } else if (promotion.getPromotionType() == PromotionType.OFFER) {
+            kind = Kind.OFFER;
+        } else if (promotion.getPromotionType() == PromotionType.CAMPAIGN) {
+            kind = Kind.CAMPAIGN;
+        } else {
+            return null;
+        }
+        return new PricingRule(
+                kind,
+                promotion.getId(),
+                code,
+                promotion.getTitle(),
+                promotion.getVendor().getId(),
+                promotion.getProduct() != null ? promotion.getProduct().getId() : null,
+                promotion.getCategory() != null ? promotion.getCategory().getId() : null,
+                promotion.getDiscountType(),
+                promotion.getDiscountValue(),
+                promotion.getMinPurchaseAmount(),
+                promotion.getMaxDiscountAmount(),
+                promotion.getStartsAt(),
+                promotion.getEndsAt());
+    }
+
+    public static String normalizeCode(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public boolean requiresCode() {
+        return kind == Kind.COUPON || kind == Kind.CODE_PROMOTION;
+    }
+
+    /**
+     * Active from validFrom (inclusive) until validUntil (exclusive)
+     */
+    public boolean isActiveAt(LocalDateTime now) {
+        return (validFrom == null || !now.isBefore(validFrom))
+                && (validUntil == null || now.isBefore(validUntil));
+    }
+
+    /**
+     * Whether a cart line falls within this rule's vendor/product/category scope
+     *
+     * @param categoryPath the line's category followed by its ancestors
+     */
+    public boolean appliesTo(PricedLine line, List<Long> categoryPath) {
+        if (vendorId != null && !vendorId.equals(line.vendorId())) {
+            return false;
+        }
+        if (productId != null && !productId.equals(line.productId())) {
+            return false;
+        }
+        return categoryId == null || categoryPath.contains(categoryId);
+    }
+
+    /**
+     * Discount on an eligible amount; zero when the minimum purchase is not met
+     */
+    public BigDecimal discountOn(BigDecimal amount) {
+        if (amount.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (minPurchaseAmount != null && amount.compareTo(minPurchaseAmount) < 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal discount = discountType == CouponType.PERCENTAGE
+                ? amount.multiply(discountValue).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                : discountValue;
+        return cap(discount, amount);
+    }
+
+    private BigDecimal cap(BigDecimal discount, BigDecimal amount) {
+        if (maxDiscountAmount != null && discount.compareTo(maxDiscountAmount) > 0) {
+            discount = maxDiscountAmount;
+        }
+        return discount.compareTo(amount) > 0 ? amount : discount;
+    }
+}
@@ -0,0 +1,115 @@
+package com.localcart.service.pricing;
+
+import com.localcart.repository.CouponRepository;
+import com.localcart.repository.PromotionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pricing Rule Cache
+ *
+ * Holds the current {@link PricingRuleIndex} of active coupons and promotions.
+ * Rebuilt after coupon/promotion writes commit, when a rule starts or ends
+ * (checked every second), and periodically to pick up changes made on other nodes.
+ */
+@Slf4j
+@Component
+public class PricingRuleCache {
+
+    private final CouponRepository couponRepository;
+    private final PromotionRepository promotionRepository;
+    private final TransactionTemplate readTransaction;
+
+    @Value("${pricing.rules.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    private volatile PricingRuleIndex index;
+
+    public PricingRuleCache(CouponRepository couponRepository,
+                            PromotionRepository promotionRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        this.promotionRepository = promotionRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Current index, built on first use
+     */
+    public PricingRuleIndex get() {
+        PricingRuleIndex current = index;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Rebuild when a validity window boundary has passed or the index is older than the refresh interval
+     */
+    @Scheduled(fixedDelayString = "${pricing.rules.boundary-check-ms:1000}")
+    public void refreshIfStale() {
+        PricingRuleIndex current = index;
+        if (current == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (current.isStale(now) || current.builtAt().plusNanos(refreshIntervalMs * 1_000_000L).isBefore(now)) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.error("Pricing rule refresh failed, keeping previous index", e);
+            }
+        }
+    }
+
+    /**
+     * Rebuild once the surrounding transaction commits (immediately if there is none)
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Build a new index and swap it in
+     */
+    public synchronized PricingRuleIndex refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PricingRule> rules = readTransaction.execute(status -> load(now));
+        PricingRuleIndex built = PricingRuleIndex.build(rules, now);
+        index = built;
+        log.debug("Pricing rule index rebuilt: {} active rules, next boundary {}", built.size(), built.nextBoundary());
+        return built;
+    }
+
+    private List<PricingRule> load(LocalDateTime now) {
+        List<PricingRule> rules = new ArrayList<>();
+        couponRepository.findPricingCandidates(now).forEach(coupon -> rules.add(PricingRule.fromCoupon(coupon)));
+        promotionRepository.findPricingCandidates(now).forEach(promotion -> {
+            PricingRule rule = PricingRule.fromPromotion(promotion);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        });
+        return rules;
+    }
+}
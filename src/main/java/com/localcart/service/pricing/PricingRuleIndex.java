@@ -0,0 +1,135 @@
+package com.localcart.service.pricing;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Pricing Rule Index
+ *
+ * Immutable lookup structure over the coupons and promotions active at build time.
+ * OFFER promotions are not indexed: they are already part of each product's effective price.
+ * Code rules are keyed by normalized code; automatic rules are filed under their most
+ * specific scope (product, else category, else vendor) so a cart line only looks at
+ * the handful of rules that can match it.
+ *
+ * {@link #nextBoundary()} is the earliest future start/end among the loaded rules;
+ * the index must be rebuilt once it passes.
+ */
+public final class PricingRuleIndex {
+
+    private final Map<String, PricingRule> byCode;
+    private final Map<Long, List<PricingRule>> byProduct;
+    private final Map<Long, List<PricingRule>> byCategory;
+    private final Map<Long, List<PricingRule>> byVendor;
+    private final int size;
+    private final LocalDateTime builtAt;
+    private final LocalDateTime nextBoundary;
+
+    private PricingRuleIndex(Map<String, PricingRule> byCode,
+                             Map<Long, List<PricingRule>> byProduct,
+                             Map<Long, List<PricingRule>> byCategory,
+                             Map<Long, List<PricingRule>> byVendor,
+                             int size,
+                             LocalDateTime builtAt,
+                             LocalDateTime nextBoundary) {
+        this.byCode = byCode;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.byVendor = byVendor;
+        this.size = size;
+        this.builtAt = builtAt;
+        this.nextBoundary = nextBoundary;
+    }
+
+    public static PricingRuleIndex empty() {
+        return new PricingRuleIndex(Map.of(), Map.of(), Map.of(), Map.of(), 0, LocalDateTime.now(), null);
+    }
+
+    /**
+     * Index the rules active at {@code now}; coupons win over promotions sharing a code
+     */
+    public static PricingRuleIndex build(Collection<PricingRule> rules, LocalDateTime now) {
+        Map<String, PricingRule> byCode = new HashMap<>();
+        Map<Long, List<PricingRule>> byProduct = new HashMap<>();
+        Map<Long, List<PricingRule>> byCategory = new HashMap<>();
+        Map<Long, List<PricingRule>> byVendor = new HashMap<>();
+        LocalDateTime nextBoundary = null;
+        int size = 0;
+
+        for (PricingRule rule : rules) {
+            nextBoundary = earliestAfter(now, nextBoundary, rule.validFrom());
+            nextBoundary = earliestAfter(now, nextBoundary, rule.validUntil());
+            if (!rule.isActiveAt(now) || rule.kind() == PricingRule.Kind.OFFER) {
+                continue;
+            }
+
+            size++;
+            if (rule.requiresCode()) {
+                PricingRule existing = byCode.get(rule.code());
+                if (existing == null || (existing.kind() != PricingRule.Kind.COUPON && rule.kind() == PricingRule.Kind.COUPON)) {
+                    byCode.put(rule.code(), rule);
+                }
+            } else if (rule.productId() != null) {
+                byProduct.computeIfAbsent(rule.productId(), id -> new ArrayList<>()).add(rule);
+            } else if (rule.categoryId() != null) {
+                byCategory.computeIfAbsent(rule.categoryId(), id -> new ArrayList<>()).add(rule);
+            } else if (rule.vendorId() != null) {
+                byVendor.computeIfAbsent(rule.vendorId(), id -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        return new PricingRuleIndex(Map.copyOf(byCode), freeze(byProduct), freeze(byCategory), freeze(byVendor),
+                size, now, nextBoundary);
+    }
+
+    public Optional<PricingRule> findByCode(String code) {
+        String normalized = PricingRule.normalizeCode(code);
+        return normalized == null ? Optional.empty() : Optional.ofNullable(byCode.get(normalized));
+    }
+
+    /**
+     * Automatic rules whose scope key matches the line; callers still check {@link PricingRule#appliesTo}
+     */
+    public List<PricingRule> automaticRulesFor(Long productId, List<Long> categoryPath, Long vendorId) {
+        List<PricingRule> candidates = new ArrayList<>(byProduct.getOrDefault(productId, List.of()));
+        for (Long categoryId : categoryPath) {
+            candidates.addAll(byCategory.getOrDefault(categoryId, List.of()));
+        }
+        candidates.addAll(byVendor.getOrDefault(vendorId, List.of()));
+        return candidates;
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return nextBoundary != null && !now.isBefore(nextBoundary);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime nextBoundary() {
+        return nextBoundary;
+    }
+
+    private static LocalDateTime earliestAfter(LocalDateTime now, LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null || !candidate.isAfter(now)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private static Map<Long, List<PricingRule>> freeze(Map<Long, List<PricingRule>> map) {
+        Map<Long, List<PricingRule>> frozen = new HashMap<>();
+        map.forEach((key, list) -> frozen.put(key, List.copyOf(list)));
+        return Map.copyOf(frozen);
+    }
+}
@@ -0,0 +1,157 @@
+package com.localcart.service.pricing;
+
+import com.localcart.dto.category.CategoryDto;
+import com.localcart.entity.CartItem;
+import com.localcart.exception.PaymentException;
+import com.localcart.service.category.CategoryTreeCache;
+import com.localcart.service.category.CategoryTreeSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pricing Service
+ *
+ * Evaluates every discount that applies to a cart against the in-memory
+ * {@link PricingRuleIndex}; no database reads on the pricing path.
+ *
+ * Lines are priced at the product's effective price, which already includes
+ * per-item OFFER promotions. On top of that:
+ * 1. best automatic campaign over the lines it covers (campaigns do not stack)
+ * 2. the coupon / promotion code, over the lines in its scope
+ */
+@Service
+@RequiredArgsConstructor
+public class PricingService {
+
+    private final PricingRuleCache pricingRuleCache;
+    private final CategoryTreeCache categoryTreeCache;
+
+    public CartPricing priceCart(Collection<CartItem> items, String code) {
+        return price(items.stream().map(PricedLine::of).toList(), code);
+    }
+
+    /**
+     * Price cart lines, applying {@code code} when given.
+     * Throws PaymentException when the code is unknown, expired, out of scope or under its minimum.
+     */
+    public CartPricing price(List<PricedLine> lines, String code) {
+        LocalDateTime now = LocalDateTime.now();
+        PricingRuleIndex index = pricingRuleCache.get();
+        CategoryTreeSnapshot categories = categoryTreeCache.get();
+
+        int size = lines.size();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal[] amounts = new BigDecimal[size];
+        List<List<Long>> categoryPaths = new ArrayList<>(size);
+        List<List<PricingRule>> lineRules = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            PricedLine line = lines.get(i);
+            BigDecimal amount = line.amount();
+            subtotal = subtotal.add(amount);
+
+            List<Long> categoryPath = categoryPath(categories, line.categoryId());
+            List<PricingRule> rules = new ArrayList<>();
+            for (PricingRule rule : index.automaticRulesFor(line.productId(), categoryPath, line.vendorId())) {
+                if (rule.isActiveAt(now) && rule.appliesTo(line, categoryPath)) {
+                    rules.add(rule);
+                }
+            }
+
+            amounts[i] = amount;
+            categoryPaths.add(categoryPath);
+            lineRules.add(rules);
+        }
+
+        List<CartPricing.AppliedDiscount> applied = new ArrayList<>();
+        BigDecimal discount = BigDecimal.ZERO;
+
+        // Best single campaign
+        Map<PricingRule, BigDecimal> campaignBases = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            for (PricingRule rule : lineRules.get(i)) {
+                if (rule.kind() == PricingRule.Kind.CAMPAIGN) {
+                    campaignBases.merge(rule, amounts[i], BigDecimal::add);
+                }
+            }
+        }
+        PricingRule bestCampaign = null;
+        BigDecimal bestCampaignAmount = BigDecimal.ZERO;
+        for (Map.Entry<PricingRule, BigDecimal> base : campaignBases.entrySet()) {
+            BigDecimal amount = base.getKey().discountOn(base.getValue());
+            if (amount.compareTo(bestCampaignAmount) > 0) {
+                bestCampaign = base.getKey();
+                bestCampaignAmount = amount;
+            }
+        }
+        if (bestCampaign != null) {
+            applied.add(toApplied(bestCampaign, bestCampaignAmount));
+            discount = discount.add(bestCampaignAmount);
+        }
+
+        if (code != null && !code.isBlank()) {
+            PricingRule rule = resolveCode(index, code, now);
+            BigDecimal base = BigDecimal.ZERO;
+            for (int i = 0; i < size; i++) {
+                if (rule.appliesTo(lines.get(i), categoryPaths.get(i))) {
+                    base = base.add(amounts[i]);
+                }
+            }
+            if (base.signum() <= 0) {
+                throw new PaymentException("Coupon does not apply to any item in the cart", "COUPON_NOT_APPLICABLE");
+            }
+            BigDecimal amount = rule.discountOn(base).min(subtotal.subtract(discount));
+            if (amount.signum() <= 0) {
+                throw new PaymentException("Minimum purchase amount not met", "COUPON_MIN_NOT_MET");
+            }
+            applied.add(toApplied(rule, amount));
+            discount = discount.add(amount);
+        }
+
+        return new CartPricing(subtotal, discount, List.copyOf(applied));
+    }
+
+    /**
+     * Active code rule from the index; unknown and expired codes are rejected
+     */
+    public PricingRule resolveCode(String code) {
+        return resolveCode(pricingRuleCache.get(), code, LocalDateTime.now());
+    }
+
+    private PricingRule resolveCode(PricingRuleIndex index, String code, LocalDateTime now) {
+        PricingRule rule = index.findByCode(code)
+                .orElseThrow(() -> new PaymentException("Invalid or expired coupon code", "COUPON_INVALID"));
+        if (!rule.isActiveAt(now)) {
+            throw new PaymentException("Coupon is not valid or has expired", "COUPON_EXPIRED");
+        }
+        return rule;
+    }
+
+    private static List<Long> categoryPath(CategoryTreeSnapshot categories, Long categoryId) {
+        if (categoryId == null) {
+            return List.of();
+        }
+        // Guard against cycles in bad data
+        Set<Long> path = new LinkedHashSet<>();
+        Long current = categoryId;
+        while (current != null && path.add(current)) {
+            CategoryDto category = categories.byId().get(current);
+            current = category != null ? category.getParentCategoryId() : null;
+        }
+        return List.copyOf(path);
+    }
+
+    private static CartPricing.AppliedDiscount toApplied(PricingRule rule, BigDecimal amount) {
+        return new CartPricing.AppliedDiscount(rule.kind(), rule.id(), rule.code(), rule.title(), amount);
+    }
+}
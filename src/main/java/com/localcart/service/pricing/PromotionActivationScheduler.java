@@ -0,0 +1,158 @@
+package com.localcart.service.pricing;
+
+import com.localcart.entity.Promotion;
+import com.localcart.repository.PromotionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Promotion Activation Scheduler
+ *
+ * Keeps products.effective_price in step with time-boxed OFFER promotions.
+ * Start and end instants within the look-ahead horizon are loaded into a
+ * {@link TimerWheel}; each tick collects the boundaries that passed and runs one
+ * bulk recompute for the affected vendors. The horizon is rescanned periodically,
+ * and promotion writes recompute their vendor right after commit.
+ *
+ * Recomputes are idempotent, so running this on every node is safe.
+ */
+@Slf4j
+@Component
+public class PromotionActivationScheduler {
+
+    private final PromotionRepository promotionRepository;
+    private final EffectivePriceMaterializer effectivePriceMaterializer;
+    private final MeterRegistry meterRegistry;
+    private final TimerWheel<Boundary> wheel;
+    private final Set<Boundary> scheduled = ConcurrentHashMap.newKeySet();
+
+    @Value("${pricing.promotions.horizon-ms:3600000}")
+    private long horizonMs;
+
+    public PromotionActivationScheduler(PromotionRepository promotionRepository,
+                                        EffectivePriceMaterializer effectivePriceMaterializer,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${pricing.promotions.tick-ms:1000}") long tickMs) {
+        this.promotionRepository = promotionRepository;
+        this.effectivePriceMaterializer = effectivePriceMaterializer;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new TimerWheel<>(tickMs, 512, System.currentTimeMillis());
+    }
+
+    /**
+     * Bring every price up to date on startup, then load upcoming boundaries
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            effectivePriceMaterializer.recomputeAll(LocalDateTime.now());
+            rescan();
+        } catch (Exception e) {
+            log.error("Initial effective price recompute failed", e);
+        }
+    }
+
+    /**
+     * Load promotion start/end instants inside the horizon into the wheel
+     */
+    @Scheduled(fixedDelayString = "${pricing.promotions.rescan-interval-ms:300000}",
+               initialDelayString = "${pricing.promotions.rescan-interval-ms:300000}")
+    public void rescan() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusNanos(horizonMs * 1_000_000L);
+        try {
+            List<Promotion> promotions = promotionRepository.findOfferBoundariesBetween(now, until);
+            for (Promotion promotion : promotions) {
+                scheduleBoundaries(promotion.getId(), promotion.getVendor().getId(),
+                        promotion.getStartsAt(), promotion.getEndsAt(), now, until);
+            }
+            log.debug("Promotion boundaries loaded: {} pending in timer wheel", wheel.size());
+        } catch (Exception e) {
+            log.error("Promotion boundary rescan failed", e);
+        }
+    }
+
+    /**
+     * Fire passed boundaries: one bulk recompute per tick for all affected vendors
+     */
+    @Scheduled(fixedRateString = "${pricing.promotions.tick-ms:1000}")
+    public void tick() {
+        List<Boundary> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<Long> vendorIds = new LinkedHashSet<>();
+        for (Boundary boundary : due) {
+            scheduled.remove(boundary);
+            vendorIds.add(boundary.vendorId());
+        }
+
+        try {
+            int changed = effectivePriceMaterializer.recomputeForVendors(vendorIds, LocalDateTime.now());
+            meterRegistry.counter("pricing.promotions.boundaries").increment(due.size());
+            meterRegistry.counter("pricing.effective_price.updates").increment(changed);
+            log.info("Promotion boundaries passed for vendors {}: {} effective prices changed", vendorIds, changed);
+        } catch (Exception e) {
+            // The periodic rescan cannot replay passed boundaries, so retry on the next tick
+            for (Boundary boundary : due) {
+                schedule(boundary);
+            }
+            log.error("Effective price recompute failed for vendors {}, will retry", vendorIds, e);
+        }
+    }
+
+    /**
+     * Recompute the vendor's prices after the surrounding transaction commits
+     * and schedule the promotion's upcoming start/end
+     */
+    public void onPromotionChanged(Long promotionId, Long vendorId, LocalDateTime startsAt, LocalDateTime endsAt) {
+        Runnable apply = () -> {
+            LocalDateTime now = LocalDateTime.now();
+            effectivePriceMaterializer.recomputeForVendors(List.of(vendorId), now);
+            scheduleBoundaries(promotionId, vendorId, startsAt, endsAt, now, now.plusNanos(horizonMs * 1_000_000L));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void scheduleBoundaries(Long promotionId, Long vendorId, LocalDateTime startsAt, LocalDateTime endsAt,
+                                    LocalDateTime from, LocalDateTime until) {
+        for (LocalDateTime at : new LocalDateTime[] {startsAt, endsAt}) {
+            if (at != null && at.isAfter(from) && !at.isAfter(until)) {
+                schedule(new Boundary(promotionId, vendorId, at));
+            }
+        }
+    }
+
+    private void schedule(Boundary boundary) {
+        if (scheduled.add(boundary)) {
+            wheel.schedule(boundary, boundary.at().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private record Boundary(Long promotionId, Long vendorId, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.localcart.service.pricing;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel
+ *
+ * Deadlines are hashed into {@code wheelSize} buckets of {@code tickMillis} each;
+ * deadlines further out than one revolution simply stay in their bucket until
+ * their tick comes round. Scheduling is O(1) and advancing only visits the
+ * buckets for the elapsed ticks. Precision is one tick; entries never fire early.
+ */
+final class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule an item; deadlines already passed fire on the next advance
+     */
+    synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        buckets.get((int) (tick & mask)).add(new Entry<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Move the wheel to {@code nowMillis} and return every item whose deadline has passed
+     */
+    synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+
+        List<T> expired = new ArrayList<>();
+        // After a long pause, one full revolution covers every bucket
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long step = 1; step <= steps; step++) {
+            Iterator<Entry<T>> iterator = buckets.get((int) ((currentTick + step) & mask)).iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.tick() <= targetTick) {
+                    expired.add(entry.item());
+                    iterator.remove();
+                    size--;
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
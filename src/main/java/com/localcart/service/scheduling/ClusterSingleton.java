@@ -0,0 +1,33 @@
+package com.localcart.service.scheduling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a scheduled method that must run on only one node of the cluster at a time.
+ * The invocation is skipped on nodes that cannot acquire the job's lease.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterSingleton {
+
+    /**
+     * Lease name; defaults to SimpleClassName.methodName
+     */
+    String value() default "";
+
+    /**
+     * How long a lease stays valid without a heartbeat (takeover delay after a node dies)
+     */
+    long leaseMillis() default 120_000;
+
+    /**
+     * Minimum time the lease is held after a run, so nodes whose trigger fires
+     * slightly later do not run the same occurrence again
+     */
+    long minHoldMillis() default 30_000;
+}
@@ -0,0 +1,59 @@
+package com.localcart.service.scheduling;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Runs {@link ClusterSingleton} methods only while holding the job's lease
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ClusterSingletonInterceptor implements MethodInterceptor {
+
+    private final SchedulerLeaseService leaseService;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!leaseService.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        Method method = invocation.getMethod();
+        if (invocation.getThis() != null) {
+            method = AopUtils.getMostSpecificMethod(method, invocation.getThis().getClass());
+        }
+        ClusterSingleton config = AnnotatedElementUtils.findMergedAnnotation(method, ClusterSingleton.class);
+        if (config == null) {
+            return invocation.proceed();
+        }
+
+        String jobName = config.value().isBlank()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                : config.value();
+
+        SchedulerLeaseService.Lease lease;
+        try {
+            lease = leaseService.tryAcquire(jobName, config.leaseMillis(), config.minHoldMillis());
+        } catch (Exception e) {
+            log.error("Could not acquire lease for {}, skipping this run", jobName, e);
+            return null;
+        }
+
+        if (lease == null) {
+            log.debug("Lease {} held by another node, skipping this run", jobName);
+            return null;
+        }
+
+        try {
+            return invocation.proceed();
+        } finally {
+            leaseService.release(lease);
+        }
+    }
+}
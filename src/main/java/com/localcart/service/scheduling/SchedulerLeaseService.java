@@ -0,0 +1,162 @@
+package com.localcart.service.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scheduler Lease Service
+ *
+ * Postgres-backed leases for cluster-singleton jobs. A lease row is taken with one
+ * conditional upsert (free when locked_until has passed), renewed by a heartbeat
+ * while the job runs, and released with a short minimum hold. All times use the
+ * database clock, so node clock skew does not matter. If a node dies its heartbeat
+ * stops and another node takes over once the lease expires.
+ */
+@Slf4j
+@Service
+public class SchedulerLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final Map<String, Lease> heldLeases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scheduler-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${scheduler.lease.enabled:true}")
+    private boolean enabled;
+
+    public SchedulerLeaseService(JdbcTemplate jdbcTemplate,
+                                 @Value("${scheduler.lease.node-id:}") String configuredNodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Try to take the lease; returns a handle that must be released, or null if another node holds it
+     */
+    public Lease tryAcquire(String jobName, long leaseMillis, long minHoldMillis) {
+        int updated = jdbcTemplate.update("""
+            INSERT INTO scheduler_leases (job_name, owner, acquired_at, heartbeat_at, locked_until)
+            VALUES (?, ?, NOW(), NOW(), NOW() + (? * INTERVAL '1 millisecond'))
+            ON CONFLICT (job_name) DO UPDATE
+            SET owner = EXCLUDED.owner,
+                acquired_at = EXCLUDED.acquired_at,
+                heartbeat_at = EXCLUDED.heartbeat_at,
+                locked_until = EXCLUDED.locked_until
+            WHERE scheduler_leases.locked_until < NOW()
+            """, jobName, nodeId, leaseMillis);
+
+        if (updated == 0) {
+            return null;
+        }
+
+        Lease lease = new Lease(jobName, leaseMillis, minHoldMillis);
+        long interval = Math.max(leaseMillis / 3, 1_000);
+        lease.heartbeat = heartbeats.scheduleAtFixedRate(() -> renew(lease), interval, interval, TimeUnit.MILLISECONDS);
+        heldLeases.put(jobName, lease);
+        log.debug("Acquired lease {} as {}", jobName, nodeId);
+        return lease;
+    }
+
+    /**
+     * Stop the heartbeat and free the lease, keeping it held for at least minHoldMillis from acquisition
+     */
+    public void release(Lease lease) {
+        lease.heartbeat.cancel(false);
+        heldLeases.remove(lease.jobName, lease);
+        try {
+            jdbcTemplate.update("""
+                UPDATE scheduler_leases
+                SET locked_until = GREATEST(NOW(), acquired_at + (? * INTERVAL '1 millisecond'))
+                WHERE job_name = ? AND owner = ?
+                """, lease.minHoldMillis, lease.jobName, nodeId);
+        } catch (Exception e) {
+            // The lease simply expires on its own
+            log.warn("Failed to release lease {}: {}", lease.jobName, e.getMessage());
+        }
+    }
+
+    private void renew(Lease lease) {
+        try {
+            int updated = jdbcTemplate.update("""
+                UPDATE scheduler_leases
+                SET heartbeat_at = NOW(), locked_until = NOW() + (? * INTERVAL '1 millisecond')
+                WHERE job_name = ? AND owner = ?
+                """, lease.leaseMillis, lease.jobName, nodeId);
+            if (updated == 0 && lease.lost.compareAndSet(false, true)) {
+                log.warn("Lease {} was taken over by another node while running", lease.jobName);
+            }
+        } catch (Exception e) {
+            log.warn("Lease heartbeat failed for {}: {}", lease.jobName, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heldLeases.values().forEach(this::release);
+        heartbeats.shutdownNow();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ManagementFactory.getRuntimeMXBean().getPid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Handle for a held lease
+     */
+    public static final class Lease {
+        private final String jobName;
+        private final long leaseMillis;
+        private final long minHoldMillis;
+        private final AtomicBoolean lost = new AtomicBoolean(false);
+        private volatile ScheduledFuture<?> heartbeat;
+
+        private Lease(String jobName, long leaseMillis, long minHoldMillis) {
+            this.jobName = jobName;
+            this.leaseMillis = leaseMillis;
+            this.minHoldMillis = minHoldMillis;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        /**
+         * True if a heartbeat found the lease owned by another node
+         */
+        public boolean isLost() {
+            return lost.get();
+        }
+    }
+}
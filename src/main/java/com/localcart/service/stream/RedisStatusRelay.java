@@ -0,0 +1,80 @@
+package com.localcart.service.stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Relays status changes to every node through Redis pub/sub, so a stream opened on
+ * one node sees changes committed on another. Enabled with status.stream.relay=redis;
+ * if a publish fails the change is still delivered to this node's subscribers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "status.stream.relay", havingValue = "redis")
+public class RedisStatusRelay {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+    private final StatusStreamService statusStreamService;
+    private RedisMessageListenerContainer container;
+
+    @Value("${status.stream.redis-channel:localcart:status-changes}")
+    private String channel;
+
+    public RedisStatusRelay(RedisConnectionFactory connectionFactory,
+                            StringRedisTemplate redisTemplate,
+                            JsonMapper jsonMapper,
+                            StatusStreamService statusStreamService) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.jsonMapper = jsonMapper;
+        this.statusStreamService = statusStreamService;
+    }
+
+    @PostConstruct
+    void start() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                StatusChange change = jsonMapper.readValue(
+                        new String(message.getBody(), StandardCharsets.UTF_8), StatusChange.class);
+                statusStreamService.deliver(change);
+            } catch (RuntimeException e) {
+                log.warn("Dropping unreadable status change from Redis: {}", e.getMessage());
+            }
+        }, new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        container.destroy();
+    }
+
+    /**
+     * Publishes to all nodes (this one included); false if Redis could not be reached
+     */
+    public boolean send(StatusChange change) {
+        try {
+            redisTemplate.convertAndSend(channel, jsonMapper.writeValueAsString(change));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not relay status change through Redis, delivering locally: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.localcart.service.stream;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order or payment status change pushed to status stream subscribers
+ *
+ * Every change is delivered to the order's stream; payment changes also go to the
+ * payment's own stream.
+ */
+public record StatusChange(
+        Type type,
+        Long orderId,
+        Long paymentId,
+        String status,
+        String previousStatus,
+        String trackingNumber,
+        LocalDateTime at) {
+
+    public enum Type {
+        ORDER, PAYMENT
+    }
+
+    public static StatusChange order(Long orderId, String status, String previousStatus, String trackingNumber) {
+        return new StatusChange(Type.ORDER, orderId, null, status, previousStatus, trackingNumber, LocalDateTime.now());
+    }
+
+    public static StatusChange payment(Long orderId, Long paymentId, String status, String previousStatus) {
+        return new StatusChange(Type.PAYMENT, orderId, paymentId, status, previousStatus, null, LocalDateTime.now());
+    }
+
+    /**
+     * SSE event name
+     */
+    public String eventName() {
+        return type == Type.ORDER ? "order" : "payment";
+    }
+}
@@ -0,0 +1,306 @@
+package com.localcart.service.stream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Status Stream Service
+ *
+ * Server-Sent Events for order and payment status, so checkout and tracking pages
+ * stop polling. Subscribers are kept in an in-memory registry keyed by topic
+ * ("order:<id>", "payment:<id>"); a new subscriber gets the current state first, then
+ * every change published after its transaction commits.
+ *
+ * Emitters are servlet async requests, so an open stream holds a connection but no
+ * request thread. Sends run on a small dispatch pool, never on the publishing
+ * (business) thread, and a heartbeat comment keeps proxies from closing idle streams
+ * and detects dead clients. With several nodes, changes are relayed through Redis
+ * pub/sub when status.stream.relay=redis (see RedisStatusRelay).
+ *
+ * Each subscriber has its own bounded queue drained by one dispatch task at a time, so
+ * a client that reads slowly only holds up its own events. A subscriber whose queue
+ * overflows, or whose send blocks past status.stream.send-timeout-ms, is dropped; it
+ * loses nothing, since reconnecting sends the current state first.
+ */
+@Slf4j
+@Service
+public class StatusStreamService {
+
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ObjectProvider<RedisStatusRelay> relay;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService dispatcher;
+
+    @Value("${status.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${status.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${status.stream.max-subscribers-per-topic:20}")
+    private int maxSubscribersPerTopic;
+
+    @Value("${status.stream.max-pending-events:32}")
+    private int maxPendingEvents;
+
+    @Value("${status.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    public StatusStreamService(ObjectProvider<RedisStatusRelay> relay,
+                               MeterRegistry meterRegistry,
+                               @Value("${status.stream.dispatch-threads:2}") int dispatchThreads) {
+        this.relay = relay;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("status.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open order/payment status streams on this node")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        topics.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public static String orderTopic(Long orderId) {
+        return "order:" + orderId;
+    }
+
+    public static String paymentTopic(Long paymentId) {
+        return "payment:" + paymentId;
+    }
+
+    /**
+     * Opens a stream on a topic; the snapshot is sent first as the given event name.
+     * Both caps are checked and the subscriber registered in one step on the topic's entry,
+     * so concurrent subscribes cannot overshoot them.
+     */
+    public SseEmitter subscribe(String topic, String eventName, Object snapshot) {
+        Subscriber subscriber = new Subscriber(topic, new SseEmitter(timeoutMs));
+        try {
+            topics.compute(topic, (key, existing) -> {
+                Set<Subscriber> subscribers = existing != null ? existing : ConcurrentHashMap.newKeySet();
+                if (subscribers.size() >= maxSubscribersPerTopic) {
+                    throw new IllegalStateException("Too many open status streams for " + topic);
+                }
+                if (subscriberCount.incrementAndGet() > maxSubscribers) {
+                    subscriberCount.decrementAndGet();
+                    throw new IllegalStateException("Too many open status streams");
+                }
+                subscribers.add(subscriber);
+                return subscribers;
+            });
+        } catch (IllegalStateException e) {
+            meterRegistry.counter("status.stream.rejected").increment();
+            throw e;
+        }
+
+        SseEmitter emitter = subscriber.emitter;
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        enqueue(subscriber, SseEmitter.event().name(eventName).data(snapshot));
+        return emitter;
+    }
+
+    /**
+     * Publishes a change once the current transaction commits (immediately outside one)
+     */
+    public void publish(StatusChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(change);
+                }
+            });
+        } else {
+            broadcast(change);
+        }
+    }
+
+    /**
+     * Delivers a change to this node's subscribers (called directly or by the relay)
+     */
+    public void deliver(StatusChange change) {
+        fanOut(orderTopic(change.orderId()), change);
+        if (change.type() == StatusChange.Type.PAYMENT && change.paymentId() != null) {
+            fanOut(paymentTopic(change.paymentId()), change);
+        }
+    }
+
+    /**
+     * Keeps idle streams open through proxies and drops clients that went away
+     */
+    @Scheduled(fixedDelayString = "${status.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        topics.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            // A subscriber with events queued needs no keepalive
+            if (subscriber.queued.get() == 0) {
+                enqueue(subscriber, SseEmitter.event().comment("keepalive"));
+            }
+        }));
+    }
+
+    /**
+     * Drops subscribers whose send has been blocked on the socket for longer than the send
+     * timeout, interrupting the dispatch thread so it can serve everyone else
+     */
+    @Scheduled(fixedDelayString = "${status.stream.send-timeout-ms:5000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        topics.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > timeoutNanos) {
+                drop(subscriber, "send blocked for more than " + sendTimeoutMs + "ms");
+            }
+        }));
+    }
+
+    private void broadcast(StatusChange change) {
+        RedisStatusRelay redisRelay = relay.getIfAvailable();
+        if (redisRelay != null && redisRelay.send(change)) {
+            return;
+        }
+        deliver(change);
+    }
+
+    private void fanOut(String topic, StatusChange change) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        meterRegistry.counter("status.stream.events", "type", change.eventName()).increment();
+        subscribers.forEach(subscriber ->
+                enqueue(subscriber, SseEmitter.event().name(change.eventName()).data(change)));
+    }
+
+    /**
+     * Queues an event for one subscriber and starts its drain task unless one is running
+     */
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.queued.incrementAndGet() > maxPendingEvents) {
+            drop(subscriber, "more than " + maxPendingEvents + " events pending");
+            return;
+        }
+        subscriber.pending.add(event);
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            subscriber.drainTask = dispatcher.submit(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+            log.debug("Status stream dispatcher is shut down, dropping {} event", subscriber.topic);
+        }
+    }
+
+    /**
+     * Sends a subscriber's queued events in order; only one drain runs per subscriber
+     */
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while ((event = subscriber.pending.poll()) != null) {
+            subscriber.queued.decrementAndGet();
+            subscriber.sendStartedAt = System.nanoTime();
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, the emitter already completed, or the send was interrupted
+                unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.sendStartedAt = 0;
+            }
+        }
+        subscriber.draining.set(false);
+        // An event queued after the last poll but before the flag was cleared
+        if (!subscriber.pending.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (!unsubscribe(subscriber)) {
+            return;
+        }
+        log.debug("Dropping slow status stream subscriber on {}: {}", subscriber.topic, reason);
+        meterRegistry.counter("status.stream.dropped").increment();
+        Future<?> drainTask = subscriber.drainTask;
+        if (drainTask != null) {
+            drainTask.cancel(true);
+        }
+        subscriber.emitter.completeWithError(new IOException("Slow status stream client: " + reason));
+    }
+
+    /**
+     * Removes a subscriber; true if it was still registered
+     */
+    private boolean unsubscribe(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        topics.computeIfPresent(subscriber.topic, (key, subscribers) -> {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+                removed.set(true);
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        return removed.get();
+    }
+
+    private static final class Subscriber {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile Future<?> drainTask;
+        // System.nanoTime() when the current send started, 0 while idle
+        private volatile long sendStartedAt;
+
+        private Subscriber(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+    }
+}
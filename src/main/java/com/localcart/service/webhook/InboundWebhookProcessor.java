@@ -0,0 +1,94 @@
+package com.localcart.service.webhook;
+
+import com.localcart.entity.Payment;
+import com.localcart.exception.PaymentException;
+import com.localcart.repository.PaymentRepository;
+import com.localcart.service.payment.PaymentService;
+import com.localcart.service.webhook.InboundWebhookService.ClaimedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Applies one queued inbound webhook event (called from InboundWebhookService's worker lanes)
+ *
+ * Payment events only tell us which payment changed: its state is re-read from the
+ * issuing gateway through PaymentService.verifyPayment, so a replayed or forged event
+ * cannot move a payment by itself. Throwing makes the event retry later.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InboundWebhookProcessor {
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final JsonMapper jsonMapper;
+
+    public void process(ClaimedEvent event) {
+        String type = event.eventType() != null ? event.eventType() : "";
+        switch (event.source()) {
+            case STRIPE -> {
+                if (type.startsWith("payment_intent.") || type.startsWith("charge.")) {
+                    verifyPayment(event.partitionKey(), type);
+                } else {
+                    log.debug("Ignoring Stripe event type {}", type);
+                }
+            }
+            case PAYPAL -> {
+                if (type.startsWith("PAYMENT.")) {
+                    verifyPayment(event.partitionKey(), type);
+                } else {
+                    log.debug("Ignoring PayPal event type {}", type);
+                }
+            }
+            case N8N -> processN8n(type, jsonMapper.readValue(event.payload(), Map.class));
+        }
+    }
+
+    private void processN8n(String type, Map<?, ?> payload) {
+        switch (type) {
+            case "email_sent" -> log.info("Email {} to {}: {}", payload.get("emailType"), payload.get("recipient"),
+                    Boolean.TRUE.equals(payload.get("success")) ? "sent" : "failed");
+            case "sms_sent" -> log.info("SMS to {}: {}", payload.get("phoneNumber"),
+                    Boolean.TRUE.equals(payload.get("success")) ? "sent" : "failed");
+            case "email-status" -> log.info("Email status update: {}", payload);
+            case "sms-status" -> log.info("SMS status update: {}", payload);
+            case "payment_processed", "payment-notification" -> {
+                Object reference = payload.get("transactionId") != null ? payload.get("transactionId") : payload.get("paymentId");
+                if (reference == null) {
+                    log.warn("Payment notification without transactionId/paymentId: {}", payload);
+                    return;
+                }
+                verifyPayment(reference.toString(), type);
+            }
+            default -> log.warn("Unknown n8n event type: {}", type);
+        }
+    }
+
+    /**
+     * Re-verify the payment a provider event refers to (by gateway transaction id, or by
+     * our own payment id for n8n notifications)
+     */
+    private void verifyPayment(String reference, String eventType) {
+        Payment payment = paymentRepository.findByTransactionId(reference)
+                .or(() -> parseId(reference).flatMap(paymentRepository::findById))
+                .orElseThrow(() -> new PaymentException(
+                        "No payment for webhook reference " + reference, "PAYMENT_NOT_FOUND"));
+
+        log.info("Webhook {} for payment {}, verifying with gateway", eventType, payment.getId());
+        paymentService.verifyPayment(payment.getId().toString());
+    }
+
+    private static Optional<Long> parseId(String reference) {
+        try {
+            return Optional.of(Long.parseLong(reference));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.localcart.service.webhook;
+
+import com.localcart.service.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inbound Webhook Service
+ *
+ * Webhooks are verified and acknowledged on the request thread, then applied in the
+ * background:
+ * - verify: signature / shared secret (see WebhookSignatureVerifier)
+ * - dedupe: INSERT ... ON CONFLICT on (source, event_id); the row is kept for
+ *   payment.webhook.dedupe-ttl-hours, so provider redeliveries are acknowledged
+ *   without being applied again
+ * - enqueue: the same row is the durable queue entry; once payment.webhook.max-pending
+ *   events are open, new deliveries get 503 and the provider retries later
+ * - process: a fixed set of worker lanes, each a single thread; an event's lane is
+ *   chosen by its partition key (the payment's transaction id), and an event is only
+ *   claimed once every earlier open event for the same key is done, so events for one
+ *   payment are applied one at a time and in arrival order, across nodes too
+ *
+ * Failed events are retried with exponential backoff up to payment.webhook.max-retries,
+ * then parked as FAILED. Workers only hold a connection to claim and to record the
+ * outcome, so a webhook storm cannot take more than `workers` threads and connections
+ * away from customer traffic.
+ */
+@Slf4j
+@Service
+public class InboundWebhookService {
+
+    public enum Source {
+        STRIPE, PAYPAL, N8N
+    }
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE, REJECTED, QUEUE_FULL
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final InboundWebhookProcessor processor;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong openEvents = new AtomicLong();
+    private final Semaphore[] signals;
+    private final List<Thread> lanes = new ArrayList<>();
+    private volatile boolean running;
+
+    @Value("${payment.webhook.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.webhook.max-pending:10000}")
+    private long maxPending;
+
+    @Value("${payment.webhook.dedupe-ttl-hours:168}")
+    private long dedupeTtlHours;
+
+    @Value("${payment.webhook.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${payment.webhook.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${payment.webhook.max-retry-backoff-ms:600000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${payment.webhook.claim-batch-size:20}")
+    private int claimBatchSize;
+
+    @Value("${payment.webhook.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${payment.webhook.processing-lease-ms:120000}")
+    private long processingLeaseMs;
+
+    public InboundWebhookService(JdbcTemplate jdbcTemplate,
+                                 WebhookSignatureVerifier signatureVerifier,
+                                 InboundWebhookProcessor processor,
+                                 JsonMapper jsonMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.webhook.workers:4}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.signatureVerifier = signatureVerifier;
+        this.processor = processor;
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.signals = new Semaphore[Math.max(1, workers)];
+        for (int i = 0; i < signals.length; i++) {
+            signals[i] = new Semaphore(0);
+        }
+
+        Gauge.builder("webhook.inbound.queue.depth", openEvents, AtomicLong::get)
+                .description("Inbound webhook events pending or in progress")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refreshQueueDepth();
+        running = true;
+        for (int lane = 0; lane < signals.length; lane++) {
+            int laneIndex = lane;
+            Thread thread = new Thread(() -> runLane(laneIndex), "webhook-worker-" + lane);
+            thread.setDaemon(true);
+            thread.start();
+            lanes.add(thread);
+        }
+        log.info("Inbound webhook pipeline started with {} worker lanes", signals.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lanes.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Payment provider callback (Stripe or PayPal, told apart by their signature headers)
+     */
+    public Outcome acceptPaymentEvent(String payload, String stripeSignature, String paypalSignature) {
+        Source source = stripeSignature != null ? Source.STRIPE : paypalSignature != null ? Source.PAYPAL : null;
+        if (source == null
+                || (source == Source.STRIPE && !signatureVerifier.verifyStripe(payload, stripeSignature))
+                || (source == Source.PAYPAL && !signatureVerifier.verifyPayPal(paypalSignature))) {
+            return count(source != null ? source.name() : "UNKNOWN", Outcome.REJECTED);
+        }
+
+        Map<String, Object> event;
+        try {
+            event = jsonMapper.readValue(payload, Map.class);
+        } catch (RuntimeException e) {
+            log.warn("Unreadable {} webhook payload: {}", source, e.getMessage());
+            return count(source.name(), Outcome.REJECTED);
+        }
+
+        String eventId = string(event.get("id"));
+        if (eventId == null) {
+            return count(source.name(), Outcome.REJECTED);
+        }
+        if (source == Source.STRIPE) {
+            Map<?, ?> object = map(map(event.get("data")).get("object"));
+            String paymentIntent = "payment_intent".equals(object.get("object"))
+                    ? string(object.get("id"))
+                    : string(object.get("payment_intent"));
+            return enqueue(source, eventId, string(event.get("type")),
+                    paymentIntent != null ? paymentIntent : string(object.get("id")), payload);
+        }
+        return enqueue(source, eventId, string(event.get("event_type")),
+                string(map(event.get("resource")).get("id")), payload);
+    }
+
+    /**
+     * n8n callback; kind is the endpoint ("callback", "email-status", ...). Events carry
+     * no guaranteed id, so an explicit eventId is used when sent and a content hash otherwise.
+     */
+    public Outcome acceptN8nEvent(String kind, Map<String, Object> payload, String secret) {
+        if (!signatureVerifier.verifyN8n(secret)) {
+            return count(Source.N8N.name(), Outcome.REJECTED);
+        }
+
+        String body = jsonMapper.writeValueAsString(payload);
+        String eventType = "callback".equals(kind) ? string(payload.get("eventType")) : kind;
+        String eventId = string(payload.get("eventId"));
+        if (eventId == null) {
+            eventId = kind + ":" + sha256(body);
+        }
+
+        String partitionKey = firstNonNull(string(payload.get("transactionId")), string(payload.get("paymentId")));
+        return enqueue(Source.N8N, eventId, eventType, partitionKey, body);
+    }
+
+    private Outcome enqueue(Source source, String eventId, String eventType, String partitionKey, String payload) {
+        if (openEvents.get() >= maxPending) {
+            return count(source.name(), Outcome.QUEUE_FULL);
+        }
+
+        // Events without a payment to order against get their own key
+        String key = partitionKey != null ? partitionKey : source.name() + ":" + eventId;
+        int partitionHash = key.hashCode() & Integer.MAX_VALUE;
+        int inserted = jdbcTemplate.update("""
+                INSERT INTO inbound_webhook_events
+                    (source, event_id, event_type, partition_key, partition_hash, payload, expires_at)
+                VALUES (?, ?, ?, ?, ?, ?, NOW() + ? * INTERVAL '1 hour')
+                ON CONFLICT (source, event_id) DO NOTHING
+                """, source.name(), truncate(eventId, 255), truncate(eventType, 100), truncate(key, 255),
+                partitionHash, payload, dedupeTtlHours);
+
+        if (inserted == 0) {
+            return count(source.name(), Outcome.DUPLICATE);
+        }
+        openEvents.incrementAndGet();
+        signals[partitionHash % signals.length].release();
+        return count(source.name(), Outcome.ACCEPTED);
+    }
+
+    private void runLane(int lane) {
+        while (running) {
+            try {
+                List<ClaimedEvent> events = claim(lane);
+                if (events.isEmpty()) {
+                    signals[lane].tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    signals[lane].drainPermits();
+                    continue;
+                }
+                for (ClaimedEvent event : events) {
+                    process(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Webhook worker lane {} failed, retrying: {}", lane, e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims this lane's next due events, skipping keys that still have an earlier event open
+     */
+    private List<ClaimedEvent> claim(int lane) {
+        return jdbcTemplate.query("""
+                UPDATE inbound_webhook_events e
+                SET status = 'PROCESSING',
+                    attempts = e.attempts + 1,
+                    locked_until = NOW() + ? * INTERVAL '1 millisecond'
+                WHERE e.id IN (
+                    SELECT c.id FROM inbound_webhook_events c
+                    WHERE c.status = 'PENDING'
+                      AND c.next_attempt_at <= NOW()
+                      AND c.partition_hash % ? = ?
+                      AND NOT EXISTS (
+                          SELECT 1 FROM inbound_webhook_events p
+                          WHERE p.partition_key = c.partition_key
+                            AND p.id < c.id
+                            AND p.status IN ('PENDING', 'PROCESSING'))
+                    ORDER BY c.id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING e.id, e.source, e.event_type, e.partition_key, e.payload, e.attempts, e.received_at
+                """,
+                (rs, rowNum) -> new ClaimedEvent(
+                        rs.getLong("id"),
+                        Source.valueOf(rs.getString("source")),
+                        rs.getString("event_type"),
+                        rs.getString("partition_key"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("received_at")),
+                processingLeaseMs, signals.length, lane, claimBatchSize)
+                .stream()
+                .sorted(Comparator.comparingLong(ClaimedEvent::id))
+                .toList();
+    }
+
+    private void process(ClaimedEvent event) {
+        String tag = event.source().name().toLowerCase();
+        long start = System.nanoTime();
+        try {
+            processor.process(event);
+            jdbcTemplate.update("""
+                    UPDATE inbound_webhook_events
+                    SET status = 'DONE', processed_at = NOW(), locked_until = NULL, last_error = NULL
+                    WHERE id = ?
+                    """, event.id());
+            openEvents.decrementAndGet();
+            meterRegistry.timer("webhook.inbound.processing", "source", tag, "outcome", "done")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.timer("webhook.inbound.lag", "source", tag)
+                    .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.receivedAt().getTime())));
+        } catch (Exception e) {
+            boolean exhausted = event.attempts() >= maxRetries;
+            long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(event.attempts() - 1, 20));
+            jdbcTemplate.update("""
+                    UPDATE inbound_webhook_events
+                    SET status = ?, last_error = ?, locked_until = NULL,
+                        next_attempt_at = NOW() + ? * INTERVAL '1 millisecond'
+                    WHERE id = ?
+                    """, exhausted ? "FAILED" : "PENDING", truncate(String.valueOf(e.getMessage()), 500),
+                    backoffMs, event.id());
+            if (exhausted) {
+                openEvents.decrementAndGet();
+                log.error("Webhook event {} ({} {}) failed after {} attempts", event.id(), event.source(),
+                        event.eventType(), event.attempts(), e);
+            } else {
+                log.warn("Webhook event {} ({} {}) failed on attempt {}, retrying in {} ms: {}", event.id(),
+                        event.source(), event.eventType(), event.attempts(), backoffMs, e.getMessage());
+            }
+            meterRegistry.timer("webhook.inbound.processing", "source", tag, "outcome", exhausted ? "failed" : "retry")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Re-syncs the open event count (the admission bound) with the table, so events
+     * queued or finished on other nodes are accounted for
+     */
+    @Scheduled(fixedDelayString = "${payment.webhook.depth-refresh-ms:5000}")
+    public void refreshQueueDepth() {
+        try {
+            Long open = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM inbound_webhook_events WHERE status IN ('PENDING', 'PROCESSING')", Long.class);
+            openEvents.set(open != null ? open : 0L);
+        } catch (Exception e) {
+            log.debug("Could not refresh webhook queue depth: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns events abandoned by a dead worker to the queue and purges finished events
+     * whose dedupe window has passed
+     */
+    @ClusterSingleton(value = "inbound-webhook-cleanup")
+    @Scheduled(fixedDelayString = "${payment.webhook.cleanup-interval-ms:300000}",
+               initialDelayString = "${payment.webhook.cleanup-interval-ms:300000}")
+    public void cleanup() {
+        int released = jdbcTemplate.update("""
+                UPDATE inbound_webhook_events
+                SET status = 'PENDING', locked_until = NULL
+                WHERE status = 'PROCESSING' AND locked_until < NOW()
+                """);
+        if (released > 0) {
+            log.warn("Released {} webhook events held by unresponsive workers", released);
+        }
+
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    DELETE FROM inbound_webhook_events
+                    WHERE id IN (
+                        SELECT id FROM inbound_webhook_events
+                        WHERE expires_at < NOW() AND status IN ('DONE', 'FAILED')
+                        LIMIT 5000)
+                    """);
+            purged += deleted;
+        } while (deleted > 0);
+        if (purged > 0) {
+            log.info("Purged {} expired inbound webhook events", purged);
+        }
+    }
+
+    private Outcome count(String source, Outcome outcome) {
+        meterRegistry.counter("webhook.inbound.received",
+                "source", source.toLowerCase(), "outcome", outcome.name().toLowerCase()).increment();
+        return outcome;
+    }
+
+    private static Map<?, ?> map(Object value) {
+        return value instanceof Map<?, ?> map ? map : Map.of();
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Event claimed by a worker lane
+     */
+    public record ClaimedEvent(long id, Source source, String eventType, String partitionKey,
+                               String payload, int attempts, Timestamp receivedAt) {
+    }
+}
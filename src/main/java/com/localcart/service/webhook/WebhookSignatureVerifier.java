@@ -0,0 +1,129 @@
+package com.localcart.service.webhook;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Webhook Signature Verifier
+ *
+ * Cheap, local checks run on the request thread before anything is queued:
+ * - Stripe: "t=<unix seconds>,v1=<hex>" HMAC-SHA256 of "t.payload" with the endpoint
+ *   secret, rejected outside the replay tolerance
+ * - n8n: shared secret in X-Webhook-Secret (n8n "Header Auth"); without a configured
+ *   secret every n8n delivery is rejected
+ * - PayPal: signatures can only be verified through PayPal's API and no PayPal gateway is
+ *   registered yet, so PayPal deliveries are rejected
+ *
+ * Payment events are never trusted for their content: the worker re-reads the payment's
+ * state from the gateway, so a forged event can at most trigger a verification.
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    @Value("${payment.webhook.verify-signature:true}")
+    private boolean verifySignature;
+
+    @Value("${payment.stripe.webhook-secret:}")
+    private String stripeSecret;
+
+    @Value("${payment.webhook.tolerance-seconds:300}")
+    private long toleranceSeconds;
+
+    @Value("${n8n.webhook.secret:}")
+    private String n8nSecret;
+
+    private final Clock clock;
+
+    public WebhookSignatureVerifier() {
+        this.clock = Clock.systemUTC();
+    }
+
+    WebhookSignatureVerifier(Clock clock, boolean verifySignature, String stripeSecret,
+                             long toleranceSeconds, String n8nSecret) {
+        this.clock = clock;
+        this.verifySignature = verifySignature;
+        this.stripeSecret = stripeSecret;
+        this.toleranceSeconds = toleranceSeconds;
+        this.n8nSecret = n8nSecret;
+    }
+
+    public boolean verifyStripe(String payload, String signatureHeader) {
+        if (!verifySignature) {
+            return true;
+        }
+        if (signatureHeader == null || stripeSecret == null || stripeSecret.isBlank()) {
+            return false;
+        }
+
+        Long timestamp = null;
+        List<String> signatures = new ArrayList<>();
+        for (String element : signatureHeader.split(",")) {
+            String[] pair = element.trim().split("=", 2);
+            if (pair.length != 2) {
+                continue;
+            }
+            if ("t".equals(pair[0])) {
+                try {
+                    timestamp = Long.parseLong(pair[1]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if ("v1".equals(pair[0])) {
+                signatures.add(pair[1]);
+            }
+        }
+        if (timestamp == null || Math.abs(clock.millis() / 1000 - timestamp) > toleranceSeconds) {
+            return false;
+        }
+
+        // Stripe sends one v1 per active secret while a secret is being rolled
+        String expected = hmacHex(stripeSecret, timestamp + "." + payload);
+        for (String signature : signatures) {
+            if (constantTimeEquals(expected, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Always false until verification through PayPal's verify-webhook-signature API exists
+     */
+    public boolean verifyPayPal(String transmissionSignature) {
+        return false;
+    }
+
+    /**
+     * The webhook routes are unauthenticated, so a missing secret fails closed
+     */
+    public boolean verifyN8n(String secretHeader) {
+        if (n8nSecret == null || n8nSecret.isBlank()) {
+            return false;
+        }
+        return secretHeader != null && constantTimeEquals(n8nSecret, secretHeader);
+    }
+
+    static String hmacHex(String secret, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static boolean constantTimeEquals(String expected, String actual) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+}
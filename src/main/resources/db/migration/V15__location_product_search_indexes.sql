@@ -0,0 +1,14 @@
+-- V15__location_product_search_indexes.sql
+-- Supports the single-query location product search:
+-- approved vendors by shop pincode -> their live products -> batched images.
+
+CREATE INDEX IF NOT EXISTS idx_vendor_pincode_approved
+    ON vendors(shop_pincode)
+    WHERE status = 'APPROVED' AND is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_product_vendor_live
+    ON products(vendor_id, id)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_product_image_product_order
+    ON product_images(product_id, display_order);
@@ -0,0 +1,71 @@
+-- V16__rating_aggregates.sql
+-- Stored rating sum and 1-5 star histogram on products and vendors.
+-- Maintained incrementally on review insert/delete; reconciled by a nightly job.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_1 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_2 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_3 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_4 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_5 INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_count_1 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_count_2 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_count_3 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_count_4 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS rating_count_5 INTEGER NOT NULL DEFAULT 0;
+
+UPDATE products SET total_reviews = 0 WHERE total_reviews IS NULL;
+UPDATE vendors SET total_reviews = 0 WHERE total_reviews IS NULL;
+
+-- Backfill from existing reviews
+WITH agg AS (
+    SELECT r.product_id,
+           COUNT(*) AS review_count,
+           SUM(r.rating) AS rating_sum,
+           COUNT(*) FILTER (WHERE r.rating = 1) AS c1,
+           COUNT(*) FILTER (WHERE r.rating = 2) AS c2,
+           COUNT(*) FILTER (WHERE r.rating = 3) AS c3,
+           COUNT(*) FILTER (WHERE r.rating = 4) AS c4,
+           COUNT(*) FILTER (WHERE r.rating = 5) AS c5
+    FROM reviews r
+    WHERE r.is_deleted IS NOT TRUE
+    GROUP BY r.product_id
+)
+UPDATE products p
+SET total_reviews = agg.review_count,
+    rating_sum = agg.rating_sum,
+    rating_count_1 = agg.c1,
+    rating_count_2 = agg.c2,
+    rating_count_3 = agg.c3,
+    rating_count_4 = agg.c4,
+    rating_count_5 = agg.c5,
+    rating = agg.rating_sum::DOUBLE PRECISION / agg.review_count
+FROM agg
+WHERE p.id = agg.product_id;
+
+WITH agg AS (
+    SELECT r.vendor_id,
+           COUNT(*) AS review_count,
+           SUM(r.rating) AS rating_sum,
+           COUNT(*) FILTER (WHERE r.rating = 1) AS c1,
+           COUNT(*) FILTER (WHERE r.rating = 2) AS c2,
+           COUNT(*) FILTER (WHERE r.rating = 3) AS c3,
+           COUNT(*) FILTER (WHERE r.rating = 4) AS c4,
+           COUNT(*) FILTER (WHERE r.rating = 5) AS c5
+    FROM reviews r
+    WHERE r.is_deleted IS NOT TRUE
+    GROUP BY r.vendor_id
+)
+UPDATE vendors v
+SET total_reviews = agg.review_count,
+    rating_sum = agg.rating_sum,
+    rating_count_1 = agg.c1,
+    rating_count_2 = agg.c2,
+    rating_count_3 = agg.c3,
+    rating_count_4 = agg.c4,
+    rating_count_5 = agg.c5,
+    rating = agg.rating_sum::DOUBLE PRECISION / agg.review_count
+FROM agg
+WHERE v.id = agg.vendor_id;
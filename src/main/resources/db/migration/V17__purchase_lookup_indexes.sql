@@ -0,0 +1,8 @@
+-- V17__purchase_lookup_indexes.sql
+-- Verified-purchase / buy-again lookups: order_items by product joined to the user's orders by status.
+
+CREATE INDEX IF NOT EXISTS idx_order_item_product_order
+    ON order_items(product_id, order_id);
+
+CREATE INDEX IF NOT EXISTS idx_order_user_status
+    ON orders(user_id, status, created_at DESC);
@@ -0,0 +1,7 @@
+-- V18__cart_reminder_watermark.sql
+-- Abandoned-cart reminders: remember when a cart was last reminded so it is not re-notified,
+-- and support keyset scans over stale carts.
+
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS reminder_sent_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_cart_updated_id ON carts(updated_at, id);
@@ -0,0 +1,6 @@
+-- V19__low_stock_thresholds.sql
+-- Per-product and per-vendor low-stock thresholds for edge-triggered stock alerts.
+-- NULL falls back to the vendor value, then to automation.low-stock.threshold.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER;
+ALTER TABLE vendors ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER;
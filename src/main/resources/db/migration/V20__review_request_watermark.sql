@@ -0,0 +1,25 @@
+-- V20__review_request_watermark.sql
+-- Incremental review-request job: per-order marker, job checkpoints and supporting indexes.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS review_requested_at TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    deleted_at TIMESTAMP,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    job_name VARCHAR(100) NOT NULL UNIQUE,
+    watermark TIMESTAMP,
+    last_id BIGINT
+);
+
+-- Delivered orders still awaiting a review request, scanned by delivery window
+CREATE INDEX IF NOT EXISTS idx_order_review_pending
+    ON orders(delivered_at, id)
+    WHERE status = 'DELIVERED' AND review_requested_at IS NULL;
+
+-- NOT EXISTS probe from orders to reviews
+CREATE INDEX IF NOT EXISTS idx_review_order ON reviews(order_id);
@@ -0,0 +1,11 @@
+-- V21__scheduler_leases.sql
+-- Cluster-wide leases so each scheduled job runs on one node at a time.
+-- A lease is free once locked_until has passed; the holder renews it while the job runs.
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    job_name VARCHAR(150) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP NOT NULL
+);
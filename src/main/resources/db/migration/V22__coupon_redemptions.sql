@@ -0,0 +1,24 @@
+-- V22__coupon_redemptions.sql
+-- Per-user coupon redemption ledger backing per_user_limit checks.
+
+CREATE TABLE IF NOT EXISTS coupon_redemptions (
+    id BIGSERIAL PRIMARY KEY,
+    deleted_at TIMESTAMP,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    coupon_id BIGINT NOT NULL REFERENCES coupons(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    order_id BIGINT REFERENCES orders(id) ON DELETE SET NULL,
+    discount_amount DECIMAL(10, 2) NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_coupon_redemption_coupon_user ON coupon_redemptions(coupon_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_coupon_redemption_order ON coupon_redemptions(order_id);
+
+-- Guarded usage_count increments must never push a coupon over its limit
+ALTER TABLE coupons DROP CONSTRAINT IF EXISTS chk_coupon_usage_within_limit;
+ALTER TABLE coupons ADD CONSTRAINT chk_coupon_usage_within_limit
+    CHECK (usage_limit IS NULL OR usage_count <= usage_limit) NOT VALID;
@@ -0,0 +1,16 @@
+-- V23__promotion_pricing_rules.sql
+-- Structured discount terms so promotions can be applied during cart pricing.
+
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS discount_type VARCHAR(20);
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS discount_value DECIMAL(10, 2);
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS min_purchase_amount DECIMAL(10, 2);
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS max_discount_amount DECIMAL(10, 2);
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS product_id BIGINT REFERENCES products(id) ON DELETE CASCADE;
+ALTER TABLE promotions ADD COLUMN IF NOT EXISTS category_id BIGINT REFERENCES categories(id) ON DELETE CASCADE;
+
+ALTER TABLE promotions DROP CONSTRAINT IF EXISTS chk_promotion_discount_type;
+ALTER TABLE promotions ADD CONSTRAINT chk_promotion_discount_type
+    CHECK (discount_type IS NULL OR discount_type IN ('PERCENTAGE', 'FIXED_AMOUNT'));
+
+CREATE INDEX IF NOT EXISTS idx_promotion_product ON promotions(product_id);
+CREATE INDEX IF NOT EXISTS idx_promotion_category ON promotions(category_id);
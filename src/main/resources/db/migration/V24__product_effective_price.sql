@@ -0,0 +1,18 @@
+-- V24__product_effective_price.sql
+-- Materialized selling price: discount/list price with active OFFER promotions applied.
+-- Maintained by the promotion activation scheduler and product writes.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS effective_price DECIMAL(10, 2);
+
+UPDATE products SET effective_price = COALESCE(discount_price, price) WHERE effective_price IS NULL;
+
+ALTER TABLE products ALTER COLUMN effective_price SET NOT NULL;
+
+-- Price sort and range filters over the live catalog
+CREATE INDEX IF NOT EXISTS idx_product_effective_price
+    ON products(effective_price, id)
+    WHERE is_active = TRUE AND is_deleted = FALSE;
+
+-- Promotion boundary scans for the activation scheduler
+CREATE INDEX IF NOT EXISTS idx_promotion_starts_at ON promotions(starts_at) WHERE is_active = TRUE;
+CREATE INDEX IF NOT EXISTS idx_promotion_ends_at ON promotions(ends_at) WHERE is_active = TRUE;
@@ -0,0 +1,33 @@
+-- V25__product_listing_sort_indexes.sql
+-- Partial indexes matching the live-catalog predicate (is_active AND deleted_at IS NULL)
+-- and each listing sort, with id as the paging tie-breaker. Category variants serve
+-- category-filtered listings as an index range scan.
+
+-- V24's price index used is_deleted, which the catalog queries do not filter on
+DROP INDEX IF EXISTS idx_product_effective_price;
+
+CREATE INDEX IF NOT EXISTS idx_product_live_price
+    ON products(effective_price, id)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_rating
+    ON products(rating DESC NULLS LAST, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_sales
+    ON products(total_sales DESC NULLS LAST, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_newest
+    ON products(created_at DESC, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_product_live_category_price
+    ON products(category_id, effective_price, id)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_category_rating
+    ON products(category_id, rating DESC NULLS LAST, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_category_sales
+    ON products(category_id, total_sales DESC NULLS LAST, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_product_live_category_newest
+    ON products(category_id, created_at DESC, id DESC)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
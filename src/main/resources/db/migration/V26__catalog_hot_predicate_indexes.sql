@@ -0,0 +1,39 @@
+-- V26__catalog_hot_predicate_indexes.sql
+-- Partial and expression indexes for the predicates shared by the catalog queries in
+-- ProductRepository / VendorRepository:
+--   products: is_active = TRUE AND deleted_at IS NULL
+--   vendors:  status = 'APPROVED' (AND is_deleted = FALSE)
+-- Checked by CatalogQueryPlanTest against a seeded Postgres database.
+
+-- Live products per vendor (vendor storefronts, JOIN from approved vendors)
+CREATE INDEX IF NOT EXISTS idx_product_live_vendor
+    ON products(vendor_id, id)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+
+-- Featured shelf
+CREATE INDEX IF NOT EXISTS idx_product_live_featured
+    ON products(id)
+    WHERE is_featured = TRUE AND is_active = TRUE AND deleted_at IS NULL;
+
+-- Low-stock scans
+CREATE INDEX IF NOT EXISTS idx_product_live_stock
+    ON products(stock)
+    WHERE is_active = TRUE AND deleted_at IS NULL;
+
+-- Approved-vendor probe for product joins; also serves the approved vendor listing by name
+CREATE INDEX IF NOT EXISTS idx_vendor_approved_name
+    ON vendors(business_name)
+    WHERE status = 'APPROVED' AND is_deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_vendor_approved_id
+    ON vendors(id)
+    WHERE status = 'APPROVED';
+
+-- LOWER(v.businessZipCode) = LOWER(:zipCode) in product location search
+CREATE INDEX IF NOT EXISTS idx_vendor_approved_zip_lower
+    ON vendors(LOWER(business_zip_code))
+    WHERE status = 'APPROVED';
+
+-- Vendor application queue
+CREATE INDEX IF NOT EXISTS idx_vendor_pending_created
+    ON vendors(created_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,6 @@
+-- V27__payment_provider.sql
+-- Records which gateway issued a payment's transaction id, so follow-up calls
+-- (process, verify, refund) go back to that provider after a fallback.
+-- NULL means the payment predates this column and belongs to the default gateway.
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS provider VARCHAR(20);
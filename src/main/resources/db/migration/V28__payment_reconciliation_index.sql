@@ -0,0 +1,7 @@
+-- V28__payment_reconciliation_index.sql
+-- Payments awaiting the gateway are a small, hot subset; the reconciliation job walks
+-- them by id (keyset) and filters on updated_at.
+
+CREATE INDEX IF NOT EXISTS idx_payment_unsettled
+    ON payments (id, updated_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,32 @@
+-- V29__inbound_webhook_events.sql
+-- Durable queue for inbound webhooks (payment providers and n8n callbacks).
+-- The (source, event_id) key dedupes redeliveries until expires_at; rows past it
+-- are purged by the cleanup job. Workers claim PENDING rows per partition_key in
+-- id order, so events for the same payment are applied one at a time, in order.
+
+CREATE TABLE IF NOT EXISTS inbound_webhook_events (
+    id               BIGSERIAL PRIMARY KEY,
+    source           VARCHAR(20)  NOT NULL,
+    event_id         VARCHAR(255) NOT NULL,
+    event_type       VARCHAR(100),
+    partition_key    VARCHAR(255) NOT NULL,
+    partition_hash   INTEGER      NOT NULL,
+    payload          TEXT         NOT NULL,
+    status           VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts         INTEGER      NOT NULL DEFAULT 0,
+    last_error       VARCHAR(500),
+    next_attempt_at  TIMESTAMP    NOT NULL DEFAULT NOW(),
+    locked_until     TIMESTAMP,
+    received_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    processed_at     TIMESTAMP,
+    expires_at       TIMESTAMP    NOT NULL,
+    CONSTRAINT uk_inbound_webhook_event UNIQUE (source, event_id)
+);
+
+-- Open work only: claim scans and the per-key ordering check
+CREATE INDEX IF NOT EXISTS idx_inbound_webhook_open
+    ON inbound_webhook_events (partition_key, id)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+CREATE INDEX IF NOT EXISTS idx_inbound_webhook_expires
+    ON inbound_webhook_events (expires_at);
@@ -0,0 +1,14 @@
+-- V30__product_image_variants.sql
+-- Resized variants of uploaded product images (written by ImageVariantService).
+-- Listings use the card variant instead of the full-size upload; rows stay PENDING
+-- until the background pipeline has written the files.
+
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(500);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS card_url VARCHAR(500);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS detail_url VARCHAR(500);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS variant_status VARCHAR(20) NOT NULL DEFAULT 'NONE';
+
+-- The sweeper only ever looks at the (small) pending set
+CREATE INDEX IF NOT EXISTS idx_product_images_variant_pending
+    ON product_images (updated_at)
+    WHERE variant_status = 'PENDING';
@@ -0,0 +1,10 @@
+-- V31__cart_reminder_partial_index.sql
+-- The abandoned-cart walk is keyed and ordered on id alone (c.id > :afterId ORDER BY c.id),
+-- so the (updated_at, id) index from V18 could not serve it. Index only carts still due a
+-- reminder, on id; the cutoff on updated_at is then checked on this small set.
+
+DROP INDEX IF EXISTS idx_cart_updated_id;
+
+CREATE INDEX IF NOT EXISTS idx_cart_reminder_due
+    ON carts (id)
+    WHERE reminder_sent_at IS NULL OR reminder_sent_at < updated_at;
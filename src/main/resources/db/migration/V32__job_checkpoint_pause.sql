@@ -0,0 +1,5 @@
+-- V32__job_checkpoint_pause.sql
+-- Cluster-wide pause flag for checkpointed jobs. Set by the admin API on whichever node
+-- receives the request and read by the lease holder before every chunk.
+
+ALTER TABLE job_checkpoints ADD COLUMN IF NOT EXISTS paused BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,11 @@
+-- V33__product_image_variant_attempts.sql
+-- Failed variant jobs are retried by the sweeper with exponential backoff, up to
+-- image.variants.max-attempts; the counter is what bounds the retries.
+
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS variant_attempts INTEGER NOT NULL DEFAULT 0;
+
+-- The sweeper now reads FAILED rows too
+DROP INDEX IF EXISTS idx_product_images_variant_pending;
+CREATE INDEX IF NOT EXISTS idx_product_images_variant_pending
+    ON product_images (updated_at)
+    WHERE variant_status IN ('PENDING', 'FAILED');
@@ -0,0 +1,298 @@
+package com.localcart.repository;
+
+import com.localcart.dto.product.ProductSort;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN regression checks for the hot catalog queries.
+ *
+ * Migrates a throwaway schema in the Postgres database given by EXPLAIN_DB_URL
+ * (EXPLAIN_DB_USER / EXPLAIN_DB_PASSWORD), seeds a realistic catalog, then calls the real
+ * ProductRepository methods. Every products query they send is EXPLAINed with its bound
+ * parameters on the way to the database, so a repository change that stops using the
+ * V25/V26 indexes fails here.
+ * Skipped when EXPLAIN_DB_URL is not set (the default H2 test profile cannot plan like Postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+@SpringBootTest
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = CatalogQueryPlanTest.SeededSchema.class)
+class CatalogQueryPlanTest {
+
+    private static final String SCHEMA = "explain_harness";
+
+    // Plans recorded for the calling thread only, so background jobs cannot interleave
+    private static final ThreadLocal<List<String>> RECORDED_PLANS = new ThreadLocal<>();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void categoryListingByPriceWalksCategoryPriceIndex() {
+        Long categoryId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM categories WHERE slug LIKE 'plan-%'", Long.class);
+
+        assertIndexScan(() -> productRepository.findByCategoryIdAndActive(categoryId, page(ProductSort.PRICE_ASC)),
+                "idx_product_live_category_price");
+    }
+
+    @Test
+    void newestListingWalksNewestIndex() {
+        assertIndexScan(() -> productRepository.findAllActiveProducts(page(ProductSort.NEWEST)),
+                "idx_product_live_newest");
+    }
+
+    @Test
+    void ratingListingWalksRatingIndex() {
+        assertIndexScan(() -> productRepository.findAllActiveProducts(page(ProductSort.RATING)),
+                "idx_product_live_rating");
+    }
+
+    @Test
+    void priceRangeUsesPriceIndex() {
+        assertIndexScan(() -> productRepository.searchProductsByLocation(null, null, null,
+                        new BigDecimal("100"), new BigDecimal("120"), page(ProductSort.PRICE_ASC)),
+                "idx_product_live_price");
+    }
+
+    @Test
+    void featuredProductsUseFeaturedIndex() {
+        assertIndexScan(() -> productRepository.findFeaturedProducts(PageRequest.of(0, 20)),
+                "idx_product_live_featured");
+    }
+
+    @Test
+    void zipCodeSearchUsesLowerZipIndex() {
+        assertIndexScan(() -> productRepository.searchProductsByLocation(null, null, "ZIP-7",
+                        null, null, PageRequest.of(0, 20)),
+                "idx_vendor_approved_zip_lower");
+    }
+
+    @Test
+    void pincodeSearchUsesApprovedPincodeIndex() {
+        assertIndexScan(() -> productRepository.findByApprovedVendorPincode("560007", PageRequest.of(0, 50)),
+                "idx_vendor_pincode_approved");
+    }
+
+    private static PageRequest page(ProductSort sort) {
+        return PageRequest.of(0, 20, sort.toSort());
+    }
+
+    /**
+     * Runs the repository call and checks the plan of the first products query it sent
+     * (paged calls may follow it with a count query)
+     */
+    private static void assertIndexScan(Runnable repositoryCall, String expectedIndex) {
+        List<String> plans = new ArrayList<>();
+        RECORDED_PLANS.set(plans);
+        try {
+            repositoryCall.run();
+        } finally {
+            RECORDED_PLANS.remove();
+        }
+
+        assertFalse(plans.isEmpty(), "The repository call sent no query on products");
+        String plan = plans.get(0);
+        assertTrue(plan.contains(expectedIndex), () -> "Expected a scan on " + expectedIndex + " but got:\n" + plan);
+        assertFalse(plan.contains("Seq Scan on products"), () -> "Unexpected sequential scan on products:\n" + plan);
+    }
+
+    @TestConfiguration
+    static class ExplainConfig {
+
+        @Bean
+        static BeanPostProcessor explainingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? explaining(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static DataSource explaining(DataSource target) {
+        return proxy(DataSource.class, target, (method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection ? explaining(connection) : result;
+        });
+    }
+
+    private static Connection explaining(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = method.invoke(target, args);
+            if (method.getName().equals("prepareStatement") && args[0] instanceof String sql
+                    && isProductsQuery(sql)) {
+                return explaining((PreparedStatement) result, target, sql);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Replays the bound parameters onto "EXPLAIN <sql>" before the query itself executes
+     */
+    private static PreparedStatement explaining(PreparedStatement target, Connection connection, String sql) {
+        List<Method> setters = new ArrayList<>();
+        List<Object[]> setterArgs = new ArrayList<>();
+        return proxy(PreparedStatement.class, target, (method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                setters.add(method);
+                setterArgs.add(args);
+            } else if (method.getName().equals("executeQuery") && args == null && RECORDED_PLANS.get() != null) {
+                RECORDED_PLANS.get().add(explain(connection, sql, setters, setterArgs));
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private static String explain(Connection connection, String sql, List<Method> setters, List<Object[]> setterArgs)
+            throws ReflectiveOperationException, SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).invoke(statement, setterArgs.get(i));
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private static boolean isProductsQuery(String sql) {
+        String normalized = sql.toLowerCase(Locale.ROOT).trim();
+        return normalized.startsWith("select") && normalized.contains(" products ");
+    }
+
+    private interface Invocation {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Invocation invocation) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return invocation.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Migrates and seeds the schema before the context starts, and points the application's
+     * datasource at it
+     */
+    static class SeededSchema implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            String url = System.getenv("EXPLAIN_DB_URL");
+            String user = System.getenv("EXPLAIN_DB_USER");
+            String password = System.getenv("EXPLAIN_DB_PASSWORD");
+
+            Flyway flyway = Flyway.configure()
+                    .dataSource(url, user, password)
+                    .schemas(SCHEMA)
+                    .cleanDisabled(false)
+                    .load();
+            flyway.clean();
+            flyway.migrate();
+
+            try (Connection connection = DriverManager.getConnection(url, user, password);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SET search_path TO " + SCHEMA);
+                seed(statement);
+                statement.execute("ANALYZE");
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not seed " + SCHEMA, e);
+            }
+
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + (user != null ? user : ""),
+                    "spring.datasource.password=" + (password != null ? password : ""),
+                    "spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "spring.datasource.hikari.schema=" + SCHEMA,
+                    "spring.jpa.hibernate.ddl-auto=none",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+            ).applyTo(context);
+        }
+
+        /**
+         * 500 vendors (80% approved), 20 categories, 100k products with ~10% inactive and ~5% soft-deleted
+         */
+        private static void seed(Statement statement) throws SQLException {
+            statement.execute("""
+                    INSERT INTO users (email, password, first_name, last_name)
+                    SELECT 'plan-vendor-' || g || '@example.com', 'x', 'Plan', 'Vendor'
+                    FROM generate_series(1, 500) g
+                    """);
+            statement.execute("""
+                    INSERT INTO vendors (user_id, business_name, shop_pincode, business_zip_code, status)
+                    SELECT u.id, 'Plan Vendor ' || u.id, '5600' || LPAD((u.id % 50)::text, 2, '0'),
+                           'ZIP-' || (u.id % 100), CASE WHEN u.id % 5 = 0 THEN 'PENDING' ELSE 'APPROVED' END
+                    FROM users u WHERE u.email LIKE 'plan-vendor-%'
+                    """);
+            statement.execute("""
+                    INSERT INTO categories (name, slug)
+                    SELECT 'Plan Category ' || g, 'plan-category-' || g
+                    FROM generate_series(1, 20) g
+                    """);
+            statement.execute("""
+                    WITH v AS (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS n FROM vendors),
+                         c AS (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS n FROM categories WHERE slug LIKE 'plan-%')
+                    INSERT INTO products (vendor_id, category_id, name, slug, price, effective_price, stock,
+                                          is_active, is_featured, rating, total_sales, created_at, deleted_at, is_deleted)
+                    SELECT v.id, c.id, 'Plan Product ' || g, 'plan-product-' || g,
+                           (g % 1000) + 0.99, (g % 1000) + 0.99, g % 200,
+                           g % 10 <> 0, g % 50 = 0,
+                           CASE WHEN g % 3 = 0 THEN NULL ELSE (g % 5) + 1 END, g % 300,
+                           NOW() - (g || ' minutes')::interval,
+                           CASE WHEN g % 20 = 0 THEN NOW() END, g % 20 = 0
+                    FROM generate_series(1, 100000) g
+                    JOIN v ON v.n = (g % (SELECT COUNT(*) FROM vendors)) + 1
+                    JOIN c ON c.n = (g % 20) + 1
+                    """);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.localcart.service;
+
+import com.localcart.entity.Coupon;
+import com.localcart.entity.User;
+import com.localcart.entity.Vendor;
+import com.localcart.entity.enums.CouponType;
+import com.localcart.repository.CouponRedemptionRepository;
+import com.localcart.repository.CouponRepository;
+import com.localcart.repository.UserRepository;
+import com.localcart.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CouponRedemptionConcurrencyTest {
+
+	private static final int ATTEMPTS = 500;
+
+	@Autowired
+	private CouponService couponService;
+
+	@Autowired
+	private CouponRepository couponRepository;
+
+	@Autowired
+	private CouponRedemptionRepository couponRedemptionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private VendorRepository vendorRepository;
+
+	@Test
+	void usageLimitHoldsUnderParallelRedemptions() throws Exception {
+		User customer = createUser();
+		Coupon coupon = createCoupon(100, null);
+
+		int redeemed = redeemInParallel(coupon.getCode(), customer.getId());
+
+		assertEquals(100, redeemed);
+		assertEquals(100, couponRepository.findById(coupon.getId()).orElseThrow().getUsageCount());
+		assertEquals(100, couponRedemptionRepository.countByCouponId(coupon.getId()));
+	}
+
+	@Test
+	void perUserLimitHoldsUnderParallelRedemptions() throws Exception {
+		User customer = createUser();
+		Coupon coupon = createCoupon(null, 3);
+
+		int redeemed = redeemInParallel(coupon.getCode(), customer.getId());
+
+		assertEquals(3, redeemed);
+		assertEquals(3, couponRepository.findById(coupon.getId()).orElseThrow().getUsageCount());
+		assertEquals(3, couponRedemptionRepository.countByCouponIdAndUserId(coupon.getId(), customer.getId()));
+	}
+
+	private int redeemInParallel(String code, Long userId) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < ATTEMPTS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					try {
+						couponService.redeemCoupon(code, userId, null, BigDecimal.TEN);
+						return true;
+					} catch (RuntimeException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			int redeemed = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get(60, TimeUnit.SECONDS)) {
+					redeemed++;
+				}
+			}
+			return redeemed;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private User createUser() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		return userRepository.save(User.builder()
+				.email("coupon-" + suffix + "@example.com")
+				.password("secret-password")
+				.firstName("Coupon")
+				.lastName("Tester")
+				.build());
+	}
+
+	private Coupon createCoupon(Integer usageLimit, Integer perUserLimit) {
+		String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+		Vendor vendor = vendorRepository.save(Vendor.builder()
+				.user(createUser())
+				.businessName("Coupon Vendor " + suffix)
+				.shopPincode("560001")
+				.build());
+		return couponRepository.save(Coupon.builder()
+				.code("RACE" + suffix)
+				.couponType(CouponType.FIXED_AMOUNT)
+				.discountValue(BigDecimal.TEN)
+				.usageLimit(usageLimit)
+				.perUserLimit(perUserLimit)
+				.vendor(vendor)
+				.build());
+	}
+}
@@ -0,0 +1,68 @@
+package com.localcart.service.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageResizerTest {
+
+	@Test
+	void fitsLongestEdgeWithoutUpscaling() {
+		assertArrayEquals(new int[]{480, 360}, ImageResizer.fit(4000, 3000, 480));
+		assertArrayEquals(new int[]{360, 480}, ImageResizer.fit(3000, 4000, 480));
+		assertArrayEquals(new int[]{300, 200}, ImageResizer.fit(300, 200, 480));
+	}
+
+	@Test
+	void resizesInStepsToExactTarget() {
+		BufferedImage source = new BufferedImage(4000, 3000, BufferedImage.TYPE_3BYTE_BGR);
+
+		BufferedImage resized = ImageResizer.resize(source, 480, 360, false);
+
+		assertEquals(480, resized.getWidth());
+		assertEquals(360, resized.getHeight());
+		assertEquals(BufferedImage.TYPE_INT_RGB, resized.getType());
+	}
+
+	@Test
+	void readsExifOrientationInBothByteOrders() {
+		assertEquals(6, ImageResizer.readOrientation(jpegWithOrientation(6, false)));
+		assertEquals(8, ImageResizer.readOrientation(jpegWithOrientation(8, true)));
+		assertEquals(1, ImageResizer.readOrientation(new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+	}
+
+	@Test
+	void rotatesClockwiseForOrientationSix() {
+		BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(0, 0, 0xFF0000);
+		image.setRGB(1, 0, 0x00FF00);
+
+		BufferedImage oriented = ImageResizer.orient(image, 6);
+
+		assertEquals(1, oriented.getWidth());
+		assertEquals(2, oriented.getHeight());
+		assertEquals(0xFF0000, oriented.getRGB(0, 0) & 0xFFFFFF);
+		assertEquals(0x00FF00, oriented.getRGB(0, 1) & 0xFFFFFF);
+	}
+
+	// SOI + APP1 "Exif" segment holding a single-entry IFD0 with the orientation tag
+	private static byte[] jpegWithOrientation(int orientation, boolean littleEndian) {
+		byte[] tiff = littleEndian
+				? new byte[]{'I', 'I', 42, 0, 8, 0, 0, 0, 1, 0, 0x12, 0x01, 3, 0, 1, 0, 0, 0, (byte) orientation, 0, 0, 0, 0, 0, 0, 0}
+				: new byte[]{'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+		int length = 2 + 6 + tiff.length;
+		byte[] data = new byte[4 + 4 + 6 + tiff.length];
+		data[0] = (byte) 0xFF;
+		data[1] = (byte) 0xD8;
+		data[2] = (byte) 0xFF;
+		data[3] = (byte) 0xE1;
+		data[4] = (byte) (length >> 8);
+		data[5] = (byte) length;
+		System.arraycopy(new byte[]{'E', 'x', 'i', 'f', 0, 0}, 0, data, 6, 6);
+		System.arraycopy(tiff, 0, data, 12, tiff.length);
+		return data;
+	}
+}
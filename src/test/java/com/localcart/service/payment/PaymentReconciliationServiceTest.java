@@ -0,0 +1,97 @@
+package com.localcart.service.payment;
+
+import com.localcart.dto.payment.StalePaymentSummary;
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.entity.enums.PaymentStatus;
+import com.localcart.repository.PaymentRepository;
+import com.localcart.service.payment.gateway.factory.PaymentGatewayFactory;
+import com.localcart.service.payment.gateway.impl.MockGatewaySimulation;
+import com.localcart.service.payment.gateway.impl.MockPaymentGateway;
+import com.localcart.service.stream.StatusStreamService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentReconciliationServiceTest {
+
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final PaymentGatewayFactory gatewayFactory = mock(PaymentGatewayFactory.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final StatusStreamService statusStreamService = mock(StatusStreamService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final MockPaymentGateway gateway = new MockPaymentGateway();
+
+	private PaymentReconciliationService service;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(gateway, "simulation", mock(MockGatewaySimulation.class));
+		ReflectionTestUtils.setField(gateway, "driftStatus", "FAILED");
+		when(gatewayFactory.getGateway(PaymentProvider.MOCK)).thenReturn(gateway);
+		when(gatewayFactory.getDefaultProvider()).thenReturn(PaymentProvider.MOCK);
+		when(paymentRepository.findStalePayments(any(), any(), any(), any(), any())).thenReturn(List.of(
+				new StalePaymentSummary(1L, "mock_a", PaymentProvider.MOCK, PaymentStatus.PENDING, 10L),
+				new StalePaymentSummary(2L, "mock_b", PaymentProvider.MOCK, PaymentStatus.PROCESSING, 20L)));
+
+		service = new PaymentReconciliationService(paymentRepository, gatewayFactory, jdbcTemplate,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry,
+				new MockEnvironment(), statusStreamService, 2);
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "staleAfterMinutes", 15L);
+		ReflectionTestUtils.setField(service, "maxAgeHours", 72L);
+		ReflectionTestUtils.setField(service, "chunkSize", 200);
+		ReflectionTestUtils.setField(service, "rateLimitWaitMs", 1000L);
+	}
+
+	@Test
+	void stubSuccessNeverSettlesPayments() {
+		ReflectionTestUtils.setField(gateway, "driftRate", 0);
+
+		service.reconcile();
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+		assertEquals(2.0, meterRegistry.counter("payment.reconciliation.checks",
+				"provider", "mock", "outcome", "unconfirmed").count());
+		service.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void driftedPaymentsAreSettledGuardedOnTheStatusRead() {
+		ReflectionTestUtils.setField(gateway, "driftRate", 100);
+		ArgumentCaptor<List<Object[]>> arguments = ArgumentCaptor.forClass(List.class);
+		// Payment 2 was confirmed concurrently, so its guarded update matches no row
+		when(jdbcTemplate.batchUpdate(anyString(), arguments.capture())).thenReturn(new int[]{1, 0});
+
+		service.reconcile();
+
+		List<Object[]> rows = arguments.getValue();
+		assertEquals(2, rows.size());
+		assertArrayEquals(new Object[]{"FAILED", "FAILED", rows.get(0)[2], 1L, "PENDING"}, rows.get(0));
+		assertArrayEquals(new Object[]{"FAILED", "FAILED", rows.get(1)[2], 2L, "PROCESSING"}, rows.get(1));
+		assertTrue(((String) rows.get(0)[2]).contains("simulated drift"));
+		verify(statusStreamService, times(1)).publish(any());
+		assertEquals(1.0, meterRegistry.counter("payment.reconciliation.applied").count());
+		service.shutdown();
+	}
+}
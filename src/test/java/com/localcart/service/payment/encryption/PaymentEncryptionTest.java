@@ -0,0 +1,132 @@
+package com.localcart.service.payment.encryption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentEncryptionTest {
+
+	private static final String KEY = "unit-test-passphrase";
+
+	private PaymentEncryption encryption;
+
+	@BeforeEach
+	void setUp() {
+		encryption = new PaymentEncryption();
+		ReflectionTestUtils.setField(encryption, "encryptionKey", KEY);
+		ReflectionTestUtils.setField(encryption, "keyId", "k1");
+		encryption.init();
+	}
+
+	@Test
+	void roundTripsWithVersionedHeaderAndFreshNonce() {
+		String first = encryption.encryptMetadata("{\"walletId\":\"w-42\"}");
+		String second = encryption.encryptMetadata("{\"walletId\":\"w-42\"}");
+
+		assertTrue(first.startsWith("v1:k1:"));
+		assertNotEquals(first, second);
+		assertEquals("{\"walletId\":\"w-42\"}", encryption.decryptMetadata(first));
+	}
+
+	@Test
+	void rejectsTamperedCiphertext() {
+		String encrypted = encryption.encryptMetadata("billing");
+		byte[] payload = Base64.getDecoder().decode(encrypted.substring("v1:k1:".length()));
+		payload[payload.length - 1] ^= 1;
+		String tampered = "v1:k1:" + Base64.getEncoder().encodeToString(payload);
+
+		assertThrows(RuntimeException.class, () -> encryption.decryptMetadata(tampered));
+	}
+
+	@Test
+	void readsLegacyEcbValues() throws Exception {
+		byte[] legacyKey = Arrays.copyOf(KEY.getBytes(StandardCharsets.UTF_8), 32);
+		Cipher cipher = Cipher.getInstance("AES");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(legacyKey, "AES"));
+		String legacy = Base64.getEncoder().encodeToString(cipher.doFinal("old-metadata".getBytes(StandardCharsets.UTF_8)));
+
+		assertTrue(encryption.needsReEncryption(legacy));
+		assertEquals("old-metadata", encryption.decryptMetadata(legacy));
+	}
+
+	@Test
+	void keyRingDecryptsRetiredKeyAndReEncryptsUnderCurrent() throws Exception {
+		String underOldKey = encryption.encryptMetadata("rotate-me");
+
+		PaymentEncryption rotated = new PaymentEncryption();
+		ReflectionTestUtils.setField(rotated, "encryptionKey", "next-passphrase");
+		ReflectionTestUtils.setField(rotated, "keyId", "k2");
+		ReflectionTestUtils.setField(rotated, "previousKeys", "k1=" + KEY);
+		rotated.init();
+
+		assertTrue(rotated.needsReEncryption(underOldKey));
+		String reEncrypted = rotated.reEncrypt(underOldKey);
+		assertTrue(reEncrypted.startsWith("v1:k2:"));
+		assertEquals("rotate-me", rotated.decryptMetadata(reEncrypted));
+		assertEquals(reEncrypted, rotated.reEncrypt(reEncrypted));
+	}
+
+	@Test
+	void bulkApisKeepOrderAndNulls() {
+		List<String> plain = Arrays.asList("a", null, "", "d");
+		List<String> encrypted = encryption.encryptAll(plain);
+
+		assertEquals(plain, encryption.decryptAll(encrypted));
+	}
+
+	/**
+	 * Throughput check, run with -Dencryption.benchmark=true; reports round-trips/sec per thread
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "encryption.benchmark", matches = "true")
+	void encryptDecryptThroughput(TestReporter reporter) throws Exception {
+		String payload = "{\"billingAddress\":\"221B Baker Street\",\"walletId\":\"wallet-0001\"}";
+		long durationNanos = TimeUnit.SECONDS.toNanos(3);
+
+		for (int threads : new int[] {1, 4, Runtime.getRuntime().availableProcessors()}) {
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			List<Future<Long>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(pool.submit(() -> {
+					for (int i = 0; i < 20_000; i++) {
+						encryption.decryptMetadata(encryption.encryptMetadata(payload));
+					}
+					long ops = 0;
+					long end = System.nanoTime() + durationNanos;
+					while (System.nanoTime() < end) {
+						encryption.decryptMetadata(encryption.encryptMetadata(payload));
+						ops++;
+					}
+					return ops;
+				}));
+			}
+			long total = 0;
+			for (Future<Long> result : results) {
+				total += result.get();
+			}
+			pool.shutdown();
+			long perThread = total / threads / TimeUnit.NANOSECONDS.toSeconds(durationNanos);
+			assertTrue(perThread > 0, "no round-trips completed with " + threads + " threads");
+			reporter.publishEntry("roundTripsPerSecPerThread[threads=" + threads + "]", String.valueOf(perThread));
+		}
+	}
+}
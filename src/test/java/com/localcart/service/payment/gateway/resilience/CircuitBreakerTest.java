@@ -0,0 +1,60 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final List<String> transitions = new ArrayList<>();
+	private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 1_000, 2,
+			now::get, (from, to) -> transitions.add(from + "->" + to));
+
+	@Test
+	void opensOnceFailureRateReachedAfterMinimumCalls() {
+		fail(3);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		fail(1);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void halfOpenProbesCloseOnSuccessAndReopenOnFailure() {
+		fail(4);
+		now.addAndGet(1_000);
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission());
+
+		breaker.onSuccess();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		now.addAndGet(1_000);
+		for (int i = 0; i < 2; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.onSuccess();
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN",
+				"OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+	}
+
+	private void fail(int times) {
+		for (int i = 0; i < times; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.onFailure();
+		}
+	}
+}
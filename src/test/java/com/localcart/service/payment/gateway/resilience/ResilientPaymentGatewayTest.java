@@ -0,0 +1,60 @@
+package com.localcart.service.payment.gateway.resilience;
+
+import com.localcart.entity.enums.PaymentProvider;
+import com.localcart.exception.PaymentException;
+import com.localcart.exception.PaymentGatewayException;
+import com.localcart.service.payment.gateway.PaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientPaymentGatewayTest {
+
+	private final PaymentGateway delegate = mock(PaymentGateway.class);
+	private final ResilientPaymentGateway gateway = new ResilientPaymentGateway(PaymentProvider.MOCK, delegate,
+			new ResilienceSettings(4, 50, 1_000, 10, 4, 50, 60_000, 1), new SimpleMeterRegistry());
+
+	@AfterEach
+	void shutdown() {
+		gateway.shutdown();
+	}
+
+	@Test
+	void declinesKeepTheCircuitClosed() throws Exception {
+		PaymentGatewayException declined = new PaymentGatewayException("Card declined", "card_declined");
+		declined.setDeclined(true);
+		when(delegate.chargeToken(any(), any(), any(), any())).thenThrow(declined);
+		when(delegate.refundPayment(any(), any(), any()))
+				.thenThrow(new PaymentException("Refund amount invalid", "INVALID_AMOUNT"));
+
+		for (int i = 0; i < 10; i++) {
+			assertThrows(PaymentGatewayException.class,
+					() -> gateway.chargeToken("tok", BigDecimal.TEN, "USD", "order"));
+			assertThrows(PaymentException.class, () -> gateway.refundPayment("txn", BigDecimal.ONE, "reason"));
+		}
+
+		assertEquals(CircuitBreaker.State.CLOSED, gateway.getCircuitState());
+	}
+
+	@Test
+	void providerErrorsOpenTheCircuit() throws Exception {
+		when(delegate.verifyPayment(any())).thenThrow(new PaymentGatewayException("Upstream 503", "UPSTREAM_ERROR"));
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(PaymentGatewayException.class, () -> gateway.verifyPayment("txn"));
+		}
+
+		assertEquals(CircuitBreaker.State.OPEN, gateway.getCircuitState());
+		PaymentGatewayException rejected = assertThrows(PaymentGatewayException.class,
+				() -> gateway.verifyPayment("txn"));
+		assertEquals(ResilientPaymentGateway.CIRCUIT_OPEN, rejected.getGatewayErrorCode());
+	}
+}
@@ -0,0 +1,61 @@
+package com.localcart.service.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookSignatureVerifierTest {
+
+	private static final String SECRET = "whsec_test";
+	private static final String PAYLOAD = "{\"id\":\"evt_1\",\"type\":\"payment_intent.succeeded\"}";
+	private static final long NOW = 1_700_000_000L;
+
+	private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(
+			Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC), true, SECRET, 300, "n8n-secret");
+
+	@Test
+	void acceptsStripeSignatureAmongRolledSecrets() {
+		String signature = WebhookSignatureVerifier.hmacHex(SECRET, NOW + "." + PAYLOAD);
+
+		assertTrue(verifier.verifyStripe(PAYLOAD, "t=" + NOW + ",v1=" + signature));
+		assertTrue(verifier.verifyStripe(PAYLOAD, "t=" + NOW + ",v1=deadbeef,v1=" + signature));
+	}
+
+	@Test
+	void rejectsTamperedOrReplayedStripeEvents() {
+		String signature = WebhookSignatureVerifier.hmacHex(SECRET, NOW + "." + PAYLOAD);
+		long old = NOW - 301;
+		String oldSignature = WebhookSignatureVerifier.hmacHex(SECRET, old + "." + PAYLOAD);
+
+		assertFalse(verifier.verifyStripe(PAYLOAD.replace("evt_1", "evt_2"), "t=" + NOW + ",v1=" + signature));
+		assertFalse(verifier.verifyStripe(PAYLOAD, "t=" + old + ",v1=" + oldSignature));
+		assertFalse(verifier.verifyStripe(PAYLOAD, "v1=" + signature));
+		assertFalse(verifier.verifyStripe(PAYLOAD, null));
+	}
+
+	@Test
+	void checksN8nSharedSecret() {
+		assertTrue(verifier.verifyN8n("n8n-secret"));
+		assertFalse(verifier.verifyN8n("wrong"));
+		assertFalse(verifier.verifyN8n(null));
+	}
+
+	@Test
+	void rejectsN8nWithoutConfiguredSecret() {
+		WebhookSignatureVerifier unconfigured = new WebhookSignatureVerifier(
+				Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC), true, SECRET, 300, "");
+
+		assertFalse(unconfigured.verifyN8n(""));
+		assertFalse(unconfigured.verifyN8n("anything"));
+	}
+
+	@Test
+	void rejectsUnverifiablePayPalDeliveries() {
+		assertFalse(verifier.verifyPayPal("some-transmission-signature"));
+	}
+}